@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.RootNotification;
+import org.openwms.core.event.UserChangedEvent;
+import org.openwms.core.event.codec.EventCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A CodecBenchmark compares the {@link EventCodec} with Java serialization of the event
+ * type and source, for sources of different shape. The {@code codecWrite} and {@code
+ * codecRead} benchmarks use a reused buffer, {@code codecEncode} and {@code codecDecode}
+ * work with byte arrays like a transport would.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"string", "list", "notification"})
+    public String payload;
+    private final EventCodec codec = new EventCodec();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private RootApplicationEvent event;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        event = new UserChangedEvent(createSource());
+        encoded = codec.encode(event);
+        serialized = javaSerializationEncode();
+    }
+
+    private Serializable createSource() {
+        ArrayList<Serializable> list = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            list.add(i % 2 == 0 ? "user" + i : (Serializable) (long) i);
+        }
+        switch (payload) {
+            case "list":
+                return list;
+            case "notification":
+                return new RootNotification(list);
+            default:
+                return "user4711";
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer codecWrite() throws IOException {
+        buffer.clear();
+        codec.write(event, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Object codecRead() throws IOException {
+        buffer.clear();
+        codec.write(event, buffer);
+        buffer.flip();
+        return codec.read(buffer);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() throws IOException {
+        return codec.encode(event);
+    }
+
+    @Benchmark
+    public Object codecDecode() throws IOException {
+        return codec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] javaSerializationEncode() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeUTF(event.getClass().getName());
+            oos.writeObject(event.getSource());
+        }
+        return bos.toByteArray();
+    }
+
+    @Benchmark
+    public Object javaSerializationDecode() throws Exception {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            Class<?> type = Class.forName(ois.readUTF());
+            return type.getConstructor(Object.class).newInstance(ois.readObject());
+        }
+    }
+
+    /**
+     * Print the encoded sizes of both formats.
+     *
+     * @param args Not used
+     * @throws IOException Not expected
+     */
+    public static void main(String[] args) throws IOException {
+        for (String p : new String[]{"string", "list", "notification"}) {
+            CodecBenchmark benchmark = new CodecBenchmark();
+            benchmark.payload = p;
+            benchmark.setup();
+            System.out.printf("%-12s codec: %5d bytes, Java serialization: %5d bytes%n", p, benchmark.encoded.length, benchmark.serialized.length);
+        }
+    }
+}
\ No newline at end of file
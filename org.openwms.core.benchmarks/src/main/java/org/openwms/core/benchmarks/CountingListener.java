@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openwms.core.event.EventListener;
+import org.openwms.core.event.RootApplicationEvent;
+
+/**
+ * A CountingListener counts the received events in the {@link Counter} that is the source
+ * of an event. Each publisher thread dispatches events with a counter of its own, so that
+ * counting neither contends between threads nor races. Each instance is a distinct
+ * subscriber.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+class CountingListener implements EventListener {
+
+    @Override
+    public void onEvent(RootApplicationEvent event) {
+        Object source = event.getSource();
+        if (source instanceof Counter) {
+            ((Counter) source).count++;
+        }
+    }
+
+    /**
+     * A Counter of events, confined to one publisher thread.
+     */
+    static final class Counter {
+
+        private long count;
+
+        long getCount() {
+            return count;
+        }
+    }
+}
\ No newline at end of file
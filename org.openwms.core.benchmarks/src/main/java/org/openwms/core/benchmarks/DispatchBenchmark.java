@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.SimpleEventDispatcher;
+import org.openwms.core.event.UserChangedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A DispatchBenchmark measures {@link SimpleEventDispatcher#dispatch(RootApplicationEvent)}
+ * with a growing number of subscribed listeners. Run it with several publisher threads
+ * ({@code -t}), see {@link EventBenchmarks}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int listeners;
+    private SimpleEventDispatcher dispatcher;
+
+    /**
+     * The event of one publisher thread.
+     */
+    @State(Scope.Thread)
+    public static class Publisher {
+
+        private final UserChangedEvent event = new UserChangedEvent(new CountingListener.Counter());
+    }
+
+    @Setup
+    public void setup() {
+        dispatcher = new SimpleEventDispatcher(new StaticApplicationContext());
+        for (int i = 0; i < listeners; i++) {
+            dispatcher.subscribe(UserChangedEvent.class, new CountingListener());
+        }
+    }
+
+    @Benchmark
+    public void dispatch(Publisher publisher) {
+        dispatcher.dispatch(publisher.event);
+    }
+}
\ No newline at end of file
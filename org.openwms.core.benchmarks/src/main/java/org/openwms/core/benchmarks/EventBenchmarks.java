@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * An EventBenchmarks runs all benchmarks of the event subsystem with the GC profiler to
+ * report allocation rates. The {@link DispatchBenchmark} is executed with 1, 4, 16 and
+ * 64 publisher threads. Results are written as JSON files into the working directory.
+ * Any additional JMH command line option is passed through.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar org.openwms.core.benchmarks.EventBenchmarks}
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class EventBenchmarks {
+
+    private static final int[] PUBLISHER_THREADS = {1, 4, 16, 64};
+
+    private EventBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options parent = new CommandLineOptions(args);
+        for (int threads : PUBLISHER_THREADS) {
+            new Runner(new OptionsBuilder()
+                    .parent(parent)
+                    .include(DispatchBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("dispatch-" + threads + "t.json")
+                    .build()).run();
+        }
+        new Runner(new OptionsBuilder()
+                .parent(parent)
+                .include(SubscriptionChurnBenchmark.class.getSimpleName())
+                .include(PublisherLatencyBenchmark.class.getSimpleName())
+                .include(EventCreationBenchmark.class.getSimpleName())
+                .include(CodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("events.json")
+                .build()).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwms.core.annotation.FireAfterTransaction;
+import org.openwms.core.aop.FireAfterTransactionAspect;
+import org.openwms.core.event.EventFactories;
+import org.openwms.core.event.UserChangedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * An EventCreationBenchmark compares the reflective creation of events, as formerly done
+ * by the {@code FireAfterTransactionAspect}, with the cached factories of {@link
+ * EventFactories}. The {@code fireAfterTransaction} benchmark measures the whole advice
+ * including publishing the event to an {@code ApplicationContext} without listeners.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCreationBenchmark {
+
+    private final Object source = new Object();
+    private final Class<UserChangedEvent> eventType = UserChangedEvent.class;
+    private final Constructor<UserChangedEvent> constructor;
+    private final Function<Object, UserChangedEvent> factory = EventFactories.of(UserChangedEvent.class);
+    private FireAfterTransactionAspect aspect;
+    private FireAfterTransaction annotation;
+
+    public EventCreationBenchmark() {
+        try {
+            constructor = UserChangedEvent.class.getConstructor(Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        StaticApplicationContext ctx = new StaticApplicationContext();
+        ctx.refresh();
+        aspect = new FireAfterTransactionAspect(ctx);
+        annotation = EventCreationBenchmark.class.getMethod("fireAfterTransaction").getAnnotation(FireAfterTransaction.class);
+    }
+
+    @Benchmark
+    public Object reflectiveLookupAndCreate() throws Exception {
+        return eventType.getConstructor(Object.class).newInstance(source);
+    }
+
+    @Benchmark
+    public Object reflectiveCreate() throws Exception {
+        return constructor.newInstance(source);
+    }
+
+    @Benchmark
+    public Object cachedFactory() {
+        return EventFactories.create(eventType, source);
+    }
+
+    @Benchmark
+    public Object resolvedFactory() {
+        return factory.apply(source);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return new UserChangedEvent(source);
+    }
+
+    @Benchmark
+    @FireAfterTransaction(events = UserChangedEvent.class)
+    public void fireAfterTransaction() {
+        aspect.fireEvent(source, annotation);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwms.core.values.MeasureColumn;
+import org.openwms.core.values.Weight;
+import org.openwms.core.values.WeightUnit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A MeasureColumnBenchmark compares bulk operations of a {@link MeasureColumn} with the
+ * same operations on an array of {@link Weight}s.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasureColumnBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+    private long[] magnitudes;
+    private Weight[] weights;
+    private MeasureColumn<Weight, WeightUnit> column;
+    private Weight lower;
+    private Weight upper;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        magnitudes = new long[size];
+        weights = new Weight[size];
+        for (int i = 0; i < size; i++) {
+            magnitudes[i] = random.nextInt(100_000);
+            weights[i] = Weight.of(magnitudes[i], WeightUnit.G);
+        }
+        column = Weight.column(magnitudes, WeightUnit.G);
+        lower = Weight.of(10, WeightUnit.KG);
+        upper = Weight.of(20, WeightUnit.KG);
+    }
+
+    @Benchmark
+    public Object columnCreate() {
+        return Weight.column(magnitudes, WeightUnit.G);
+    }
+
+    @Benchmark
+    public Weight columnSum() {
+        return column.sum();
+    }
+
+    @Benchmark
+    public Weight objectSum() {
+        Weight sum = Weight.ZERO;
+        for (Weight weight : weights) {
+            sum = sum.add(weight);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Weight columnMax() {
+        return column.max();
+    }
+
+    @Benchmark
+    public int columnCount() {
+        return column.count(lower, upper);
+    }
+
+    @Benchmark
+    public int objectCount() {
+        int count = 0;
+        for (Weight weight : weights) {
+            if (weight.compareTo(lower) >= 0 && weight.compareTo(upper) <= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public double[] columnConvert() {
+        return column.toDoubleArray(WeightUnit.KG);
+    }
+}
\ No newline at end of file
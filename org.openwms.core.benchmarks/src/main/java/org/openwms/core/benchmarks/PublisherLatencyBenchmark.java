@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openwms.core.event.EventListener;
+import org.openwms.core.event.NonBlockingEventPublisherImpl;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.SimpleEventDispatcher;
+import org.openwms.core.event.UserChangedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A PublisherLatencyBenchmark measures the end-to-end latency of {@link
+ * NonBlockingEventPublisherImpl}, from publishing an event until a listener has received
+ * it.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class PublisherLatencyBenchmark {
+
+    private NonBlockingEventPublisherImpl<UserChangedEvent> publisher;
+    private volatile RootApplicationEvent received;
+
+    @Setup
+    public void setup() {
+        SimpleEventDispatcher dispatcher = new SimpleEventDispatcher(new StaticApplicationContext());
+        dispatcher.subscribe(UserChangedEvent.class, (EventListener) e -> received = e);
+        publisher = new NonBlockingEventPublisherImpl<>(dispatcher);
+    }
+
+    @TearDown
+    public void tearDown() {
+        publisher.destroy();
+    }
+
+    @Benchmark
+    public RootApplicationEvent publishAndAwait() {
+        UserChangedEvent event = new UserChangedEvent(this);
+        publisher.publish(event);
+        while (received != event) {
+            // busy spin to not measure the wake-up latency of the benchmark thread
+        }
+        return event;
+    }
+}
\ No newline at end of file
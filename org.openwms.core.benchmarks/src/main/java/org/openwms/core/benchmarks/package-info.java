@@ -0,0 +1,21 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Contains JMH benchmarks of the core modules. Build with {@code mvn package} and run
+ * single benchmarks with {@code java -jar target/benchmarks.jar}, or the complete suite
+ * of the event subsystem with {@link org.openwms.core.benchmarks.EventBenchmarks}.
+ */
+package org.openwms.core.benchmarks;
\ No newline at end of file
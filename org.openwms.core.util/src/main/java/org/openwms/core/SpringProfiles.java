@@ -26,6 +26,8 @@ public final class SpringProfiles {
     public static final String ASYNCHRONOUS_PROFILE = "ASYNCHRONOUS";
     /** Used to define that synchronous message handling is used. */
     public static final String SYNCHRONOUS_PROFILE = "SYNCHRONOUS";
+    /** Used to define that each event listener is called in its own (virtual) thread. */
+    public static final String VIRTUAL_THREADS_PROFILE = "VIRTUAL_THREADS";
     /** Used to define that synchronous message handling is used. */
     public static final String IN_MEMORY = "INMEM";
     /** Used to define that running within an OSGi container. */
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.annotation;
+
+/**
+ * An EventPriority defines the lane an event is published in asynchronously. Each lane
+ * is processed independently from the others, so a flood of events in one lane does not
+ * delay events of other lanes. The priority of an event type is declared with {@link
+ * DispatchPriority}, types without that annotation are of priority {@link #NORMAL}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public enum EventPriority {
+
+    /** Security relevant or otherwise urgent events. */
+    HIGH,
+
+    /** Default priority. */
+    NORMAL,
+
+    /** Events that may be delayed, like bulk reloads. */
+    LOW;
+
+    private static final ClassValue<EventPriority> PRIORITIES = new ClassValue<EventPriority>() {
+        @Override
+        protected EventPriority computeValue(Class<?> type) {
+            DispatchPriority priority = type.getAnnotation(DispatchPriority.class);
+            return priority == null ? NORMAL : priority.value();
+        }
+    };
+
+    /**
+     * Get the priority of an event type.
+     *
+     * @param eventType The type of event
+     * @return The declared priority or {@link #NORMAL}
+     */
+    public static EventPriority of(Class<?> eventType) {
+        return PRIORITIES.get(eventType);
+    }
+}
\ No newline at end of file
@@ -17,15 +17,24 @@ package org.openwms.core.aop;
 
 import org.openwms.core.annotation.FireAfterTransaction;
 import org.openwms.core.annotation.FireAfterTransactionAsynchronous;
+import org.openwms.core.event.EventFactories;
 import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.outbox.EventOutbox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.EventObject;
+import java.util.List;
 
 /**
  * An UserChangedEventAspect fires events after a method invocation completes.
@@ -45,8 +54,29 @@ import java.util.EventObject;
  *
  * </blockquote>
  * <p>
+ * If the advice is called while a transaction synchronization is active, i.e. when
+ * the advice is enabled within Spring's Transaction advice, events declared with {@link
+ * FireAfterTransaction} are collected per transaction and published all together after
+ * the transaction has been committed. A failing listener does not prevent the remaining
+ * events from being published. On rollback the collected events are discarded. Without
+ * an active transaction events are published immediately.
+ * </p>
+ * <p>
+ * Events declared with {@link FireAfterTransactionAsynchronous} are lost if the node
+ * crashes after commit but before they have been published. To deliver them reliably,
+ * bind {@link #storeInOutbox(Object, FireAfterTransactionAsynchronous)} as advice
+ * within Spring's Transaction advice instead of {@link #fireEventAsync(Object,
+ * FireAfterTransactionAsynchronous)}. The events are then stored in the {@link
+ * EventOutbox} within the transaction and relayed afterwards.
+ * </p>
+ * <p>
  * The component can be referenced by name {@value #COMPONENT_NAME}.
  * </p>
+ * <p>
+ * Events are created with factories that are resolved once per event class, see
+ * {@link EventFactories}. The {@link FireAfterTransactionEventsValidator} verifies the
+ * declared event classes already when the annotated beans are initialized.
+ * </p>
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
@@ -57,14 +87,45 @@ public class FireAfterTransactionAspect {
     public static final String COMPONENT_NAME = "fireAfterTransactionAspect";
     private static final Logger LOGGER = LoggerFactory.getLogger(FireAfterTransactionAspect.class);
     private final ApplicationContext ctx;
+    /** Key to bind the events of the current transaction. */
+    private final Object pendingEventsKey = new Object();
+    private final EventOutbox outbox;
 
+    /**
+     * Create a FireAfterTransactionAspect without an outbox.
+     *
+     * @param ctx ApplicationContext
+     */
     public FireAfterTransactionAspect(ApplicationContext ctx) {
+        this(ctx, (EventOutbox) null);
+    }
+
+    /**
+     * Create a FireAfterTransactionAspect.
+     *
+     * @param ctx ApplicationContext
+     * @param outbox The outbox to store events in, may be {@literal null}
+     */
+    public FireAfterTransactionAspect(ApplicationContext ctx, EventOutbox outbox) {
         this.ctx = ctx;
+        this.outbox = outbox;
+    }
+
+    /**
+     * Autowiring constructor.
+     *
+     * @param ctx ApplicationContext
+     * @param outbox An optional EventOutbox
+     */
+    @Autowired
+    public FireAfterTransactionAspect(ApplicationContext ctx, ObjectProvider<EventOutbox> outbox) {
+        this(ctx, outbox.getIfAvailable());
     }
 
     /**
      * Only {@link ApplicationEvent}s are created and published over Springs
-     * {@link ApplicationContext}.
+     * {@link ApplicationContext}. Within a transaction the events are published after
+     * commit.
      *
      * @param publisher The instance that is publishing the event
      * @param events A list of event classes to fire
@@ -75,7 +136,7 @@ public class FireAfterTransactionAspect {
             for (int i = 0; i < events.events().length; i++) {
                 Class<? extends EventObject> event = events.events()[i];
                 if (ApplicationEvent.class.isAssignableFrom(event)) {
-                    ctx.publishEvent((ApplicationEvent) event.getConstructor(Object.class).newInstance(publisher));
+                    publishAfterCommit((ApplicationEvent) EventFactories.create(event, publisher));
                 }
             }
         } catch (Exception e) {
@@ -97,8 +158,82 @@ public class FireAfterTransactionAspect {
             Class<? extends EventObject> event = events.events()[i];
             if (RootApplicationEvent.class.isAssignableFrom(event)) {
                 LOGGER.debug("Sending event: [{}]", event);
-                ctx.publishEvent((RootApplicationEvent) event.getConstructor(Object.class).newInstance(publisher));
+                ctx.publishEvent((RootApplicationEvent) EventFactories.create(event, publisher));
+            }
+        }
+    }
+
+    /**
+     * Only {@link RootApplicationEvent}s are created and stored in the {@link
+     * EventOutbox}. Must be called within the transaction.
+     *
+     * @param publisher The instance that is publishing the event
+     * @param events Stores a list of event classes to fire
+     * @throws IllegalStateException if no EventOutbox is configured
+     */
+    public void storeInOutbox(Object publisher, FireAfterTransactionAsynchronous events) {
+        if (outbox == null) {
+            throw new IllegalStateException("No EventOutbox configured, enable it with owms.core.events.outbox.enabled=true");
+        }
+        for (int i = 0; i < events.events().length; i++) {
+            Class<? extends EventObject> event = events.events()[i];
+            if (RootApplicationEvent.class.isAssignableFrom(event)) {
+                LOGGER.debug("Storing event in outbox: [{}]", event);
+                outbox.append((RootApplicationEvent) EventFactories.create(event, publisher));
+            }
+        }
+    }
+
+    private void publishAfterCommit(ApplicationEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ctx.publishEvent(event);
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(pendingEventsKey);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(pendingEventsKey, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    /**
+     * Collects the events of one transaction and publishes them after commit.
+     */
+    private class PendingEvents extends TransactionSynchronizationAdapter {
+
+        private final List<ApplicationEvent> events = new ArrayList<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(pendingEventsKey);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(pendingEventsKey, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            LOGGER.debug("Transaction committed, publishing [{}] events", events.size());
+            for (ApplicationEvent event : events) {
+                try {
+                    ctx.publishEvent(event);
+                } catch (RuntimeException ex) {
+                    LOGGER.error("Failed to publish event [{}] after commit: {}", event, ex.getMessage(), ex);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(pendingEventsKey);
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                LOGGER.debug("Transaction not committed, discarding [{}] events", events.size());
             }
+            events.clear();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.aop;
+
+import org.openwms.core.annotation.FireAfterTransaction;
+import org.openwms.core.annotation.FireAfterTransactionAsynchronous;
+import org.openwms.core.event.EventFactories;
+import org.openwms.core.event.RootApplicationEvent;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.EventObject;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * A FireAfterTransactionEventsValidator inspects all beans with methods annotated with
+ * {@link FireAfterTransaction} or {@link FireAfterTransactionAsynchronous} when they are
+ * initialized. The factories of all declared event classes are resolved upfront, hence
+ * an event class that cannot be instantiated by the {@link FireAfterTransactionAspect}
+ * causes the application startup to fail instead of the first transaction.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@Component
+public class FireAfterTransactionEventsValidator implements BeanPostProcessor {
+
+    private final Set<Class<?>> inspected = ConcurrentHashMap.newKeySet();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Resolve the event factories of all annotated methods of the bean class.
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        Class<?> beanClass = ClassUtils.getUserClass(bean);
+        if (inspected.add(beanClass)) {
+            ReflectionUtils.doWithMethods(beanClass, method -> {
+                FireAfterTransaction fat = method.getAnnotation(FireAfterTransaction.class);
+                if (fat != null) {
+                    validate(beanName, fat.events(), ApplicationEvent.class);
+                }
+                FireAfterTransactionAsynchronous fata = method.getAnnotation(FireAfterTransactionAsynchronous.class);
+                if (fata != null) {
+                    validate(beanName, fata.events(), RootApplicationEvent.class);
+                }
+            });
+        }
+        return bean;
+    }
+
+    private static void validate(String beanName, Class<? extends EventObject>[] events, Class<?> publishableType) {
+        for (Class<? extends EventObject> event : events) {
+            if (publishableType.isAssignableFrom(event)) {
+                try {
+                    EventFactories.of(event);
+                } catch (IllegalArgumentException iae) {
+                    throw new BeanInitializationException(format("Bean [%s] declares an event that cannot be fired", beanName), iae);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.ameba.exception.ServiceLayerException;
+import org.springframework.context.ApplicationContext;
+
+import static java.lang.String.format;
+
+/**
+ * A BeanNameEventListener refers to an {@link EventListener} bean by name. The bean is
+ * resolved from the {@link ApplicationContext} with the first event and cached
+ * afterwards. Two BeanNameEventListeners are equal if they refer to the same bean name.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+class BeanNameEventListener implements EventListener {
+
+    private final ApplicationContext ctx;
+    private final String beanName;
+    private volatile EventListener resolved;
+
+    BeanNameEventListener(ApplicationContext ctx, String beanName) {
+        this.ctx = ctx;
+        this.beanName = beanName;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Resolve the bean if not already done and pass the event.
+     */
+    @Override
+    public void onEvent(RootApplicationEvent event) {
+        getDelegate().onEvent(event);
+    }
+
+    /**
+     * Resolve the bean if not already done.
+     *
+     * @return The referenced EventListener bean
+     */
+    EventListener getDelegate() {
+        EventListener listener = resolved;
+        if (listener == null) {
+            Object instance = ctx.getBean(beanName);
+            if (!(instance instanceof EventListener)) {
+                throw new ServiceLayerException(format("The bean with name [%s] is not of type EventListener and cannot subscribe to events", beanName));
+            }
+            listener = (EventListener) instance;
+            resolved = listener;
+        }
+        return listener;
+    }
+
+    /**
+     * Forget the resolved bean, it is resolved again with the next event.
+     */
+    void reset() {
+        resolved = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof BeanNameEventListener && beanName.equals(((BeanNameEventListener) o).beanName);
+    }
+
+    @Override
+    public int hashCode() {
+        return beanName.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BeanNameEventListener[" + beanName + "]";
+    }
+}
\ No newline at end of file
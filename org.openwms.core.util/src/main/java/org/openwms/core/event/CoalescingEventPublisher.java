@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.openwms.core.annotation.CoalesceSources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A CoalescingEventPublisher buffers published events for a configurable time window or
+ * up to a maximum number of events and collapses all events of the same type and source,
+ * only the latest one is kept. When the buffer is flushed, the remaining events are
+ * dispatched in the order of their first occurrence. Batches are delivered one after
+ * another, so events are never dispatched out of order.
+ * <p>
+ * If events of a type annotated with {@link CoalesceSources} were published for several
+ * sources, a new event of that type is created that carries the {@code List} of all
+ * distinct sources as its source. Hence listeners that reload a cache on each event are
+ * only triggered once per batch. Such an event type must provide a public constructor
+ * that accepts the source as {@code Object}.
+ * </p>
+ * <p>
+ * The window is configured with {@code owms.core.events.coalescing.window} in
+ * milliseconds and the maximum number of buffered events with {@code
+ * owms.core.events.coalescing.max-events}.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@Component(value = CoalescingEventPublisher.COMPONENT_NAME)
+public class CoalescingEventPublisher<T extends RootApplicationEvent> implements EventPublisher<T> {
+
+    /** Springs service name. */
+    public static final String COMPONENT_NAME = "coalescingEventPublisher";
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingEventPublisher.class);
+    private final EventDispatcher dispatcher;
+    private final long windowMillis;
+    private final int maxEvents;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    /** Held while a batch is taken and delivered, acquired before {@link #lock}. */
+    private final Object deliveryLock = new Object();
+    /** Pending events per type and source, guarded by {@link #lock}. */
+    private Map<Class<?>, Map<Object, RootApplicationEvent>> pending = new LinkedHashMap<>();
+    private int pendingCount;
+
+    /**
+     * Autowiring constructor.
+     *
+     * @param dispatcher The dispatcher to deliver the coalesced events to
+     * @param windowMillis How long events are buffered in milliseconds
+     * @param maxEvents The maximum number of buffered events that causes an immediate flush
+     */
+    public CoalescingEventPublisher(EventDispatcher dispatcher,
+            @Value("${owms.core.events.coalescing.window:100}") long windowMillis,
+            @Value("${owms.core.events.coalescing.max-events:1000}") int maxEvents) {
+        this.dispatcher = dispatcher;
+        this.windowMillis = windowMillis;
+        this.maxEvents = maxEvents;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, COMPONENT_NAME);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The event is buffered and dispatched with the next flush.
+     */
+    @Override
+    public void publish(T event) {
+        boolean full;
+        synchronized (lock) {
+            if (pendingCount == 0) {
+                scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+            Map<Object, RootApplicationEvent> bySource = pending.computeIfAbsent(event.getClass(), k -> new LinkedHashMap<>());
+            if (bySource.put(event.getSource(), event) == null) {
+                pendingCount++;
+            }
+            full = pendingCount >= maxEvents;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Dispatch all buffered events immediately.
+     */
+    public void flush() {
+        synchronized (deliveryLock) {
+            Map<Class<?>, Map<Object, RootApplicationEvent>> batch;
+            synchronized (lock) {
+                batch = takePending();
+            }
+            deliver(batch);
+        }
+    }
+
+    /**
+     * Flush all buffered events and stop the scheduler when the application context is
+     * closed.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    private Map<Class<?>, Map<Object, RootApplicationEvent>> takePending() {
+        Map<Class<?>, Map<Object, RootApplicationEvent>> batch = pending;
+        pending = new LinkedHashMap<>();
+        pendingCount = 0;
+        return batch;
+    }
+
+    private void deliver(Map<Class<?>, Map<Object, RootApplicationEvent>> batch) {
+        for (Map.Entry<Class<?>, Map<Object, RootApplicationEvent>> entry : batch.entrySet()) {
+            Map<Object, RootApplicationEvent> bySource = entry.getValue();
+            if (bySource.size() == 1 || !entry.getKey().isAnnotationPresent(CoalesceSources.class)) {
+                bySource.values().forEach(dispatcher::dispatch);
+            } else {
+                dispatchBatch(entry.getKey(), bySource);
+            }
+        }
+    }
+
+    private void dispatchBatch(Class<?> eventType, Map<Object, RootApplicationEvent> bySource) {
+        RootApplicationEvent batchEvent;
+        try {
+            batchEvent = EventFactories.create(eventType.asSubclass(RootApplicationEvent.class), Collections.unmodifiableList(new ArrayList<>(bySource.keySet())));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Cannot create a batch event of type [{}], dispatching [{}] single events instead: {}", eventType, bySource.size(), e.getMessage());
+            bySource.values().forEach(dispatcher::dispatch);
+            return;
+        }
+        dispatcher.dispatch(batchEvent);
+    }
+}
\ No newline at end of file
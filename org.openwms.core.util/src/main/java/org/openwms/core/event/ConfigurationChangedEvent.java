@@ -15,6 +15,8 @@
  */
 package org.openwms.core.event;
 
+import org.openwms.core.annotation.CoalesceSources;
+
 import java.io.Serializable;
 
 /**
@@ -22,6 +24,7 @@ import java.io.Serializable;
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
+@CoalesceSources
 public class ConfigurationChangedEvent extends RootApplicationEvent implements Serializable {
 
     /**
@@ -29,4 +29,16 @@ public interface EventBroker {
     void unsubscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName);
 
     void unsubscribe(Class<? extends RootApplicationEvent> event, EventListener listener);
+
+    /**
+     * Subscribe a listener without preventing it from being garbage collected. The
+     * subscription is removed as soon as the listener has been collected. Implementations
+     * that do not support weak subscriptions subscribe the listener as usual.
+     *
+     * @param event The type of event to subscribe to
+     * @param listener The listener
+     */
+    default void subscribeWeakly(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        subscribe(event, listener);
+    }
 }
\ No newline at end of file
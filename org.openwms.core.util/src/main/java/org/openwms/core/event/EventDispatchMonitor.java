@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+/**
+ * An EventDispatchMonitor is notified about dispatched events and listener executions to
+ * record metrics. Implementations must be thread-safe.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public interface EventDispatchMonitor {
+
+    /** A monitor that records nothing and does not cause any allocation. */
+    EventDispatchMonitor NONE = new EventDispatchMonitor() {
+        @Override
+        public void eventDispatched(Class<? extends RootApplicationEvent> eventType) {
+        }
+
+        @Override
+        public long listenerStarted() {
+            return 0;
+        }
+
+        @Override
+        public void listenerFinished(EventListener listener, RootApplicationEvent event, long startedAt) {
+        }
+
+        @Override
+        public void registerQueue(String name, PartitionedEventExecutor executor) {
+        }
+    };
+
+    /**
+     * An event of type {@code eventType} is dispatched.
+     *
+     * @param eventType The type of event
+     */
+    void eventDispatched(Class<? extends RootApplicationEvent> eventType);
+
+    /**
+     * A listener is about to be called.
+     *
+     * @return A timestamp that must be passed to {@link #listenerFinished}
+     */
+    long listenerStarted();
+
+    /**
+     * A listener has processed an event.
+     *
+     * @param listener The listener
+     * @param event The processed event
+     * @param startedAt The timestamp returned from {@link #listenerStarted()}
+     */
+    void listenerFinished(EventListener listener, RootApplicationEvent event, long startedAt);
+
+    /**
+     * Register the queues of pending events of an executor to observe.
+     *
+     * @param name The name of the queue
+     * @param executor The executor to observe
+     */
+    void registerQueue(String name, PartitionedEventExecutor executor);
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.EventObject;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * An EventFactories resolves and caches a factory function per event class that creates
+ * new event instances from an event source. The factory calls the public constructor of
+ * the event class that accepts the source as {@code Object}, without any reflective
+ * lookup at the time an event is created. Event classes that are not visible from the
+ * ClassLoader of this class are created by a plain {@link MethodHandle} instead of a
+ * generated function.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class EventFactories {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventFactories.class);
+    private static final MethodType SOURCE_CONSTRUCTOR = MethodType.methodType(void.class, Object.class);
+    private static final ClassValue<Function<Object, ?>> FACTORIES = new ClassValue<Function<Object, ?>>() {
+        @Override
+        protected Function<Object, ?> computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
+
+    private EventFactories() {
+    }
+
+    /**
+     * Get the factory for events of type {@code eventType}. The factory is resolved on
+     * first access and cached afterwards.
+     *
+     * @param <E> The type of event
+     * @param eventType The class of event
+     * @return The factory that takes the event source and returns a new event instance
+     * @throws IllegalArgumentException if the event class has no public constructor
+     * accepting an {@code Object}
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends EventObject> Function<Object, E> of(Class<E> eventType) {
+        return (Function<Object, E>) FACTORIES.get(eventType);
+    }
+
+    /**
+     * Create a new event of type {@code eventType}.
+     *
+     * @param <E> The type of event
+     * @param eventType The class of event
+     * @param source The event source
+     * @return The new event instance
+     */
+    public static <E extends EventObject> E create(Class<E> eventType, Object source) {
+        return of(eventType).apply(source);
+    }
+
+    private static Function<Object, ?> create(Class<?> type) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(type, SOURCE_CONSTRUCTOR);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(format("The event type [%s] does not provide a public constructor that accepts an Object", type.getName()), e);
+        }
+        if (!ClassUtils.isVisible(type, EventFactories.class.getClassLoader())) {
+            LOGGER.debug("The event type [{}] is not visible from the ClassLoader of EventFactories, use a MethodHandle", type.getName());
+            return invoking(constructor);
+        }
+        try {
+            return generate(type, constructor);
+        } catch (LambdaConversionException lce) {
+            LOGGER.debug("Cannot generate a factory for the event type [{}], use a MethodHandle: {}", type.getName(), lce.getMessage());
+            return invoking(constructor);
+        }
+    }
+
+    /**
+     * Create a factory that invokes the constructor by a plain MethodHandle.
+     */
+    private static Function<Object, ?> invoking(MethodHandle constructor) {
+        MethodHandle handle = constructor.asType(MethodType.methodType(Object.class, Object.class));
+        return source -> {
+            try {
+                return handle.invokeExact(source);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, ?> generate(Class<?> type, MethodHandle constructor) throws LambdaConversionException {
+        CallSite site = LambdaMetafactory.metafactory(
+                MethodHandles.lookup(),
+                "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                constructor,
+                MethodType.methodType(type, Object.class)
+        );
+        try {
+            return (Function<Object, ?>) site.getTarget().invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
\ No newline at end of file
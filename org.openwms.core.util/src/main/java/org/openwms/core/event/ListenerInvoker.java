@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+/**
+ * A ListenerInvoker defines how the listeners of an event are executed by an
+ * {@link EventDispatcher}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@FunctionalInterface
+public interface ListenerInvoker {
+
+    /** Calls all listeners sequentially in the dispatching thread. */
+    ListenerInvoker SYNCHRONOUS = (listeners, event, monitor) -> {
+        for (EventListener listener : listeners) {
+            long started = monitor.listenerStarted();
+            try {
+                listener.onEvent(event);
+            } finally {
+                monitor.listenerFinished(listener, event, started);
+            }
+        }
+    };
+
+    /**
+     * Pass the {@code event} to all {@code listeners}. The array must not be modified.
+     *
+     * @param listeners The listeners to call
+     * @param event The event to pass
+     * @param monitor Must be notified about each listener execution
+     */
+    void invoke(EventListener[] listeners, RootApplicationEvent event, EventDispatchMonitor monitor);
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A MicrometerEventDispatchMonitor records event metrics with Micrometer:
+ * <ul>
+ *     <li>{@value #DISPATCHED}: Counter of dispatched events per event type</li>
+ *     <li>{@value #LISTENER}: Timer with a percentile histogram per event type and
+ *     listener, listeners subscribed by bean name or weakly are tagged with the type of
+ *     the referenced listener</li>
+ *     <li>{@value #QUEUE_DEPTH}, {@value #QUEUE_DROPPED}: Number of pending and
+ *     discarded events of asynchronous publishers</li>
+ *     <li>{@value #QUEUE_LAG}: Milliseconds the oldest pending event of a queue is
+ *     waiting</li>
+ * </ul>
+ * Event types and listener types are tagged with their fully qualified class names.
+ * Listeners that take longer than {@code owms.core.events.metrics.slow-listener-threshold}
+ * milliseconds are logged as warning. The monitor is enabled with {@code
+ * owms.core.events.metrics.enabled=true}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+@ConditionalOnProperty(name = "owms.core.events.metrics.enabled", havingValue = "true")
+@Component(MicrometerEventDispatchMonitor.COMPONENT_NAME)
+public class MicrometerEventDispatchMonitor implements EventDispatchMonitor {
+
+    /** Springs component name. */
+    public static final String COMPONENT_NAME = "micrometerEventDispatchMonitor";
+    /** Name of the dispatched events counter: {@value} */
+    public static final String DISPATCHED = "owms.events.dispatched";
+    /** Name of the listener execution timer: {@value} */
+    public static final String LISTENER = "owms.events.listener";
+    /** Name of the queue depth gauge: {@value} */
+    public static final String QUEUE_DEPTH = "owms.events.queue.depth";
+    /** Name of the dropped events counter: {@value} */
+    public static final String QUEUE_DROPPED = "owms.events.queue.dropped";
+    /** Name of the queue lag gauge: {@value} */
+    public static final String QUEUE_LAG = "owms.events.queue.lag";
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicrometerEventDispatchMonitor.class);
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final ClassValue<Counter> counters = new ClassValue<Counter>() {
+        @Override
+        protected Counter computeValue(Class<?> eventType) {
+            return Counter.builder(DISPATCHED).tag("event", eventType.getName()).register(registry);
+        }
+    };
+    /** Timers per event type and listener type. */
+    private final ClassValue<ClassValue<Timer>> timers = new ClassValue<ClassValue<Timer>>() {
+        @Override
+        protected ClassValue<Timer> computeValue(Class<?> eventType) {
+            return new ClassValue<Timer>() {
+                @Override
+                protected Timer computeValue(Class<?> listenerType) {
+                    return Timer.builder(LISTENER)
+                            .tag("event", eventType.getName())
+                            .tag("listener", listenerType.getName())
+                            .publishPercentileHistogram()
+                            .register(registry);
+                }
+            };
+        }
+    };
+
+    /**
+     * Autowiring constructor.
+     *
+     * @param registry The registry to register meters at
+     * @param slowThresholdMillis Listener executions exceeding this duration are logged
+     */
+    public MicrometerEventDispatchMonitor(MeterRegistry registry,
+            @Value("${owms.core.events.metrics.slow-listener-threshold:500}") long slowThresholdMillis) {
+        this.registry = registry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eventDispatched(Class<? extends RootApplicationEvent> eventType) {
+        counters.get(eventType).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long listenerStarted() {
+        return System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listenerFinished(EventListener listener, RootApplicationEvent event, long startedAt) {
+        long duration = System.nanoTime() - startedAt;
+        timers.get(event.getClass()).get(listenerType(listener)).record(duration, TimeUnit.NANOSECONDS);
+        if (duration > slowThresholdNanos) {
+            LOGGER.warn("Slow listener [{}] took [{}]ms to process event [{}]", listener, TimeUnit.NANOSECONDS.toMillis(duration), event);
+        }
+    }
+
+    /**
+     * Resolve the type of the listener that actually processes events, subscriptions by
+     * bean name or weak subscriptions are unwrapped.
+     */
+    private static Class<?> listenerType(EventListener listener) {
+        if (listener instanceof BeanNameEventListener) {
+            return ((BeanNameEventListener) listener).getDelegate().getClass();
+        }
+        if (listener instanceof WeakEventListener) {
+            EventListener delegate = ((WeakEventListener) listener).get();
+            return delegate == null ? listener.getClass() : delegate.getClass();
+        }
+        return listener.getClass();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerQueue(String name, PartitionedEventExecutor executor) {
+        Gauge.builder(QUEUE_DEPTH, executor, PartitionedEventExecutor::getQueueSize).tag("queue", name).register(registry);
+        FunctionCounter.builder(QUEUE_DROPPED, executor, PartitionedEventExecutor::getDroppedCount).tag("queue", name).register(registry);
+        Gauge.builder(QUEUE_LAG, executor, PartitionedEventExecutor::getLagMillis).tag("queue", name).baseUnit("milliseconds").register(registry);
+    }
+}
\ No newline at end of file
@@ -15,32 +15,124 @@
  */
 package org.openwms.core.event;
 
-import org.springframework.scheduling.annotation.Async;
+import org.openwms.core.annotation.EventPriority;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * A NonBlockingEventPublisherImpl is publishing events asynchronously.
+ * <p>
+ * Events are published in the lane of their {@link EventPriority}. Each lane has its own
+ * {@link PartitionedEventExecutor} with bounded queues and dedicated worker threads, so
+ * that a flood of low priority events never starves the dispatching of high priority
+ * events and vice versa. Within a lane, events of the same type are dispatched in the
+ * order they were published, events of different types are dispatched in parallel.
+ * </p>
+ * <p>
+ * The number of partitions (worker threads), the capacity of each partition and the
+ * {@link OverflowPolicy} are configurable with the properties {@code
+ * owms.core.events.async.partitions}, {@code owms.core.events.async.capacity} and {@code
+ * owms.core.events.async.overflow-policy}. Each setting can be overridden per lane, like
+ * {@code owms.core.events.async.high.partitions}. The queues of all lanes are registered
+ * at an optional {@link EventDispatchMonitor}.
+ * </p>
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
+@Primary
 @Component(value = NonBlockingEventPublisherImpl.COMPONENT_NAME)
 public class NonBlockingEventPublisherImpl<T extends RootApplicationEvent> implements EventPublisher<T> {
 
     /** Springs service name. */
     public static final String COMPONENT_NAME = "nonBlockingEventPublisherImpl";
+    /** Default number of partitions per lane: {@value} */
+    public static final int DEFAULT_PARTITIONS = 4;
+    /** Default number of pending events per partition: {@value} */
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final String PROPERTY_PREFIX = "owms.core.events.async.";
 
-    private final EventDispatcher dispatcher;
+    private final Map<EventPriority, PartitionedEventExecutor> lanes = new EnumMap<>(EventPriority.class);
 
+    /**
+     * Create a NonBlockingEventPublisherImpl with default settings.
+     *
+     * @param dispatcher The dispatcher to deliver events to
+     */
     public NonBlockingEventPublisherImpl(EventDispatcher dispatcher) {
-        this.dispatcher = dispatcher;
+        this(dispatcher, DEFAULT_PARTITIONS, DEFAULT_CAPACITY, OverflowPolicy.BLOCK, EventDispatchMonitor.NONE);
+    }
+
+    /**
+     * Create a NonBlockingEventPublisherImpl with the same settings for all lanes.
+     *
+     * @param dispatcher The dispatcher to deliver events to
+     * @param partitions The number of partitions per lane that are processed in parallel
+     * @param capacity The maximum number of pending events per partition
+     * @param overflowPolicy What to do when a partition is full
+     * @param monitor Observes the queues of pending events
+     */
+    public NonBlockingEventPublisherImpl(EventDispatcher dispatcher, int partitions, int capacity, OverflowPolicy overflowPolicy, EventDispatchMonitor monitor) {
+        for (EventPriority priority : EventPriority.values()) {
+            addLane(priority, new PartitionedEventExecutor(laneName(priority), partitions, capacity, overflowPolicy, dispatcher::dispatch), monitor);
+        }
+    }
+
+    /**
+     * Autowiring constructor, reads the settings of each lane from the {@code env}.
+     *
+     * @param dispatcher The dispatcher to deliver events to
+     * @param env The environment to read the lane settings from
+     * @param monitor An optional EventDispatchMonitor
+     */
+    @Autowired
+    public NonBlockingEventPublisherImpl(EventDispatcher dispatcher, Environment env, ObjectProvider<EventDispatchMonitor> monitor) {
+        EventDispatchMonitor m = monitor.getIfAvailable(() -> EventDispatchMonitor.NONE);
+        for (EventPriority priority : EventPriority.values()) {
+            addLane(priority, new PartitionedEventExecutor(laneName(priority),
+                    laneProperty(env, priority, "partitions", Integer.class, DEFAULT_PARTITIONS),
+                    laneProperty(env, priority, "capacity", Integer.class, DEFAULT_CAPACITY),
+                    laneProperty(env, priority, "overflow-policy", OverflowPolicy.class, OverflowPolicy.BLOCK),
+                    dispatcher::dispatch), m);
+        }
+    }
+
+    private void addLane(EventPriority priority, PartitionedEventExecutor executor, EventDispatchMonitor monitor) {
+        lanes.put(priority, executor);
+        monitor.registerQueue(laneName(priority), executor);
+    }
+
+    private static String laneName(EventPriority priority) {
+        return COMPONENT_NAME + "-" + priority.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static <V> V laneProperty(Environment env, EventPriority priority, String key, Class<V> type, V defaultValue) {
+        V global = env.getProperty(PROPERTY_PREFIX + key, type, defaultValue);
+        return env.getProperty(PROPERTY_PREFIX + priority.name().toLowerCase(Locale.ENGLISH) + "." + key, type, global);
     }
 
     /**
      * {@inheritDoc}
+     *
+     * The event is enqueued in the lane of its {@link EventPriority}.
      */
-    @Async
     @Override
     public void publish(T event) {
-        dispatcher.dispatch(event);
+        lanes.get(EventPriority.of(event.getClass())).execute(event);
+    }
+
+    /**
+     * Stop the worker threads of all lanes when the application context is closed.
+     */
+    @PreDestroy
+    public void destroy() {
+        lanes.values().forEach(PartitionedEventExecutor::shutdown);
     }
 }
\ No newline at end of file
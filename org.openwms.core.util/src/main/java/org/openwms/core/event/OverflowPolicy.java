@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+/**
+ * An OverflowPolicy defines what happens to an event that is published asynchronously
+ * when the bounded queue of pending events is full.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @see PartitionedEventExecutor
+ */
+public enum OverflowPolicy {
+
+    /** The publishing thread is blocked until the queue has space left. */
+    BLOCK,
+
+    /** The oldest pending event is discarded in favor of the new one. */
+    DROP_OLDEST,
+
+    /**
+     * The event is dispatched in the publishing thread. Note that the order of events of
+     * the same type is not guaranteed in this case.
+     */
+    CALLER_RUNS
+}
\ No newline at end of file
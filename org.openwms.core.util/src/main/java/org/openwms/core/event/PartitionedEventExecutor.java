@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A PartitionedEventExecutor hands over events to a fixed number of partitions, each one
+ * with a bounded queue and a single worker thread. All events of the same type are
+ * assigned to the same partition, hence the order of events is kept per event type
+ * whereas events of different types are processed in parallel. The behavior when a
+ * queue is full is defined by the {@link OverflowPolicy}. Each pending event carries the
+ * time it was enqueued, so that the lag of the oldest pending event can be observed.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class PartitionedEventExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedEventExecutor.class);
+    private final BlockingQueue<Pending>[] queues;
+    private final Thread[] workers;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<RootApplicationEvent> handler;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean shutdown;
+
+    /**
+     * Create a PartitionedEventExecutor and start all worker threads.
+     *
+     * @param name The prefix of the worker thread names
+     * @param partitions The number of partitions, each one is served by one thread
+     * @param capacity The maximum number of pending events per partition
+     * @param overflowPolicy What to do when a partition is full
+     * @param handler Processes each event
+     */
+    @SuppressWarnings("unchecked")
+    public PartitionedEventExecutor(String name, int partitions, int capacity, OverflowPolicy overflowPolicy, Consumer<RootApplicationEvent> handler) {
+        if (partitions < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Number of partitions and capacity must be greater than 0");
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.handler = handler;
+        this.queues = new BlockingQueue[partitions];
+        this.workers = new Thread[partitions];
+        for (int i = 0; i < partitions; i++) {
+            BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(capacity);
+            queues[i] = queue;
+            workers[i] = new Thread(() -> work(queue), name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Enqueue the {@code event} to the partition of its type.
+     *
+     * @param event The event to process asynchronously
+     */
+    public void execute(RootApplicationEvent event) {
+        BlockingQueue<Pending> queue = queues[partitionOf(event.getClass())];
+        Pending pending = new Pending(event);
+        if (queue.offer(pending)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                do {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                } while (!queue.offer(pending));
+                break;
+            case CALLER_RUNS:
+                handler.accept(event);
+                break;
+            case BLOCK:
+            default:
+                try {
+                    queue.put(pending);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    LOGGER.warn("Interrupted while waiting to enqueue event [{}], event is discarded", event);
+                }
+        }
+    }
+
+    /**
+     * Get the number of events that are currently pending in all partitions.
+     *
+     * @return The total queue depth
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (BlockingQueue<Pending> queue : queues) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    /**
+     * Get the time the oldest pending event of all partitions is waiting for being
+     * processed.
+     *
+     * @return The lag in milliseconds, {@literal 0} if no events are pending
+     */
+    public long getLagMillis() {
+        long now = System.nanoTime();
+        long lag = 0;
+        for (BlockingQueue<Pending> queue : queues) {
+            Pending head = queue.peek();
+            if (head != null) {
+                lag = Math.max(lag, now - head.enqueued);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(lag);
+    }
+
+    /**
+     * Get the number of events that have been discarded so far.
+     *
+     * @return The number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop all worker threads. Pending events are discarded.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        int pending = getQueueSize();
+        if (pending > 0) {
+            LOGGER.warn("Shutting down with [{}] pending events that are discarded", pending);
+        }
+    }
+
+    private int partitionOf(Class<?> eventType) {
+        int h = eventType.hashCode();
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % queues.length;
+    }
+
+    /**
+     * Process the events of one partition until shutdown. Neither a listener that fails
+     * nor one that leaves the interrupt flag set stops the worker, because events would
+     * still be enqueued to the partition.
+     */
+    private void work(BlockingQueue<Pending> queue) {
+        while (!shutdown) {
+            RootApplicationEvent event;
+            try {
+                event = queue.take().event;
+            } catch (InterruptedException ie) {
+                if (!shutdown) {
+                    LOGGER.warn("Worker [{}] interrupted but not shut down, continues processing", Thread.currentThread().getName());
+                }
+                continue;
+            }
+            try {
+                handler.accept(event);
+            } catch (Throwable t) {
+                LOGGER.error("Exception while processing event [{}]: {}", event, t.getMessage(), t);
+            }
+            if (Thread.interrupted() && !shutdown) {
+                LOGGER.warn("Interrupt flag left set while processing event [{}], flag is cleared", event);
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        private final RootApplicationEvent event;
+        private final long enqueued = System.nanoTime();
+
+        private Pending(RootApplicationEvent event) {
+            this.event = event;
+        }
+    }
+}
\ No newline at end of file
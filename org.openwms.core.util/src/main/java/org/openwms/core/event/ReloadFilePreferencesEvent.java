@@ -15,11 +15,15 @@
  */
 package org.openwms.core.event;
 
+import org.openwms.core.annotation.DispatchPriority;
+import org.openwms.core.annotation.EventPriority;
+
 /**
  * A ReloadFilePreferencesEvent.
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
+@DispatchPriority(EventPriority.LOW)
 public class ReloadFilePreferencesEvent extends RootApplicationEvent {
 
     /**
@@ -15,12 +15,16 @@
  */
 package org.openwms.core.event;
 
+import org.openwms.core.annotation.DispatchPriority;
+import org.openwms.core.annotation.EventPriority;
+
 /**
  * A RoleChangedEvent is fired to notify listeners about changes on an <code>Role</code> instance. A listener could probably evict a cache
  * of Roles.
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
+@DispatchPriority(EventPriority.HIGH)
 public class RoleChangedEvent extends RootApplicationEvent {
 
     /**
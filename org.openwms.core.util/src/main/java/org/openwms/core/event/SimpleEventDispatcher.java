@@ -16,38 +16,112 @@
 package org.openwms.core.event;
 
 import org.ameba.exception.ServiceLayerException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.lang.String.format;
 
 /**
  * A SimpleEventDispatcher is a Spring managed component that stores all subscribers in an
- * in-memory key-value store implementation and calls all subscribers sequentially and
- * synchronously.
+ * in-memory key-value store implementation. By default all subscribers are called
+ * sequentially and synchronously, unless a different {@link ListenerInvoker} is
+ * configured.
+ * <p>
+ * The subscribers of each event class are kept as an immutable array snapshot. Any
+ * {@code subscribe} or {@code unsubscribe} operation creates a new snapshot and swaps it
+ * atomically, so that {@link #dispatch(RootApplicationEvent)} neither acquires a lock nor
+ * allocates memory. A listener that is slow in processing an event does not block any
+ * other thread dispatching events of the same type.
+ * </p>
+ * <p>
+ * Events are routed along the type hierarchy: A listener subscribed to a supertype, like
+ * {@link RootApplicationEvent}, receives all events of its subtypes as well. The resolved
+ * listeners of each concrete event class are cached in a dispatch table that is
+ * invalidated whenever the subscriptions change, hence the hierarchy is only walked once
+ * per event class. Subscriptions are deduplicated on the listener that actually processes
+ * the events, a bean subscribed by name and as instance is called only once.
+ * </p>
+ * <p>
+ * Dispatched events and listener executions are reported to an optional {@link
+ * EventDispatchMonitor}.
+ * </p>
+ * <p>
+ * Listeners subscribed by bean name are resolved lazily with the first event and
+ * resolved again after the {@code ApplicationContext} has been refreshed. Listeners
+ * subscribed with {@link #subscribeWeakly(Class, EventListener)} are only weakly
+ * referenced and their subscriptions are purged after they have been garbage collected.
+ * </p>
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
 @Component(value = SimpleEventDispatcher.COMPONENT_NAME)
-public class SimpleEventDispatcher implements EventDispatcher {
+public class SimpleEventDispatcher implements EventDispatcher, ApplicationListener<ContextRefreshedEvent> {
 
     /** Springs service name. */
     public static final String COMPONENT_NAME = "simpleEventDispatcher";
-    private final Map<Class<? extends RootApplicationEvent>, Set<EventListener>> subscriptions = new HashMap<>();
+    private static final EventListener[] NO_LISTENERS = new EventListener[0];
+    private final ConcurrentMap<Class<? extends RootApplicationEvent>, EventListener[]> subscriptions = new ConcurrentHashMap<>();
+    /** Resolved listeners per concrete event class, replaced after the subscriptions have changed. */
+    private volatile ConcurrentMap<Class<?>, EventListener[]> dispatchTable = new ConcurrentHashMap<>();
+    private final ReferenceQueue<EventListener> collectedListeners = new ReferenceQueue<>();
     private final ApplicationContext ctx;
+    private final ListenerInvoker invoker;
+    private final EventDispatchMonitor monitor;
 
     /**
-     * Autowiring constructor.
+     * Create a SimpleEventDispatcher that calls all listeners synchronously.
      *
      * @param ctx ApplicationContext
      */
     public SimpleEventDispatcher(ApplicationContext ctx) {
+        this(ctx, ListenerInvoker.SYNCHRONOUS);
+    }
+
+    /**
+     * Create a SimpleEventDispatcher.
+     *
+     * @param ctx ApplicationContext
+     * @param invoker Defines how listeners are called
+     */
+    public SimpleEventDispatcher(ApplicationContext ctx, ListenerInvoker invoker) {
+        this(ctx, invoker, EventDispatchMonitor.NONE);
+    }
+
+    /**
+     * Create a SimpleEventDispatcher.
+     *
+     * @param ctx ApplicationContext
+     * @param invoker Defines how listeners are called
+     * @param monitor Is notified about dispatched events
+     */
+    public SimpleEventDispatcher(ApplicationContext ctx, ListenerInvoker invoker, EventDispatchMonitor monitor) {
         this.ctx = ctx;
+        this.invoker = invoker;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Autowiring constructor.
+     *
+     * @param ctx ApplicationContext
+     * @param invoker An optional ListenerInvoker, if none is available listeners are called synchronously
+     * @param monitor An optional EventDispatchMonitor
+     */
+    @Autowired
+    public SimpleEventDispatcher(ApplicationContext ctx, ObjectProvider<ListenerInvoker> invoker, ObjectProvider<EventDispatchMonitor> monitor) {
+        this(ctx, invoker.getIfAvailable(() -> ListenerInvoker.SYNCHRONOUS), monitor.getIfAvailable(() -> EventDispatchMonitor.NONE));
     }
 
     /**
@@ -55,29 +129,28 @@ public class SimpleEventDispatcher implements EventDispatcher {
      */
     @Override
     public void subscribe(Class<? extends RootApplicationEvent> event, EventListener listener) {
-        synchronized (subscriptions) {
-            Set<EventListener> listeners = subscriptions.get(event);
-            if (listeners == null) {
-                listeners = new HashSet<>(1);
-                listeners.add(listener);
-            } else {
-                listeners.add(listener);
-                subscriptions.put(event, listeners);
-            }
-        }
+        addSubscription(event, listener);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The bean is not instantiated before the first event is dispatched to it.
      */
     @Override
     public void subscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName) {
-        Object instance = ctx.getBean(listenerBeanName);
-        if (instance instanceof EventListener) {
-            subscribe(event, (EventListener) instance);
-        } else {
+        if (!ctx.isTypeMatch(listenerBeanName, EventListener.class)) {
             throw new ServiceLayerException(format("The bean with name [%s] is not of type EventListener and cannot subscribe to events", listenerBeanName));
         }
+        addSubscription(event, new BeanNameEventListener(ctx, listenerBeanName));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribeWeakly(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        addSubscription(event, new WeakEventListener(event, listener, collectedListeners));
     }
 
     /**
@@ -85,18 +158,20 @@ public class SimpleEventDispatcher implements EventDispatcher {
      */
     @Override
     public void unsubscribe(Class<? extends RootApplicationEvent> event, EventListener listener) {
-        if (subscriptions.containsKey(event)) {
-            synchronized (subscriptions.get(event)) {
-                subscriptions.get(event).remove(listener);
-            }
-        }
+        removeSubscription(event, listener);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * A subscription by bean name is removed without looking up the bean. Only if the
+     * bean has been subscribed as instance, it is looked up to remove it.
      */
     @Override
     public void unsubscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName) {
+        if (removeSubscription(event, new BeanNameEventListener(ctx, listenerBeanName))) {
+            return;
+        }
         Object instance = ctx.getBean(listenerBeanName);
         if (instance instanceof EventListener) {
             unsubscribe(event, (EventListener) instance);
@@ -110,12 +185,176 @@ public class SimpleEventDispatcher implements EventDispatcher {
      */
     @Override
     public <T extends RootApplicationEvent> void dispatch(T event) {
-        if (null == event || !subscriptions.containsKey(event.getClass())) {
+        if (null == event) {
             return;
         }
-        synchronized (subscriptions.get(event.getClass())) {
-            Set<EventListener> listeners = subscriptions.get(event.getClass());
-            listeners.forEach(l -> l.onEvent(event));
+        expungeCollectedListeners();
+        monitor.eventDispatched(event.getClass());
+        ConcurrentMap<Class<?>, EventListener[]> table = dispatchTable;
+        EventListener[] listeners = table.get(event.getClass());
+        if (null == listeners) {
+            listeners = resolve(event.getClass());
+            table.putIfAbsent(event.getClass(), listeners);
+        }
+        if (listeners.length > 0) {
+            invoker.invoke(listeners, event, monitor);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Listener beans subscribed by name are resolved again after a refresh.
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        for (EventListener[] listeners : subscriptions.values()) {
+            for (EventListener listener : listeners) {
+                if (listener instanceof BeanNameEventListener) {
+                    ((BeanNameEventListener) listener).reset();
+                }
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Get the number of subscriptions to exactly the {@code event} type.
+     *
+     * @param event The type of event
+     * @return The number of subscribed listeners
+     */
+    int countSubscriptions(Class<? extends RootApplicationEvent> event) {
+        EventListener[] listeners = subscriptions.get(event);
+        return null == listeners ? 0 : listeners.length;
+    }
+
+    private void addSubscription(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        expungeCollectedListeners();
+        subscriptions.compute(event, (type, listeners) -> add(listeners, listener));
+        invalidate();
+    }
+
+    private boolean removeSubscription(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        boolean[] removed = new boolean[1];
+        subscriptions.computeIfPresent(event, (type, listeners) -> {
+            EventListener[] result = remove(listeners, listener);
+            removed[0] = result != listeners;
+            return result;
+        });
+        invalidate();
+        return removed[0];
+    }
+
+    /**
+     * Remove the subscriptions of all weakly referenced listeners that have been garbage
+     * collected.
+     */
+    private void expungeCollectedListeners() {
+        Reference<? extends EventListener> reference;
+        while ((reference = collectedListeners.poll()) != null) {
+            WeakEventListener listener = (WeakEventListener) reference;
+            subscriptions.computeIfPresent(listener.getEventType(), (type, listeners) -> remove(listeners, listener));
+            invalidate();
+        }
+    }
+
+    /**
+     * Drop all resolved listeners. The dispatch table must be replaced after the
+     * subscriptions have been changed, a concurrent resolution may then only populate the
+     * outdated table.
+     */
+    private void invalidate() {
+        dispatchTable = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Collect all listeners subscribed to the {@code eventType} or any of its supertypes,
+     * starting with the most specific type.
+     */
+    private EventListener[] resolve(Class<?> eventType) {
+        Map<EventListener, EventListener> result = new LinkedHashMap<>();
+        for (Class<?> type = eventType; type != null && RootApplicationEvent.class.isAssignableFrom(type); type = type.getSuperclass()) {
+            EventListener[] listeners = subscriptions.get(type);
+            if (null != listeners) {
+                for (EventListener listener : listeners) {
+                    EventListener target = resolveTarget(listener);
+                    if (null != target) {
+                        result.putIfAbsent(target, listener);
+                    }
+                }
+            }
         }
+        return result.isEmpty() ? NO_LISTENERS : result.values().toArray(new EventListener[result.size()]);
+    }
+
+    /**
+     * Resolve the listener that actually processes the events of a subscription, so that a
+     * listener subscribed by bean name and as instance is called only once. Returns
+     * {@literal null} if a weakly referenced listener has been collected. A bean that
+     * cannot be resolved is kept as subscription, the failure surfaces when it is called.
+     */
+    private static EventListener resolveTarget(EventListener listener) {
+        if (listener instanceof BeanNameEventListener) {
+            try {
+                return ((BeanNameEventListener) listener).getDelegate();
+            } catch (RuntimeException e) {
+                return listener;
+            }
+        }
+        return unwrap(listener);
+    }
+
+    /**
+     * Create a new snapshot that contains all {@code listeners} plus the {@code listener}
+     * to add. A listener is only contained once.
+     */
+    private static EventListener[] add(EventListener[] listeners, EventListener listener) {
+        if (null == listeners) {
+            return new EventListener[]{listener};
+        }
+        for (EventListener existing : listeners) {
+            if (matches(existing, listener)) {
+                return listeners;
+            }
+        }
+        EventListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+        result[listeners.length] = listener;
+        return result;
+    }
+
+    /**
+     * Create a new snapshot of {@code listeners} without the {@code listener}. If no
+     * listener remains, {@literal null} is returned to remove the mapping at all.
+     */
+    private static EventListener[] remove(EventListener[] listeners, EventListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (matches(listeners[i], listener)) {
+                if (listeners.length == 1) {
+                    return null;
+                }
+                EventListener[] result = new EventListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, result, 0, i);
+                System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+                return result;
+            }
+        }
+        return listeners;
+    }
+
+    /**
+     * Check whether the {@code subscribed} listener is the {@code listener}, whereas any
+     * of both may be a weak reference to the actual listener.
+     */
+    private static boolean matches(EventListener subscribed, EventListener listener) {
+        if (subscribed.equals(listener)) {
+            return true;
+        }
+        EventListener target = unwrap(subscribed);
+        return target != null && target.equals(unwrap(listener));
+    }
+
+    private static EventListener unwrap(EventListener listener) {
+        return listener instanceof WeakEventListener ? ((WeakEventListener) listener).get() : listener;
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.openwms.core.SpringProfiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A ThreadPerListenerInvoker calls each {@link EventListener} in its own thread. On a
+ * Java runtime that supports virtual threads, a virtual thread is started per listener,
+ * otherwise threads of an unbounded, cached thread pool are used. Listeners that block
+ * on I/O do not limit the throughput of the dispatcher then.
+ * <p>
+ * Each listener invocation may be limited with a timeout ({@code
+ * owms.core.events.listener-timeout} in milliseconds, {@literal 0} means no timeout).
+ * Listeners that exceed the timeout are interrupted. If {@code
+ * owms.core.events.await-listeners} is set to {@literal true} the dispatching thread
+ * waits until all listeners have finished or timed out.
+ * </p>
+ * The invoker is active with the Spring profile {@value SpringProfiles#VIRTUAL_THREADS_PROFILE}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@Profile(SpringProfiles.VIRTUAL_THREADS_PROFILE)
+@Component(ThreadPerListenerInvoker.COMPONENT_NAME)
+public class ThreadPerListenerInvoker implements ListenerInvoker {
+
+    /** Springs component name. */
+    public static final String COMPONENT_NAME = "threadPerListenerInvoker";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadPerListenerInvoker.class);
+    private final ExecutorService executor;
+    /** Interrupts listeners that exceed the timeout, package-private for testing. */
+    final ScheduledThreadPoolExecutor watchdog;
+    private final long timeoutMillis;
+    private final boolean awaitListeners;
+
+    /**
+     * Create a ThreadPerListenerInvoker.
+     *
+     * @param timeoutMillis The maximum execution time of each listener in milliseconds, 0 means unlimited
+     * @param awaitListeners Whether the dispatching thread waits for all listeners to finish
+     */
+    public ThreadPerListenerInvoker(
+            @Value("${owms.core.events.listener-timeout:0}") long timeoutMillis,
+            @Value("${owms.core.events.await-listeners:false}") boolean awaitListeners) {
+        this.timeoutMillis = timeoutMillis;
+        this.awaitListeners = awaitListeners;
+        this.executor = createExecutor();
+        this.watchdog = timeoutMillis > 0 && !awaitListeners ? createWatchdog() : null;
+    }
+
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, COMPONENT_NAME + "-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        // Timeouts of finished listeners are cancelled and must not hold the event
+        result.setRemoveOnCancelPolicy(true);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Submits each listener to its own thread. Exceptions of listeners are logged and do
+     * not affect other listeners.
+     */
+    @Override
+    public void invoke(EventListener[] listeners, RootApplicationEvent event, EventDispatchMonitor monitor) {
+        Future<?>[] futures = new Future<?>[listeners.length];
+        for (int i = 0; i < listeners.length; i++) {
+            Invocation invocation = new Invocation(listeners[i], event, monitor);
+            futures[i] = executor.submit(invocation);
+            if (watchdog != null) {
+                Future<?> future = futures[i];
+                invocation.setTimeout(watchdog.schedule(() -> cancel(future, invocation.listener, event), timeoutMillis, TimeUnit.MILLISECONDS));
+            }
+        }
+        if (awaitListeners) {
+            join(listeners, futures, event);
+        }
+    }
+
+    /**
+     * Stop all running listeners when the application context is closed.
+     */
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    private void join(EventListener[] listeners, Future<?>[] futures, RootApplicationEvent event) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (int i = 0; i < futures.length; i++) {
+            try {
+                if (timeoutMillis > 0) {
+                    futures[i].get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } else {
+                    futures[i].get();
+                }
+            } catch (TimeoutException te) {
+                cancel(futures[i], listeners[i], event);
+            } catch (ExecutionException ee) {
+                LOGGER.error("Listener [{}] failed to process event [{}]: {}", listeners[i], event, ee.getCause().getMessage(), ee.getCause());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void cancel(Future<?> future, EventListener listener, RootApplicationEvent event) {
+        if (future.cancel(true)) {
+            LOGGER.warn("Listener [{}] exceeded the timeout processing event [{}] and has been interrupted", listener, event);
+        }
+    }
+
+    /**
+     * Calls one listener, logs its failure like the synchronous invocation does and
+     * cancels its timeout as soon as it has finished.
+     */
+    private static final class Invocation implements Runnable {
+
+        private final EventListener listener;
+        private final RootApplicationEvent event;
+        private final EventDispatchMonitor monitor;
+        private volatile Future<?> timeout;
+        private volatile boolean finished;
+
+        Invocation(EventListener listener, RootApplicationEvent event, EventDispatchMonitor monitor) {
+            this.listener = listener;
+            this.event = event;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void run() {
+            long started = monitor.listenerStarted();
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException re) {
+                LOGGER.error("Listener [{}] failed to process event [{}]: {}", listener, event, re.getMessage(), re);
+            } finally {
+                monitor.listenerFinished(listener, event, started);
+                finished = true;
+                cancelTimeout();
+            }
+        }
+
+        void setTimeout(Future<?> timeout) {
+            this.timeout = timeout;
+            if (finished) {
+                cancelTimeout();
+            }
+        }
+
+        private void cancelTimeout() {
+            Future<?> current = timeout;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Use a virtual thread per task executor if the runtime supports it, otherwise fall
+     * back to a cached pool of platform threads.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("Virtual threads are not supported by this runtime, using platform threads to call event listeners");
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, COMPONENT_NAME);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
\ No newline at end of file
@@ -15,6 +15,9 @@
  */
 package org.openwms.core.event;
 
+import org.openwms.core.annotation.DispatchPriority;
+import org.openwms.core.annotation.EventPriority;
+
 import java.io.Serializable;
 
 /**
@@ -23,6 +26,7 @@ import java.io.Serializable;
  *
  * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
  */
+@DispatchPriority(EventPriority.HIGH)
 public class UserChangedEvent extends RootApplicationEvent implements Serializable {
 
     /**
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A WeakEventListener holds a weak reference to the subscribed {@link EventListener}. Once
+ * the listener has been garbage collected, the WeakEventListener is enqueued to the
+ * {@link ReferenceQueue} of the dispatcher that purges the subscription.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+class WeakEventListener extends WeakReference<EventListener> implements EventListener {
+
+    private final Class<? extends RootApplicationEvent> eventType;
+
+    WeakEventListener(Class<? extends RootApplicationEvent> eventType, EventListener listener, ReferenceQueue<EventListener> queue) {
+        super(listener, queue);
+        this.eventType = eventType;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Pass the event to the listener if it has not been collected yet.
+     */
+    @Override
+    public void onEvent(RootApplicationEvent event) {
+        EventListener listener = get();
+        if (listener != null) {
+            listener.onEvent(event);
+        }
+    }
+
+    Class<? extends RootApplicationEvent> getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public String toString() {
+        return "WeakEventListener[" + get() + "]";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.cluster;
+
+import org.openwms.core.event.EventDispatcher;
+import org.openwms.core.event.EventListener;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.codec.CodecRegistry;
+import org.openwms.core.event.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ClusterEventDispatcher is a decorator of an {@link EventDispatcher} that dispatches
+ * each event locally and additionally sends it to all peer nodes over an {@link
+ * EventTransport}. Events received from peers are dispatched locally only.
+ * <p>
+ * Outgoing events are encoded with an {@link EventCodec} and sent in batches, when
+ * either the batch size is reached or the flush interval has elapsed. Each event gets an
+ * unique ID of the origin node and a sequence number. Received events are deduplicated
+ * by that ID, so that a transport may deliver batches more than once. Events with a
+ * source that cannot be encoded are not propagated.
+ * </p>
+ * <p>
+ * Received bytes are not trusted, hence the default codec does not use Java
+ * serialization. Pass an {@link EventCodec} with registered types to opt in, see {@link
+ * CodecRegistry#registerSerializable(Class)}.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class ClusterEventDispatcher implements EventDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterEventDispatcher.class);
+    private static final short MAGIC = 0x0E7B;
+    private static final int SEEN_IDS = 10_000;
+    private final EventDispatcher delegate;
+    private final EventTransport transport;
+    private final EventCodec codec;
+    private final int batchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final byte[] nodeIdBytes = nodeId.getBytes(StandardCharsets.UTF_8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    /** Outgoing events, guarded by {@link #lock}. */
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private int buffered;
+    /** Recently received event IDs per origin node, guarded by itself. */
+    private final Map<String, Boolean> seen = new LinkedHashMap<String, Boolean>(SEEN_IDS, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > SEEN_IDS;
+        }
+    };
+
+    /**
+     * Create a ClusterEventDispatcher.
+     *
+     * @param delegate The local dispatcher
+     * @param transport The transport to the peer nodes
+     * @param batchSize The maximum number of events sent in one batch
+     * @param flushIntervalMillis The maximum time an event is buffered before it is sent
+     */
+    public ClusterEventDispatcher(EventDispatcher delegate, EventTransport transport, int batchSize, long flushIntervalMillis) {
+        this(delegate, transport, batchSize, flushIntervalMillis, new EventCodec());
+    }
+
+    /**
+     * Create a ClusterEventDispatcher.
+     *
+     * @param delegate The local dispatcher
+     * @param transport The transport to the peer nodes
+     * @param batchSize The maximum number of events sent in one batch
+     * @param flushIntervalMillis The maximum time an event is buffered before it is sent
+     * @param codec Encodes and decodes the events, must be configured equally on all nodes
+     */
+    public ClusterEventDispatcher(EventDispatcher delegate, EventTransport transport, int batchSize, long flushIntervalMillis, EventCodec codec) {
+        this.delegate = delegate;
+        this.transport = transport;
+        this.codec = codec;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "clusterEventDispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        transport.setReceiver(this::receive);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName) {
+        delegate.subscribe(event, listenerBeanName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        delegate.subscribe(event, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribeWeakly(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        delegate.subscribeWeakly(event, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unsubscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName) {
+        delegate.unsubscribe(event, listenerBeanName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unsubscribe(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        delegate.unsubscribe(event, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Dispatch the event locally and enqueue it to be sent to all peers.
+     */
+    @Override
+    public <T extends RootApplicationEvent> void dispatch(T event) {
+        delegate.dispatch(event);
+        if (event != null && codec.isEncodable(event)) {
+            enqueue(event);
+        }
+    }
+
+    /**
+     * Send all buffered events immediately.
+     */
+    public void flush() {
+        byte[] batch;
+        synchronized (lock) {
+            if (buffered == 0) {
+                return;
+            }
+            batch = seal();
+        }
+        send(batch);
+    }
+
+    /**
+     * Send all buffered events and stop the scheduler.
+     */
+    public void shutdown() {
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    private void enqueue(RootApplicationEvent event) {
+        byte[] encoded;
+        try {
+            encoded = codec.encode(event);
+        } catch (IOException e) {
+            LOGGER.warn("Event [{}] cannot be encoded and is not propagated to peers: {}", event, e.getMessage());
+            return;
+        }
+        byte[] batch = null;
+        synchronized (lock) {
+            try {
+                DataOutputStream out = new DataOutputStream(buffer);
+                if (buffered == 0) {
+                    out.writeShort(MAGIC);
+                    out.writeInt(nodeIdBytes.length);
+                    out.write(nodeIdBytes);
+                }
+                out.writeLong(sequence.incrementAndGet());
+                out.write(encoded);
+            } catch (IOException e) {
+                // Never thrown by a ByteArrayOutputStream
+                throw new UncheckedIOException(e);
+            }
+            if (++buffered >= batchSize) {
+                batch = seal();
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Finish the current batch with a trailing end mark and start a new one.
+     */
+    private byte[] seal() {
+        ByteArrayOutputStream sealed = buffer;
+        sealed.write(0);
+        buffer = new ByteArrayOutputStream();
+        buffered = 0;
+        return sealed.toByteArray();
+    }
+
+    private void send(byte[] batch) {
+        try {
+            transport.send(batch);
+        } catch (RuntimeException re) {
+            LOGGER.error("Failed to send a batch of events to peers: {}", re.getMessage(), re);
+        }
+    }
+
+    private void receive(byte[] batch) {
+        List<RootApplicationEvent> events = new ArrayList<>();
+        ByteBuffer in = ByteBuffer.wrap(batch);
+        try {
+            if (in.getShort() != MAGIC) {
+                LOGGER.warn("Received a batch of unknown format, ignored");
+                return;
+            }
+            String origin = CodecRegistry.readString(in);
+            if (nodeId.equals(origin)) {
+                return;
+            }
+            // Each event is preceded by its sequence number, the batch ends with a zero byte
+            while (in.remaining() > 1) {
+                long seq = in.getLong();
+                RootApplicationEvent event = codec.read(in);
+                if (firstSeen(origin + ':' + seq)) {
+                    events.add(event);
+                }
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            LOGGER.error("Failed to decode a batch of events: {}", e.getMessage(), e);
+        }
+        events.forEach(delegate::dispatch);
+    }
+
+    private boolean firstSeen(String eventId) {
+        synchronized (seen) {
+            return seen.put(eventId, Boolean.TRUE) == null;
+        }
+    }
+}
\ No newline at end of file
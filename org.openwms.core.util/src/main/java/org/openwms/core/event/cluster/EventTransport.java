@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * An EventTransport sends encoded batches of events to all peer nodes and receives the
+ * batches sent by them.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public interface EventTransport {
+
+    /**
+     * Send a batch of encoded events to all peer nodes.
+     *
+     * @param batch The encoded batch
+     */
+    void send(byte[] batch);
+
+    /**
+     * Set the receiver of batches that have been sent by peer nodes.
+     *
+     * @param receiver Is called with each received batch
+     */
+    void setReceiver(Consumer<byte[]> receiver);
+}
\ No newline at end of file
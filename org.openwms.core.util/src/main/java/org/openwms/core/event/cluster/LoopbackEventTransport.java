@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A LoopbackEventTransport connects nodes within the same JVM, mainly used for testing.
+ * Batches are passed synchronously to the receivers of all connected peers.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class LoopbackEventTransport implements EventTransport {
+
+    private final List<LoopbackEventTransport> peers = new CopyOnWriteArrayList<>();
+    private volatile Consumer<byte[]> receiver = batch -> { };
+
+    /**
+     * Connect this transport and the {@code peer} with each other.
+     *
+     * @param peer The transport of the peer node
+     */
+    public void connect(LoopbackEventTransport peer) {
+        if (peer != this && !peers.contains(peer)) {
+            peers.add(peer);
+            peer.connect(this);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void send(byte[] batch) {
+        for (LoopbackEventTransport peer : peers) {
+            peer.receiver.accept(batch);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setReceiver(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A BufferPool keeps a bounded number of {@link ByteBuffer}s of equal size for reuse, so
+ * that encoding events does not allocate a new buffer each time. Direct buffers can be
+ * written to channels without an intermediate copy.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class BufferPool {
+
+    /** Default size of pooled buffers: {@value} */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+    /** Default maximum number of pooled buffers: {@value} */
+    public static final int DEFAULT_MAX_POOLED = 64;
+    private final int bufferSize;
+    private final boolean direct;
+    private final BlockingQueue<ByteBuffer> pooled;
+
+    /**
+     * Create a BufferPool of heap buffers with default settings.
+     */
+    public BufferPool() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED, false);
+    }
+
+    /**
+     * Create a BufferPool.
+     *
+     * @param bufferSize The capacity of each buffer
+     * @param maxPooled The maximum number of buffers kept for reuse
+     * @param direct Whether to allocate direct buffers
+     */
+    public BufferPool(int bufferSize, int maxPooled, boolean direct) {
+        if (bufferSize < 1 || maxPooled < 1) {
+            throw new IllegalArgumentException("Buffer size and maximum number of pooled buffers must be greater than 0");
+        }
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.pooled = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * Take a cleared buffer from the pool or allocate a new one if the pool is empty.
+     *
+     * @return A buffer of {@link #getBufferSize()} capacity
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = pooled.poll();
+        if (buffer == null) {
+            return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool. Buffers of a different capacity or type and buffers
+     * exceeding the maximum pool size are left to the garbage collector.
+     *
+     * @param buffer The buffer, must not be used by the caller afterwards
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize && buffer.isDirect() == direct && !buffer.isReadOnly()) {
+            pooled.offer(buffer);
+        }
+    }
+
+    /**
+     * Get the capacity of the pooled buffers.
+     *
+     * @return The capacity in bytes
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.codec;
+
+import org.openwms.core.event.ConfigurationChangedEvent;
+import org.openwms.core.event.MergePropertiesEvent;
+import org.openwms.core.event.ReloadFilePreferencesEvent;
+import org.openwms.core.event.RoleChangedEvent;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.RootNotification;
+import org.openwms.core.event.UserChangedEvent;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * A CodecRegistry holds the {@link ValueCodec}s used to encode event sources and the
+ * numeric IDs of event types.
+ * <p>
+ * Each value is written as the tag of its codec followed by the data written by the
+ * codec. A codec registered for a concrete class is used for exactly that class only,
+ * whereas a codec registered for an interface or an abstract class is used for all its
+ * subtypes, in order of registration. Codecs for {@code String}, {@code Long}, {@code
+ * Integer}, {@code Boolean}, {@link RootNotification} and {@code List} are built-in.
+ * Values of types registered with {@link #registerSerializable(Class)} are written with
+ * Java serialization, there is no implicit fallback for other {@code Serializable} values.
+ * </p>
+ * <p>
+ * Event types with a registered ID are written as that ID, other event types with their
+ * class name. The core events of this module are registered by default. Codecs and
+ * event IDs must be registered equally on all nodes that exchange events and should be
+ * registered before the registry is used.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class CodecRegistry {
+
+    /** Tags below this value are reserved for built-in codecs: {@value} */
+    public static final int FIRST_CUSTOM_TAG = 16;
+    /** Event IDs below this value are reserved for core events: {@value} */
+    public static final int FIRST_CUSTOM_EVENT_ID = 256;
+    private static final byte NULL = 0;
+    private static final byte SERIALIZED = 1;
+    private static final byte NO_CODEC = -1;
+    private static final short UNREGISTERED_EVENT = 0;
+    private final ClassLoader classLoader;
+    private final ValueCodec<?>[] codecs = new ValueCodec<?>[Byte.MAX_VALUE + 1];
+    /** Registered types and their tags in order of registration, guarded by this. */
+    private final Map<Class<?>, Byte> registered = new LinkedHashMap<>();
+    /** Tags by value type, replaced on each registration. */
+    private volatile ClassValue<Byte> tags = newTagLookup();
+    /** Types that are written with Java serialization, guarded by this. */
+    private final Set<Class<?>> serializableTypes = new LinkedHashSet<>();
+    private final Map<Class<?>, Short> eventIds = new ConcurrentHashMap<>();
+    private final Map<Short, Class<? extends RootApplicationEvent>> eventTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Create a CodecRegistry with the built-in codecs that resolves classes with the
+     * default ClassLoader.
+     */
+    public CodecRegistry() {
+        this(ClassUtils.getDefaultClassLoader());
+    }
+
+    /**
+     * Create a CodecRegistry with the built-in codecs.
+     *
+     * @param classLoader Used to resolve event types and serialized classes
+     */
+    public CodecRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        codecs[SERIALIZED] = new DefaultCodecs.SerializableCodec(classLoader);
+        add(2, String.class, DefaultCodecs.STRING);
+        add(3, Long.class, DefaultCodecs.LONG);
+        add(4, Integer.class, DefaultCodecs.INTEGER);
+        add(5, Boolean.class, DefaultCodecs.BOOLEAN);
+        add(6, RootNotification.class, DefaultCodecs.NOTIFICATION);
+        add(7, List.class, DefaultCodecs.LIST);
+        addEvent(1, UserChangedEvent.class);
+        addEvent(2, RoleChangedEvent.class);
+        addEvent(3, ConfigurationChangedEvent.class);
+        addEvent(4, MergePropertiesEvent.class);
+        addEvent(5, ReloadFilePreferencesEvent.class);
+    }
+
+    /**
+     * Register a codec for values of {@code type}.
+     *
+     * @param tag The unique tag of the codec, between {@link #FIRST_CUSTOM_TAG} and 127
+     * @param type The type of values
+     * @param codec The codec
+     * @param <T> The type of values
+     * @throws IllegalArgumentException If the tag is out of range or already in use
+     */
+    public <T> void register(int tag, Class<T> type, ValueCodec<? super T> codec) {
+        if (tag < FIRST_CUSTOM_TAG || tag > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException(format("Tag [%d] is out of range [%d..%d]", tag, FIRST_CUSTOM_TAG, Byte.MAX_VALUE));
+        }
+        add(tag, type, codec);
+    }
+
+    /**
+     * Register an ID for an event type.
+     *
+     * @param id The unique ID, between {@link #FIRST_CUSTOM_EVENT_ID} and 32767
+     * @param eventType The type of event
+     * @throws IllegalArgumentException If the ID is out of range or already in use
+     */
+    public void registerEvent(int id, Class<? extends RootApplicationEvent> eventType) {
+        if (id < FIRST_CUSTOM_EVENT_ID || id > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(format("Event ID [%d] is out of range [%d..%d]", id, FIRST_CUSTOM_EVENT_ID, Short.MAX_VALUE));
+        }
+        addEvent(id, eventType);
+    }
+
+    /**
+     * Register a {@code Serializable} type whose values are written and read with Java
+     * serialization. Like codecs, an interface or abstract class applies to all its
+     * subtypes. Only register types of trusted data, because a registered type allows
+     * received bytes to be deserialized. Classes of objects referenced by a value must be
+     * registered as well, except for boxed primitives, {@code BigInteger}, {@code
+     * BigDecimal} and arrays of allowed types.
+     *
+     * @param type The type of values
+     */
+    public synchronized void registerSerializable(Class<? extends Serializable> type) {
+        serializableTypes.add(type);
+        registered.putIfAbsent(type, SERIALIZED);
+        tags = newTagLookup();
+    }
+
+    /**
+     * Check whether {@code value} can be written, that is the case for {@literal null},
+     * values with a registered codec and values of registered {@code Serializable} types.
+     *
+     * @param value The value to check
+     * @return {@literal true} if encodable
+     */
+    public boolean isEncodable(Object value) {
+        return value == null || tags.get(value.getClass()) != NO_CODEC;
+    }
+
+    /**
+     * Write the {@code value} preceded by the tag of its codec.
+     *
+     * @param value The value to write, may be {@literal null}
+     * @param buffer The buffer to write to
+     * @throws IOException In case the value cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public void writeValue(Object value, ByteBuffer buffer) throws IOException {
+        if (value == null) {
+            buffer.put(NULL);
+            return;
+        }
+        byte tag = tags.get(value.getClass());
+        if (tag == NO_CODEC) {
+            throw new IOException(format("No codec for value of type [%s] and it is not registered as Serializable", value.getClass().getName()));
+        }
+        buffer.put(tag);
+        ((ValueCodec<Object>) codecs[tag]).write(value, buffer, this);
+    }
+
+    /**
+     * Read a value written with {@link #writeValue(Object, ByteBuffer)}.
+     *
+     * @param buffer The buffer to read from
+     * @return The value, may be {@literal null}
+     * @throws IOException In case the value cannot be read
+     */
+    public Object readValue(ByteBuffer buffer) throws IOException {
+        byte tag = buffer.get();
+        if (tag == NULL) {
+            return null;
+        }
+        ValueCodec<?> codec = tag > 0 ? codecs[tag] : null;
+        if (codec == null) {
+            throw new IOException(format("Unknown value tag [%d]", tag));
+        }
+        return codec.read(buffer, this);
+    }
+
+    /**
+     * Write a String as its number of UTF-8 bytes followed by the bytes. Intended to be
+     * used by codecs.
+     *
+     * @param value The String to write
+     * @param buffer The buffer to write to
+     */
+    public static void writeString(String value, ByteBuffer buffer) {
+        int start = reserveLength(buffer);
+        int length = value.length();
+        // Most values are ASCII only and are written without encoding them first
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(start, bytes.length);
+                buffer.position(start + 4);
+                buffer.put(bytes);
+                return;
+            }
+            buffer.put((byte) c);
+        }
+        buffer.putInt(start, length);
+    }
+
+    /**
+     * Skip the 4 bytes of a length that is written when the following content is
+     * complete. Intended to be used by codecs.
+     *
+     * @param buffer The buffer to write to
+     * @return The position of the length
+     * @throws BufferOverflowException If less than 4 bytes remain, like the put methods
+     * of the buffer, so that callers can grow the buffer
+     */
+    public static int reserveLength(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            throw new BufferOverflowException();
+        }
+        int start = buffer.position();
+        buffer.position(start + 4);
+        return start;
+    }
+
+    /**
+     * Read a String written with {@link #writeString(String, ByteBuffer)}.
+     *
+     * @param buffer The buffer to read from
+     * @return The String
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    void writeEventType(Class<?> eventType, ByteBuffer buffer) {
+        Short id = eventIds.get(eventType);
+        if (id == null) {
+            buffer.putShort(UNREGISTERED_EVENT);
+            writeString(eventType.getName(), buffer);
+        } else {
+            buffer.putShort(id);
+        }
+    }
+
+    Class<? extends RootApplicationEvent> readEventType(ByteBuffer buffer) throws IOException {
+        short id = buffer.getShort();
+        if (id != UNREGISTERED_EVENT) {
+            Class<? extends RootApplicationEvent> eventType = eventTypes.get(id);
+            if (eventType == null) {
+                throw new IOException(format("Unknown event ID [%d]", id));
+            }
+            return eventType;
+        }
+        String className = readString(buffer);
+        try {
+            Class<?> type = ClassUtils.forName(className, classLoader);
+            if (!RootApplicationEvent.class.isAssignableFrom(type)) {
+                throw new IOException(format("Type [%s] is not a RootApplicationEvent", className));
+            }
+            return type.asSubclass(RootApplicationEvent.class);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IOException(format("Event type [%s] cannot be resolved", className), e);
+        }
+    }
+
+    private synchronized void add(int tag, Class<?> type, ValueCodec<?> codec) {
+        if (codecs[tag] != null) {
+            throw new IllegalArgumentException(format("Tag [%d] is already in use", tag));
+        }
+        codecs[tag] = codec;
+        registered.put(type, (byte) tag);
+        tags = newTagLookup();
+    }
+
+    private void addEvent(int id, Class<? extends RootApplicationEvent> eventType) {
+        if (eventTypes.putIfAbsent((short) id, eventType) != null) {
+            throw new IllegalArgumentException(format("Event ID [%d] is already in use", id));
+        }
+        eventIds.put(eventType, (short) id);
+    }
+
+    private synchronized byte lookup(Class<?> type) {
+        Byte tag = registered.get(type);
+        if (tag != null) {
+            return tag;
+        }
+        for (Map.Entry<Class<?>, Byte> entry : registered.entrySet()) {
+            Class<?> candidate = entry.getKey();
+            if ((candidate.isInterface() || Modifier.isAbstract(candidate.getModifiers())) && candidate.isAssignableFrom(type)) {
+                return entry.getValue();
+            }
+        }
+        return NO_CODEC;
+    }
+
+    /**
+     * Check whether values of {@code type} may be read with Java serialization.
+     */
+    synchronized boolean isSerializable(Class<?> type) {
+        for (Class<?> candidate : serializableTypes) {
+            if (candidate.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ClassValue<Byte> newTagLookup() {
+        return new ClassValue<Byte>() {
+            @Override
+            protected Byte computeValue(Class<?> type) {
+                return lookup(type);
+            }
+        };
+    }
+}
\ No newline at end of file
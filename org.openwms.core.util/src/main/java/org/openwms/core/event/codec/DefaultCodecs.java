@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.codec;
+
+import org.openwms.core.event.RootNotification;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A DefaultCodecs holds the built-in {@link ValueCodec}s of the {@link CodecRegistry}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+final class DefaultCodecs {
+
+    static final ValueCodec<String> STRING = new ValueCodec<String>() {
+        @Override
+        public void write(String value, ByteBuffer buffer, CodecRegistry registry) {
+            CodecRegistry.writeString(value, buffer);
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, CodecRegistry registry) {
+            return CodecRegistry.readString(buffer);
+        }
+    };
+
+    static final ValueCodec<Long> LONG = new ValueCodec<Long>() {
+        @Override
+        public void write(Long value, ByteBuffer buffer, CodecRegistry registry) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, CodecRegistry registry) {
+            return buffer.getLong();
+        }
+    };
+
+    static final ValueCodec<Integer> INTEGER = new ValueCodec<Integer>() {
+        @Override
+        public void write(Integer value, ByteBuffer buffer, CodecRegistry registry) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, CodecRegistry registry) {
+            return buffer.getInt();
+        }
+    };
+
+    static final ValueCodec<Boolean> BOOLEAN = new ValueCodec<Boolean>() {
+        @Override
+        public void write(Boolean value, ByteBuffer buffer, CodecRegistry registry) {
+            buffer.put(value ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public Boolean read(ByteBuffer buffer, CodecRegistry registry) {
+            return buffer.get() != 0;
+        }
+    };
+
+    static final ValueCodec<RootNotification> NOTIFICATION = new ValueCodec<RootNotification>() {
+        @Override
+        public void write(RootNotification value, ByteBuffer buffer, CodecRegistry registry) throws IOException {
+            registry.writeValue(value.getData(), buffer);
+        }
+
+        @Override
+        public RootNotification read(ByteBuffer buffer, CodecRegistry registry) throws IOException {
+            Object data = registry.readValue(buffer);
+            if (!(data instanceof Serializable)) {
+                throw new IOException("Data of a RootNotification is not Serializable");
+            }
+            return new RootNotification((Serializable) data);
+        }
+    };
+
+    static final ValueCodec<List<?>> LIST = new ValueCodec<List<?>>() {
+        @Override
+        public void write(List<?> value, ByteBuffer buffer, CodecRegistry registry) throws IOException {
+            buffer.putInt(value.size());
+            for (Object element : value) {
+                registry.writeValue(element, buffer);
+            }
+        }
+
+        @Override
+        public List<?> read(ByteBuffer buffer, CodecRegistry registry) throws IOException {
+            int size = buffer.getInt();
+            if (size < 0 || size > buffer.remaining()) {
+                throw new IOException("Invalid number of list elements: " + size);
+            }
+            List<Object> elements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                elements.add(registry.readValue(buffer));
+            }
+            return elements;
+        }
+    };
+
+    private DefaultCodecs() {
+    }
+
+    /**
+     * Writes values of registered types with Java serialization, the serialized form is
+     * preceded by its length. Only values of a registered type are read, each class of the
+     * value is checked before its content is deserialized.
+     */
+    static final class SerializableCodec implements ValueCodec<Object> {
+
+        /** Immutable JDK types that may be part of any registered value. */
+        private static final Set<Class<?>> VALUE_TYPES = new HashSet<>(Arrays.asList(Boolean.class, Byte.class, Character.class,
+                Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class));
+
+        private final ClassLoader classLoader;
+
+        SerializableCodec(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void write(Object value, ByteBuffer buffer, CodecRegistry registry) throws IOException {
+            int start = CodecRegistry.reserveLength(buffer);
+            try (ObjectOutputStream oos = new ObjectOutputStream(new ByteBufferOutputStream(buffer))) {
+                oos.writeObject(value);
+            }
+            buffer.putInt(start, buffer.position() - start - 4);
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, CodecRegistry registry) throws IOException {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Invalid length of serialized value: " + length);
+            }
+            ByteBuffer serialized = buffer.duplicate();
+            serialized.limit(serialized.position() + length);
+            buffer.position(buffer.position() + length);
+            try (ObjectInputStream ois = new ClassLoaderObjectInputStream(new ByteBufferInputStream(serialized), registry)) {
+                return ois.readObject();
+            } catch (ClassNotFoundException cnfe) {
+                throw new IOException(cnfe.getMessage(), cnfe);
+            }
+        }
+
+        /**
+         * Resolves the classes of a serialized value only if they are allowed: the class of
+         * the value itself must be registered, nested classes must be registered or be one
+         * of the {@link #VALUE_TYPES}. Superclasses of resolved classes and arrays of allowed
+         * classes are allowed as well, proxies are never resolved.
+         */
+        private class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+            private final CodecRegistry registry;
+            private final List<Class<?>> resolved = new ArrayList<>();
+
+            ClassLoaderObjectInputStream(InputStream in, CodecRegistry registry) throws IOException {
+                super(in);
+                this.registry = registry;
+            }
+
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                Class<?> type = ClassUtils.forName(desc.getName(), classLoader);
+                // The first class resolved is the class of the value itself
+                if (resolved.isEmpty() ? !registry.isSerializable(type) : !isAllowed(type)) {
+                    throw new InvalidClassException(desc.getName(), "Type is not registered as Serializable");
+                }
+                resolved.add(type);
+                return type;
+            }
+
+            private boolean isAllowed(Class<?> type) {
+                Class<?> element = type;
+                while (element.isArray()) {
+                    element = element.getComponentType();
+                }
+                if (element.isPrimitive() || VALUE_TYPES.contains(element) || registry.isSerializable(element)) {
+                    return true;
+                }
+                for (Class<?> subclass : resolved) {
+                    if (!element.isInterface() && element.isAssignableFrom(subclass)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            protected Class<?> resolveProxyClass(String[] interfaces) throws InvalidClassException {
+                throw new InvalidClassException("Proxy classes are not deserialized");
+            }
+        }
+    }
+
+    private static final class ByteBufferOutputStream extends OutputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.put(b, off, len);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.codec;
+
+import org.openwms.core.event.EventFactories;
+import org.openwms.core.event.RootApplicationEvent;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * An EventCodec writes {@link RootApplicationEvent}s into a compact binary format and
+ * reads them back. An event is written as its type, see {@link
+ * CodecRegistry#registerEvent(int, Class)}, followed by the event source written with
+ * the {@link ValueCodec}s of a {@link CodecRegistry}. Events are recreated with the
+ * constructor that accepts the source, see {@link EventFactories}.
+ * <p>
+ * Events are written into and read from {@link ByteBuffer}s directly, e.g. into a
+ * memory-mapped file. {@link #encode(RootApplicationEvent)} uses buffers of a {@link
+ * BufferPool} and only allocates the resulting byte array.
+ * </p>
+ * <p>
+ * Note: Java serialization is only used for sources of types that have been registered
+ * explicitly, see {@link CodecRegistry#registerSerializable(Class)}.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class EventCodec {
+
+    private final CodecRegistry registry;
+    private final BufferPool pool;
+
+    /**
+     * Create an EventCodec with the built-in codecs.
+     */
+    public EventCodec() {
+        this(new CodecRegistry());
+    }
+
+    /**
+     * Create an EventCodec with the built-in codecs.
+     *
+     * @param classLoader Used to resolve event and source classes
+     */
+    public EventCodec(ClassLoader classLoader) {
+        this(new CodecRegistry(classLoader));
+    }
+
+    /**
+     * Create an EventCodec with a default {@link BufferPool}.
+     *
+     * @param registry The codecs to use
+     */
+    public EventCodec(CodecRegistry registry) {
+        this(registry, new BufferPool());
+    }
+
+    /**
+     * Create an EventCodec.
+     *
+     * @param registry The codecs to use
+     * @param pool The pool of buffers used for encoding
+     */
+    public EventCodec(CodecRegistry registry, BufferPool pool) {
+        this.registry = registry;
+        this.pool = pool;
+    }
+
+    /**
+     * Check whether the {@code event} can be encoded, that is the case when there is a
+     * codec for its source or the type of the source is registered as {@code Serializable}.
+     *
+     * @param event The event to check
+     * @return {@literal true} if encodable
+     */
+    public boolean isEncodable(RootApplicationEvent event) {
+        return registry.isEncodable(event.getSource());
+    }
+
+    /**
+     * Write the {@code event} at the current position of the {@code buffer}.
+     *
+     * @param event The event to write
+     * @param buffer The buffer to write to
+     * @throws IOException In case the event cannot be written
+     * @throws BufferOverflowException If the remaining space of the buffer is too small,
+     * the position of the buffer is undefined then
+     */
+    public void write(RootApplicationEvent event, ByteBuffer buffer) throws IOException {
+        registry.writeEventType(event.getClass(), buffer);
+        registry.writeValue(event.getSource(), buffer);
+    }
+
+    /**
+     * Read an event from the current position of the {@code buffer}.
+     *
+     * @param buffer The buffer to read from
+     * @return The recreated event
+     * @throws IOException In case the event cannot be read or recreated
+     */
+    public RootApplicationEvent read(ByteBuffer buffer) throws IOException {
+        try {
+            Class<? extends RootApplicationEvent> eventType = registry.readEventType(buffer);
+            return EventFactories.create(eventType, registry.readValue(buffer));
+        } catch (BufferUnderflowException bue) {
+            throw new IOException("Encoded event is truncated", bue);
+        } catch (IllegalArgumentException iae) {
+            throw new IOException(iae.getMessage(), iae);
+        }
+    }
+
+    /**
+     * Encode the {@code event} into a byte array.
+     *
+     * @param event The event to encode
+     * @return The encoded event
+     * @throws IOException In case the event cannot be written
+     */
+    public byte[] encode(RootApplicationEvent event) throws IOException {
+        ByteBuffer pooled = pool.acquire();
+        ByteBuffer buffer = pooled;
+        try {
+            while (true) {
+                try {
+                    write(event, buffer);
+                    break;
+                } catch (BufferOverflowException boe) {
+                    // Events exceeding the pooled buffer size are rare, grow without pooling
+                    if (pooled != null) {
+                        pool.release(pooled);
+                        pooled = null;
+                    }
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+            buffer.flip();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } finally {
+            if (pooled != null) {
+                pool.release(pooled);
+            }
+        }
+    }
+
+    /**
+     * Decode an event from a byte array.
+     *
+     * @param bytes The encoded event
+     * @return The recreated event
+     * @throws IOException In case the event cannot be read or recreated
+     */
+    public RootApplicationEvent decode(byte[] bytes) throws IOException {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Get the registry of codecs, to register additional codecs and event IDs.
+     *
+     * @return The registry
+     */
+    public CodecRegistry getRegistry() {
+        return registry;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A ValueCodec writes values of one type into a {@link ByteBuffer} and reads them back.
+ * Implementations are registered at a {@link CodecRegistry} with an unique tag that
+ * precedes each written value. Nested values are written and read through the {@code
+ * registry}.
+ * <p>
+ * A {@link java.nio.BufferOverflowException} thrown while writing is handled by the
+ * caller with a larger buffer, so implementations must not catch it.
+ * </p>
+ *
+ * @param <T> The type of values
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Write the {@code value} at the current position of the {@code buffer}.
+     *
+     * @param value The value to write, never {@literal null}
+     * @param buffer The buffer to write to
+     * @param registry Used to write nested values
+     * @throws IOException In case the value cannot be written
+     */
+    void write(T value, ByteBuffer buffer, CodecRegistry registry) throws IOException;
+
+    /**
+     * Read a value from the current position of the {@code buffer}.
+     *
+     * @param buffer The buffer to read from
+     * @param registry Used to read nested values
+     * @return The value
+     * @throws IOException In case the value cannot be read
+     */
+    T read(ByteBuffer buffer, CodecRegistry registry) throws IOException;
+}
\ No newline at end of file
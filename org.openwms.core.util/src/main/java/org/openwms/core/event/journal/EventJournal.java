@@ -0,0 +1,424 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.journal;
+
+import org.openwms.core.event.EventListener;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import static java.lang.String.format;
+
+/**
+ * An EventJournal is an append-only log of {@link RootApplicationEvent}s, stored in
+ * memory-mapped segment files within one directory. Each appended event gets an
+ * ascending offset. Events can be replayed into an {@link EventListener} starting at any
+ * offset, so that listeners are able to rebuild their state after a restart.
+ * <p>
+ * A segment file is named after the offset of its first event. Each record consists of
+ * its length, a CRC32 checksum, its offset and the event encoded with an {@link
+ * EventCodec} directly into the mapped segment. The length is written last and the
+ * checksum is verified on reading, hence a record that is not completely written, e.g.
+ * due to a crash, is ignored when the journal is opened again. When the active segment
+ * is full a new one is started.
+ * </p>
+ * <p>
+ * {@link #compact()} rewrites all segments except the active one and keeps only the
+ * latest event per event type and event source. Offsets of the remaining events are not
+ * changed. Events with a source that cannot be encoded are not journaled.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class EventJournal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+    private static final String SUFFIX = ".journal";
+    /** Length (int), checksum (int) and offset (long) of a record. */
+    private static final int RECORD_HEADER = 16;
+    /** The checksum covers the offset and the encoded event. */
+    private static final int CHECKSUM_START = 8;
+    private final Path directory;
+    private final int segmentSize;
+    private final EventCodec codec;
+    /** Segment files by their base offset, the last one is the active segment. */
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    /** Compaction excludes replays, appending is never blocked. */
+    private final ReadWriteLock compactionLock = new ReentrantReadWriteLock();
+    private final Object appendLock = new Object();
+    /** The active segment, guarded by {@link #appendLock}. */
+    private FileChannel channel;
+    private MappedByteBuffer active;
+    private long nextOffset;
+
+    /**
+     * Open an EventJournal in {@code directory}, existing segments are recovered.
+     *
+     * @param directory The directory of the segment files, created if it does not exist
+     * @param segmentSize The size of a segment file in bytes
+     * @param codec Encodes and decodes the journaled events
+     * @throws IOException In case the journal cannot be opened
+     */
+    public EventJournal(Path directory, int segmentSize, EventCodec codec) throws IOException {
+        if (segmentSize <= RECORD_HEADER) {
+            throw new IllegalArgumentException(format("Segment size must be greater than [%d] bytes", RECORD_HEADER));
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+            }
+        } catch (NumberFormatException nfe) {
+            throw new IOException(format("Directory [%s] contains foreign journal files", directory), nfe);
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            recover(segments.lastEntry());
+        }
+    }
+
+    /**
+     * Append the {@code event} to the journal.
+     *
+     * @param event The event to append
+     * @return The offset of the event or {@literal -1} if the event is not encodable
+     * @throws IOException In case the event cannot be written
+     */
+    public long append(RootApplicationEvent event) throws IOException {
+        if (!codec.isEncodable(event)) {
+            return -1;
+        }
+        synchronized (appendLock) {
+            while (true) {
+                int position = active.position();
+                if (write(event, position)) {
+                    return nextOffset++;
+                }
+                if (position == 0) {
+                    throw new IOException(format("Event [%s] exceeds the segment size", event));
+                }
+                closeSegment();
+                openSegment(nextOffset);
+            }
+        }
+    }
+
+    /**
+     * Encode the event directly into the active segment, the length is written last.
+     *
+     * @return {@literal false} if the remaining space of the segment is too small
+     */
+    private boolean write(RootApplicationEvent event, int position) throws IOException {
+        boolean written = false;
+        try {
+            active.position(position + CHECKSUM_START);
+            active.putLong(nextOffset);
+            codec.write(event, active);
+            int length = active.position() - position - RECORD_HEADER;
+            active.putInt(position + 4, checksum(active, position, length));
+            active.putInt(position, length);
+            written = true;
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            // The header does not fit or the event exceeds the remaining space
+        } finally {
+            if (!written) {
+                active.position(position);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Replay all journaled events of type {@code eventType} from {@code fromOffset} on
+     * into the {@code listener}. Events appended concurrently are not replayed.
+     *
+     * @param fromOffset The offset of the first event to replay
+     * @param eventType Only events of this type or of subtypes are replayed
+     * @param listener The listener to replay to
+     * @return The offset to continue a later replay with
+     * @throws IOException In case a segment cannot be read
+     */
+    public long replay(long fromOffset, Class<? extends RootApplicationEvent> eventType, EventListener listener) throws IOException {
+        long next;
+        ByteBuffer activeView;
+        long activeBase;
+        synchronized (appendLock) {
+            next = nextOffset;
+            activeBase = segments.lastKey();
+            activeView = (ByteBuffer) active.duplicate().flip();
+        }
+        compactionLock.readLock().lock();
+        try {
+            Long first = segments.floorKey(fromOffset);
+            for (Map.Entry<Long, Path> segment : segments.subMap(first == null ? 0 : first, true, activeBase, false).entrySet()) {
+                replay(map(segment.getValue()), fromOffset, eventType, listener);
+            }
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        replay(activeView, fromOffset, eventType, listener);
+        return Math.max(fromOffset, next);
+    }
+
+    /**
+     * Remove all events from the segments, except the active one, that are superseded by
+     * a later event of the same type and with an equal source.
+     *
+     * @throws IOException In case a segment cannot be rewritten
+     */
+    public void compact() throws IOException {
+        compactionLock.writeLock().lock();
+        try {
+            NavigableMap<Long, Path> closed = segments.headMap(segments.lastKey(), false);
+            Map<Object, Long> latest = new HashMap<>();
+            Map<Long, List<Object>> keys = new HashMap<>();
+            for (Map.Entry<Long, Path> segment : closed.entrySet()) {
+                List<Object> segmentKeys = new ArrayList<>();
+                ByteBuffer records = map(segment.getValue());
+                while (hasRecord(records)) {
+                    int length = records.getInt();
+                    records.getInt();
+                    long offset = records.getLong();
+                    Object key = keyOf(read(records, length), offset);
+                    latest.put(key, offset);
+                    segmentKeys.add(key);
+                }
+                keys.put(segment.getKey(), segmentKeys);
+            }
+            for (Map.Entry<Long, Path> segment : closed.entrySet()) {
+                rewrite(segment.getKey(), segment.getValue(), keys.get(segment.getKey()), latest);
+            }
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the offset the next appended event gets.
+     *
+     * @return The next offset
+     */
+    public long getNextOffset() {
+        synchronized (appendLock) {
+            return nextOffset;
+        }
+    }
+
+    /**
+     * Force all appended events to the storage device.
+     */
+    public void flush() {
+        synchronized (appendLock) {
+            active.force();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Force the active segment to the storage device and close it.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            closeSegment();
+        }
+    }
+
+    private void recover(Map.Entry<Long, Path> last) throws IOException {
+        channel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+        nextOffset = last.getKey();
+        // Stops at the end or at a partially written record that is overwritten then
+        while (hasRecord(active)) {
+            int length = active.getInt();
+            active.getInt();
+            nextOffset = active.getLong() + 1;
+            active.position(active.position() + length);
+        }
+        LOGGER.debug("Recovered journal [{}] with next offset [{}]", directory, nextOffset);
+    }
+
+    private void openSegment(long baseOffset) throws IOException {
+        Path file = directory.resolve(format("%020d%s", baseOffset, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.put(baseOffset, file);
+        nextOffset = baseOffset;
+    }
+
+    private void closeSegment() throws IOException {
+        active.force();
+        channel.close();
+    }
+
+    private ByteBuffer map(Path segment) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    /**
+     * Check whether a completely written record starts at the current position.
+     */
+    private static boolean hasRecord(ByteBuffer records) {
+        if (records.remaining() < RECORD_HEADER) {
+            return false;
+        }
+        int position = records.position();
+        int length = records.getInt(position);
+        return length > 0 && length <= records.remaining() - RECORD_HEADER
+                && records.getInt(position + 4) == checksum(records, position, length);
+    }
+
+    private static int checksum(ByteBuffer records, int position, int length) {
+        ByteBuffer covered = records.duplicate();
+        covered.limit(position + RECORD_HEADER + length).position(position + CHECKSUM_START);
+        CRC32 crc = new CRC32();
+        crc.update(covered);
+        return (int) crc.getValue();
+    }
+
+    private void replay(ByteBuffer records, long fromOffset, Class<? extends RootApplicationEvent> eventType, EventListener listener) {
+        while (hasRecord(records)) {
+            int length = records.getInt();
+            records.getInt();
+            long offset = records.getLong();
+            if (offset < fromOffset) {
+                records.position(records.position() + length);
+                continue;
+            }
+            RootApplicationEvent event = read(records, length);
+            if (event == null) {
+                LOGGER.warn("Event at offset [{}] cannot be decoded and is not replayed", offset);
+            } else if (eventType.isInstance(event)) {
+                listener.onEvent(event);
+            }
+        }
+    }
+
+    private RootApplicationEvent read(ByteBuffer records, int length) {
+        ByteBuffer payload = records.duplicate();
+        payload.limit(payload.position() + length);
+        records.position(records.position() + length);
+        try {
+            return codec.read(payload);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot decode journaled event: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Events that cannot be decoded get an unique key and are never removed.
+     */
+    private static Object keyOf(RootApplicationEvent event, long offset) {
+        return event == null ? offset : new Key(event.getClass(), event.getSource());
+    }
+
+    private void rewrite(long baseOffset, Path file, List<Object> segmentKeys, Map<Object, Long> latest) throws IOException {
+        ByteBuffer records = map(file);
+        ByteBuffer kept = ByteBuffer.allocate(records.capacity());
+        int removed = 0;
+        for (Object key : segmentKeys) {
+            int start = records.position();
+            int length = records.getInt();
+            records.getInt();
+            long offset = records.getLong();
+            records.position(records.position() + length);
+            if (latest.get(key) == offset) {
+                ByteBuffer record = records.duplicate();
+                record.position(start).limit(start + RECORD_HEADER + length);
+                kept.put(record);
+            } else {
+                removed++;
+            }
+        }
+        if (removed == 0) {
+            return;
+        }
+        if (kept.position() == 0) {
+            segments.remove(baseOffset);
+            Files.delete(file);
+        } else {
+            Path tmp = directory.resolve(file.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                kept.flip();
+                while (kept.hasRemaining()) {
+                    ch.write(kept);
+                }
+                ch.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        LOGGER.debug("Compacted journal segment [{}], removed [{}] events", file, removed);
+    }
+
+    private static final class Key {
+
+        private final Class<?> eventType;
+        private final Object source;
+
+        private Key(Class<?> eventType, Object source) {
+            this.eventType = eventType;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return eventType == key.eventType && Objects.equals(source, key.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * eventType.hashCode() + Objects.hashCode(source);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.journal;
+
+import org.openwms.core.event.EventDispatcher;
+import org.openwms.core.event.EventListener;
+import org.openwms.core.event.RootApplicationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A JournalingEventDispatcher is a decorator of an {@link EventDispatcher} that appends
+ * each dispatched event to an {@link EventJournal} before it is dispatched. Listeners
+ * can be subscribed with a replay of the journaled events, to warm up their state after
+ * a restart instead of reading it from the database.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class JournalingEventDispatcher implements EventDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalingEventDispatcher.class);
+    private final EventDispatcher delegate;
+    private final EventJournal journal;
+
+    /**
+     * Create a JournalingEventDispatcher.
+     *
+     * @param delegate The dispatcher to deliver events to
+     * @param journal The journal to append events to
+     */
+    public JournalingEventDispatcher(EventDispatcher delegate, EventJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName) {
+        delegate.subscribe(event, listenerBeanName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        delegate.subscribe(event, listener);
+    }
+
+    /**
+     * Replay all journaled events of type {@code event} from {@code fromOffset} on into
+     * the {@code listener} and subscribe it afterwards. The listener gets each event at
+     * least once, events dispatched while the listener is being subscribed may be
+     * delivered twice.
+     *
+     * @param event The type of event to subscribe to
+     * @param listener The listener
+     * @param fromOffset The journal offset of the first event to replay
+     * @return The offset of the first event that was not replayed
+     */
+    public long subscribe(Class<? extends RootApplicationEvent> event, EventListener listener, long fromOffset) {
+        try {
+            long next = journal.replay(fromOffset, event, listener);
+            delegate.subscribe(event, listener);
+            // Catch up with events dispatched during the first replay
+            return journal.replay(next, event, listener);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribeWeakly(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        delegate.subscribeWeakly(event, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unsubscribe(Class<? extends RootApplicationEvent> event, String listenerBeanName) {
+        delegate.unsubscribe(event, listenerBeanName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unsubscribe(Class<? extends RootApplicationEvent> event, EventListener listener) {
+        delegate.unsubscribe(event, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Append the event to the journal and dispatch it afterwards.
+     */
+    @Override
+    public <T extends RootApplicationEvent> void dispatch(T event) {
+        if (event != null) {
+            try {
+                journal.append(event);
+            } catch (IOException e) {
+                LOGGER.error("Event [{}] cannot be journaled: {}", event, e.getMessage(), e);
+            }
+        }
+        delegate.dispatch(event);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.outbox;
+
+import org.openwms.core.event.RootApplicationEvent;
+
+import java.util.List;
+
+/**
+ * An EventOutbox stores events durably within the current transaction, to be relayed
+ * after the transaction has been committed.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @see OutboxRelay
+ */
+public interface EventOutbox {
+
+    /**
+     * Store the {@code event} within the current transaction.
+     *
+     * @param event The event to store
+     */
+    void append(RootApplicationEvent event);
+
+    /**
+     * Claim the oldest pending entries that are due and not claimed by anyone else. The
+     * claim expires after {@code leaseMillis}, afterwards the entries may be claimed again,
+     * e.g. by the relay of another node.
+     *
+     * @param maxEntries The maximum number of entries to claim
+     * @param leaseMillis How long the entries are reserved for the caller
+     * @return The claimed entries in the order they were stored
+     */
+    List<Entry> claimPending(int maxEntries, long leaseMillis);
+
+    /**
+     * Mark the entries with the given IDs as delivered.
+     *
+     * @param ids The IDs of the delivered entries
+     */
+    void markDelivered(List<Long> ids);
+
+    /**
+     * Release the claim of an entry that could not be delivered and schedule the next
+     * attempt.
+     *
+     * @param id The ID of the entry
+     * @param nextAttemptAt The earliest time in milliseconds since the epoch the entry is
+     * due again
+     */
+    void markFailed(long id, long nextAttemptAt);
+
+    /**
+     * Move an entry that cannot be delivered at all to the dead-letter state, it is not
+     * claimed again.
+     *
+     * @param id The ID of the entry
+     */
+    void markDead(long id);
+
+    /**
+     * Delete the entries that have been delivered before the given time.
+     *
+     * @param deliveredBefore Time in milliseconds since the epoch
+     * @return The number of deleted entries
+     */
+    int purgeDelivered(long deliveredBefore);
+
+    /**
+     * Register a callback that is called after a transaction that stored events has been
+     * committed.
+     *
+     * @param callback The callback
+     */
+    void onCommit(Runnable callback);
+
+    /**
+     * An Entry is a stored event.
+     */
+    final class Entry {
+
+        private final long id;
+        private final byte[] payload;
+        private final int attempts;
+
+        /**
+         * Create an Entry.
+         *
+         * @param id The unique ID
+         * @param payload The encoded event
+         * @param attempts The number of failed delivery attempts
+         */
+        public Entry(long id, byte[] payload, int attempts) {
+            this.id = id;
+            this.payload = payload;
+            this.attempts = attempts;
+        }
+
+        /**
+         * Get the unique ID of the entry.
+         *
+         * @return The ID
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Get the encoded event.
+         *
+         * @return The payload
+         */
+        public byte[] getPayload() {
+            return payload;
+        }
+
+        /**
+         * Get the number of failed delivery attempts.
+         *
+         * @return The number of attempts
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.outbox;
+
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.codec.EventCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.String.format;
+
+/**
+ * A JdbcEventOutbox stores events in the table {@value #TABLE} with a {@link
+ * JdbcTemplate}, hence the events are written within the current Spring managed
+ * transaction of the same {@code DataSource}. The DDL for supported databases is
+ * provided in this package as {@code outbox-<database>.sql}.
+ * <p>
+ * Events are encoded with the {@link EventCodec} bean, that has to know the types of
+ * all event sources, see {@link org.openwms.core.event.codec.CodecRegistry}. An event that
+ * cannot be encoded fails the transaction it is appended in.
+ * </p>
+ * <p>
+ * Entries are claimed by a relay for a limited time, so that the relays of several nodes
+ * sharing the table do not dispatch the same entries. An entry is either pending,
+ * delivered or dead, if it could not be delivered at all. Pending entries that failed are
+ * not due before their next attempt.
+ * </p>
+ * <p>
+ * The outbox is enabled with {@code owms.core.events.outbox.enabled=true}.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@ConditionalOnProperty(name = "owms.core.events.outbox.enabled", havingValue = "true")
+@Component(JdbcEventOutbox.COMPONENT_NAME)
+public class JdbcEventOutbox implements EventOutbox {
+
+    /** Springs component name. */
+    public static final String COMPONENT_NAME = "jdbcEventOutbox";
+    /** Name of the outbox table: {@value} */
+    public static final String TABLE = "COR_EVENT_OUTBOX";
+    private static final int PENDING = 0;
+    private static final int DELIVERED = 1;
+    private static final int DEAD = 2;
+    private static final String INSERT = "INSERT INTO " + TABLE + " (C_PAYLOAD, C_CREATED_DT, C_STATE, C_ATTEMPTS, C_NEXT_ATTEMPT_DT) VALUES (?, ?, " + PENDING + ", 0, ?)";
+    private static final String CLAIMABLE = "C_STATE = " + PENDING + " AND C_NEXT_ATTEMPT_DT <= ? AND (C_CLAIMED_UNTIL IS NULL OR C_CLAIMED_UNTIL < ?)";
+    /** The conditions are checked again on the updated row, so concurrent relays never claim the same entry. */
+    private static final String CLAIM = "UPDATE " + TABLE + " SET C_CLAIMED_BY = ?, C_CLAIMED_UNTIL = ? WHERE C_PK IN (SELECT C_PK FROM " + TABLE
+            + " WHERE " + CLAIMABLE + " ORDER BY C_PK LIMIT ?) AND " + CLAIMABLE;
+    private static final String SELECT_CLAIMED = "SELECT C_PK, C_PAYLOAD, C_ATTEMPTS FROM " + TABLE + " WHERE C_CLAIMED_BY = ? AND C_STATE = " + PENDING + " ORDER BY C_PK";
+    private static final String MARK_DELIVERED = "UPDATE " + TABLE + " SET C_STATE = " + DELIVERED + ", C_DELIVERED_DT = ?, C_CLAIMED_BY = NULL, C_CLAIMED_UNTIL = NULL WHERE C_PK = ?";
+    private static final String MARK_FAILED = "UPDATE " + TABLE + " SET C_ATTEMPTS = C_ATTEMPTS + 1, C_NEXT_ATTEMPT_DT = ?, C_CLAIMED_BY = NULL, C_CLAIMED_UNTIL = NULL WHERE C_PK = ?";
+    private static final String MARK_DEAD = "UPDATE " + TABLE + " SET C_STATE = " + DEAD + ", C_ATTEMPTS = C_ATTEMPTS + 1, C_CLAIMED_BY = NULL, C_CLAIMED_UNTIL = NULL WHERE C_PK = ?";
+    private static final String PURGE = "DELETE FROM " + TABLE + " WHERE C_STATE = " + DELIVERED + " AND C_DELIVERED_DT < ?";
+    private final JdbcTemplate jdbcTemplate;
+    private final EventCodec codec;
+    private final List<Runnable> commitCallbacks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Autowiring constructor.
+     *
+     * @param jdbcTemplate To access the outbox table
+     * @param codec The EventCodec bean shared with the {@link OutboxRelay}, an EventCodec
+     * with the built-in codecs only if none is defined
+     */
+    @Autowired
+    public JdbcEventOutbox(JdbcTemplate jdbcTemplate, ObjectProvider<EventCodec> codec) {
+        this(jdbcTemplate, codec.getIfAvailable(EventCodec::new));
+    }
+
+    /**
+     * Create a JdbcEventOutbox.
+     *
+     * @param jdbcTemplate To access the outbox table
+     * @param codec Encodes the events, must be configured equally to the codec of the
+     * {@link OutboxRelay}
+     */
+    public JdbcEventOutbox(JdbcTemplate jdbcTemplate, EventCodec codec) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = codec;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(RootApplicationEvent event) {
+        byte[] payload;
+        try {
+            payload = codec.encode(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Event [%s] cannot be stored in the outbox", event), e);
+        }
+        Timestamp created = new Timestamp(event.getTimestamp());
+        jdbcTemplate.update(INSERT, payload, created, created);
+        if (!commitCallbacks.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            // Notify only once per transaction
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    commitCallbacks.forEach(Runnable::run);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(JdbcEventOutbox.this);
+                }
+            });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entries are claimed with a conditional update that stores a new claim ID, and
+     * are read by that ID afterwards.
+     */
+    @Override
+    public List<Entry> claimPending(int maxEntries, long leaseMillis) {
+        String claimId = UUID.randomUUID().toString();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int claimed = jdbcTemplate.update(CLAIM, claimId, new Timestamp(now.getTime() + leaseMillis), now, now, maxEntries, now, now);
+        if (claimed == 0) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(SELECT_CLAIMED, (rs, rowNum) -> new Entry(rs.getLong(1), rs.getBytes(2), rs.getInt(3)), claimId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All entries are updated in one JDBC batch.
+     */
+    @Override
+    public void markDelivered(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(MARK_DELIVERED, ids, ids.size(), (ps, id) -> {
+            ps.setTimestamp(1, now);
+            ps.setLong(2, id);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void markFailed(long id, long nextAttemptAt) {
+        jdbcTemplate.update(MARK_FAILED, new Timestamp(nextAttemptAt), id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void markDead(long id) {
+        jdbcTemplate.update(MARK_DEAD, id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int purgeDelivered(long deliveredBefore) {
+        return jdbcTemplate.update(PURGE, new Timestamp(deliveredBefore));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onCommit(Runnable callback) {
+        commitCallbacks.add(callback);
+    }
+}
\ No newline at end of file
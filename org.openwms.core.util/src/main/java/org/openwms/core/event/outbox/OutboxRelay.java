@@ -0,0 +1,252 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.outbox;
+
+import org.openwms.core.event.EventDispatcher;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An OutboxRelay claims pending events from the {@link EventOutbox} in batches,
+ * dispatches them with the {@link EventDispatcher} and marks each batch as delivered.
+ * Events are delivered at least once, a crash after dispatching and before marking a
+ * batch causes the batch to be dispatched again once the claim has expired. Because
+ * entries are claimed, the relays of several nodes may share one outbox.
+ * <p>
+ * An event that fails to be dispatched stays pending and is retried with an exponential
+ * backoff starting at {@code owms.core.events.outbox.retry-delay} milliseconds. After
+ * {@code owms.core.events.outbox.max-attempts} attempts, or if it cannot be decoded at
+ * all, the entry is moved to the dead-letter state. Hence a failing event may be
+ * overtaken by later events. Delivered entries are purged once they are older than {@code
+ * owms.core.events.outbox.retention} milliseconds.
+ * </p>
+ * <p>
+ * The batch size ({@code owms.core.events.outbox.batch-size}), the poll interval in
+ * milliseconds ({@code owms.core.events.outbox.poll-interval}), the time a batch is
+ * claimed in milliseconds ({@code owms.core.events.outbox.lease}) and the {@link
+ * RelayStrategy} ({@code owms.core.events.outbox.strategy}) are configurable.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@ConditionalOnProperty(name = "owms.core.events.outbox.enabled", havingValue = "true")
+@Component(OutboxRelay.COMPONENT_NAME)
+public class OutboxRelay {
+
+    /** Springs component name. */
+    public static final String COMPONENT_NAME = "outboxRelay";
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final long MAX_RETRY_DELAY = TimeUnit.HOURS.toMillis(1);
+    private static final long PURGE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private final EventOutbox outbox;
+    private final EventDispatcher dispatcher;
+    private final EventCodec codec;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final RelayStrategy strategy;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final long retentionMillis;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private Thread worker;
+    private long nextPurge;
+
+    /**
+     * Autowiring constructor.
+     *
+     * @param outbox The outbox to read from
+     * @param dispatcher Dispatches the stored events
+     * @param codec The EventCodec bean shared with the outbox, an EventCodec with the
+     * built-in codecs only if none is defined
+     * @param batchSize The maximum number of events read and marked at once
+     * @param pollIntervalMillis The time between two reads
+     * @param strategy When to read the outbox
+     * @param leaseMillis How long a batch is claimed, must exceed the time to dispatch it
+     * @param maxAttempts The number of attempts to dispatch an event before it is dead
+     * @param retryDelayMillis The delay before the first retry, doubled with each attempt
+     * @param retentionMillis How long delivered entries are kept
+     */
+    @Autowired
+    public OutboxRelay(EventOutbox outbox, EventDispatcher dispatcher, ObjectProvider<EventCodec> codec,
+            @Value("${owms.core.events.outbox.batch-size:500}") int batchSize,
+            @Value("${owms.core.events.outbox.poll-interval:1000}") long pollIntervalMillis,
+            @Value("${owms.core.events.outbox.strategy:POLLING}") RelayStrategy strategy,
+            @Value("${owms.core.events.outbox.lease:60000}") long leaseMillis,
+            @Value("${owms.core.events.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${owms.core.events.outbox.retry-delay:1000}") long retryDelayMillis,
+            @Value("${owms.core.events.outbox.retention:86400000}") long retentionMillis) {
+        this(outbox, dispatcher, codec.getIfAvailable(EventCodec::new), batchSize, pollIntervalMillis, strategy, leaseMillis, maxAttempts,
+                retryDelayMillis, retentionMillis);
+    }
+
+    /**
+     * Create an OutboxRelay.
+     *
+     * @param outbox The outbox to read from
+     * @param dispatcher Dispatches the stored events
+     * @param codec Decodes the events, must be configured equally to the codec of the outbox
+     * @param batchSize The maximum number of events read and marked at once
+     * @param pollIntervalMillis The time between two reads
+     * @param strategy When to read the outbox
+     * @param leaseMillis How long a batch is claimed, must exceed the time to dispatch it
+     * @param maxAttempts The number of attempts to dispatch an event before it is dead
+     * @param retryDelayMillis The delay before the first retry, doubled with each attempt
+     * @param retentionMillis How long delivered entries are kept
+     */
+    public OutboxRelay(EventOutbox outbox, EventDispatcher dispatcher, EventCodec codec, int batchSize, long pollIntervalMillis,
+            RelayStrategy strategy, long leaseMillis, int maxAttempts, long retryDelayMillis, long retentionMillis) {
+        this.outbox = outbox;
+        this.dispatcher = dispatcher;
+        this.codec = codec;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.strategy = strategy;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Start relaying in a background thread.
+     */
+    @PostConstruct
+    public void start() {
+        if (strategy == RelayStrategy.NOTIFICATION) {
+            outbox.onCommit(this::wakeUp);
+        }
+        worker = new Thread(this::work, COMPONENT_NAME);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stop relaying.
+     */
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Trigger reading the outbox immediately.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    /**
+     * Relay all pending events that are due.
+     *
+     * @return The number of relayed events
+     */
+    public int relay() {
+        int relayed = 0;
+        List<EventOutbox.Entry> entries;
+        do {
+            entries = outbox.claimPending(batchSize, leaseMillis);
+            List<Long> ids = new ArrayList<>(entries.size());
+            for (EventOutbox.Entry entry : entries) {
+                if (dispatch(entry)) {
+                    ids.add(entry.getId());
+                }
+            }
+            outbox.markDelivered(ids);
+            relayed += ids.size();
+        } while (entries.size() == batchSize && !Thread.currentThread().isInterrupted());
+        return relayed;
+    }
+
+    /**
+     * Delete all delivered entries that are older than the retention time.
+     *
+     * @return The number of deleted entries
+     */
+    public int purge() {
+        return outbox.purgeDelivered(System.currentTimeMillis() - retentionMillis);
+    }
+
+    private boolean dispatch(EventOutbox.Entry entry) {
+        RootApplicationEvent event;
+        try {
+            event = codec.decode(entry.getPayload());
+        } catch (IOException e) {
+            LOGGER.error("Outbox entry [{}] cannot be decoded and is moved to the dead-letter state: {}", entry.getId(), e.getMessage(), e);
+            outbox.markDead(entry.getId());
+            return false;
+        }
+        try {
+            dispatcher.dispatch(event);
+            return true;
+        } catch (RuntimeException re) {
+            int attempts = entry.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                LOGGER.error("Event [{}] of outbox entry [{}] failed [{}] times and is moved to the dead-letter state: {}", event, entry.getId(), attempts, re.getMessage(), re);
+                outbox.markDead(entry.getId());
+            } else {
+                long delay = Math.min(retryDelayMillis << Math.min(entry.getAttempts(), 20), MAX_RETRY_DELAY);
+                LOGGER.warn("Exception while dispatching event [{}] of outbox entry [{}], retrying in [{}]ms: {}", event, entry.getId(), delay, re.getMessage(), re);
+                outbox.markFailed(entry.getId(), System.currentTimeMillis() + delay);
+            }
+            return false;
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                int relayed = relay();
+                if (relayed > 0) {
+                    LOGGER.debug("Relayed [{}] events from the outbox", relayed);
+                }
+                if (System.currentTimeMillis() >= nextPurge) {
+                    nextPurge = System.currentTimeMillis() + PURGE_INTERVAL;
+                    int purged = purge();
+                    if (purged > 0) {
+                        LOGGER.debug("Purged [{}] delivered events from the outbox", purged);
+                    }
+                }
+            } catch (RuntimeException re) {
+                LOGGER.error("Failed to relay events from the outbox: {}", re.getMessage(), re);
+            }
+            try {
+                wakeUps.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.outbox;
+
+/**
+ * A RelayStrategy defines when the {@link OutboxRelay} looks for pending events.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public enum RelayStrategy {
+
+    /** The outbox is read periodically. */
+    POLLING,
+
+    /**
+     * The outbox is read immediately after a transaction that stored events has been
+     * committed on this node and periodically to catch up events of other nodes.
+     */
+    NOTIFICATION
+}
\ No newline at end of file
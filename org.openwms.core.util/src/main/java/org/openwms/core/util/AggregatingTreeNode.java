@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An AggregatingTreeNode is a {@link TreeNodeImpl} that caches the values of {@link
+ * TreeAggregate}s for its subtree, so that they are read in constant time.
+ * <p>
+ * Aggregates are registered on the root node and apply to the whole tree. Changing the
+ * data of a node, adding or removing a child updates the cached values of the node and
+ * its ancestors only, and stops as soon as a value does not change anymore. For a {@link
+ * TreeAggregate.Group} each ancestor applies the difference, otherwise it combines the
+ * values of its children again. Data that is changed in place must be set again with
+ * {@link #setData(Object)}, and a child must be removed from its former parent before it
+ * is added to another one.
+ * </p>
+ * <p>
+ * A subtree that is removed keeps the aggregates of the tree and can be added again
+ * without recalculation. Cached values are not serialized, aggregates must be registered
+ * again on a deserialized tree.
+ * </p>
+ *
+ * @param <T> The type of the node
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class AggregatingTreeNode<T> extends TreeNodeImpl<T> {
+
+    private static final TreeAggregate<?, ?>[] NO_AGGREGATES = new TreeAggregate<?, ?>[0];
+    private static final Object[] NO_VALUES = new Object[0];
+    /** The aggregates of the tree, never modified but replaced and shared by all nodes. */
+    private transient TreeAggregate<?, ?>[] aggregates = NO_AGGREGATES;
+    /** The cached values of the subtree, in the order of {@link #aggregates}. */
+    private transient Object[] values = NO_VALUES;
+
+    /**
+     * Register an aggregate on the tree and calculate its values.
+     *
+     * @param aggregate The aggregate to register
+     * @throws IllegalStateException If this node is not the root node or the tree
+     * contains other nodes than AggregatingTreeNodes
+     */
+    public void register(TreeAggregate<? super T, ?> aggregate) {
+        if (getParent() != null) {
+            throw new IllegalStateException("Aggregates can only be registered on the root node");
+        }
+        if (indexOf(aggregate) < 0) {
+            TreeAggregate<?, ?>[] registered = Arrays.copyOf(aggregates, aggregates.length + 1);
+            registered[aggregates.length] = aggregate;
+            adopt(this, registered);
+        }
+    }
+
+    /**
+     * Get the cached value of an aggregate for the subtree of this node.
+     *
+     * @param aggregate The registered aggregate
+     * @param <A> The type of the aggregated value
+     * @return The value
+     * @throws IllegalArgumentException If the aggregate is not registered on the tree
+     */
+    @SuppressWarnings("unchecked")
+    public <A> A getAggregate(TreeAggregate<? super T, A> aggregate) {
+        int index = indexOf(aggregate);
+        if (index < 0) {
+            throw new IllegalArgumentException("The aggregate is not registered on the tree");
+        }
+        return (A) values[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Updates the aggregates of this node and its ancestors.
+     * </p>
+     */
+    @Override
+    public void setData(T data) {
+        T previous = getData();
+        super.setData(data);
+        if (aggregates.length > 0) {
+            Object[] removed = new Object[aggregates.length];
+            Object[] added = new Object[aggregates.length];
+            for (int i = 0; i < aggregates.length; i++) {
+                removed[i] = lift(aggregates[i], previous);
+                added[i] = lift(aggregates[i], data);
+            }
+            update(this, removed, added);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Updates the aggregates of this node and its ancestors, the subtree of {@code child}
+     * is calculated unless it belongs to this tree before.
+     * </p>
+     *
+     * @throws IllegalStateException If the child is not an AggregatingTreeNode
+     */
+    @Override
+    public void addChild(Object identifier, TreeNode<T> child) {
+        if (!(child instanceof AggregatingTreeNode)) {
+            throw new IllegalStateException("A tree with aggregates must consist of AggregatingTreeNodes only");
+        }
+        AggregatingTreeNode<T> node = (AggregatingTreeNode<T>) child;
+        TreeNode<T> replaced = getChild(identifier);
+        if (node.aggregates != aggregates) {
+            adopt(node, aggregates);
+        }
+        super.addChild(identifier, child);
+        if (aggregates.length > 0 && replaced != child) {
+            update(this, replaced == null ? null : ((AggregatingTreeNode<T>) replaced).values, node.values);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Updates the aggregates of this node and its ancestors.
+     * </p>
+     */
+    @Override
+    public void removeChild(Object identifier) {
+        TreeNode<T> removed = getChild(identifier);
+        super.removeChild(identifier);
+        if (removed != null && aggregates.length > 0) {
+            update(this, ((AggregatingTreeNode<T>) removed).values, null);
+        }
+    }
+
+    private int indexOf(TreeAggregate<?, ?> aggregate) {
+        for (int i = 0; i < aggregates.length; i++) {
+            if (aggregates[i] == aggregate) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Assign the aggregates to all nodes of the subtree of {@code root} and calculate
+     * their values bottom-up.
+     */
+    private static void adopt(AggregatingTreeNode<?> root, TreeAggregate<?, ?>[] aggregates) {
+        List<AggregatingTreeNode<?>> preorder = new ArrayList<>();
+        Deque<TreeNode<?>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            TreeNode<?> node = pending.pop();
+            if (!(node instanceof AggregatingTreeNode)) {
+                throw new IllegalStateException("A tree with aggregates must consist of AggregatingTreeNodes only");
+            }
+            preorder.add((AggregatingTreeNode<?>) node);
+            for (Iterator<? extends Map.Entry<Object, ? extends TreeNode<?>>> it = node.getChildren(); it.hasNext(); ) {
+                pending.push(it.next().getValue());
+            }
+        }
+        for (int n = preorder.size() - 1; n >= 0; n--) {
+            AggregatingTreeNode<?> node = preorder.get(n);
+            Object[] values = new Object[aggregates.length];
+            node.aggregates = aggregates;
+            node.values = values;
+            for (int i = 0; i < aggregates.length; i++) {
+                values[i] = calculate(node, i);
+            }
+        }
+    }
+
+    /**
+     * Replace the contribution of a child or the own data to the values of {@code node}
+     * and propagate the change to the ancestors.
+     *
+     * @param removed The values that are no longer part of the subtree or {@literal null}
+     * @param added The values that are new in the subtree or {@literal null}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void update(AggregatingTreeNode<?> node, Object[] removed, Object[] added) {
+        TreeAggregate[] aggregates = node.aggregates;
+        while (true) {
+            Object[] before = node.values;
+            Object[] after = new Object[aggregates.length];
+            boolean changed = false;
+            for (int i = 0; i < aggregates.length; i++) {
+                if (aggregates[i] instanceof TreeAggregate.Group) {
+                    TreeAggregate.Group group = (TreeAggregate.Group) aggregates[i];
+                    Object value = before[i];
+                    if (removed != null) {
+                        value = group.subtract(value, removed[i]);
+                    }
+                    if (added != null) {
+                        value = group.combine(value, added[i]);
+                    }
+                    after[i] = value;
+                } else {
+                    after[i] = calculate(node, i);
+                }
+                changed |= !Objects.equals(before[i], after[i]);
+            }
+            node.values = after;
+            if (!changed || !(node.getParent() instanceof AggregatingTreeNode)) {
+                return;
+            }
+            removed = before;
+            added = after;
+            node = (AggregatingTreeNode<?>) node.getParent();
+        }
+    }
+
+    /**
+     * Calculate the value of the aggregate at {@code index} from the data of the node and
+     * the cached values of its children.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object calculate(AggregatingTreeNode<?> node, int index) {
+        TreeAggregate aggregate = node.aggregates[index];
+        Object value = lift(aggregate, node.getData());
+        for (Iterator<? extends Map.Entry<Object, ? extends TreeNode<?>>> it = node.getChildren(); it.hasNext(); ) {
+            value = aggregate.combine(value, ((AggregatingTreeNode<?>) it.next().getValue()).values[index]);
+        }
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object lift(TreeAggregate aggregate, Object data) {
+        return data == null ? aggregate.identity() : aggregate.lift(data);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        aggregates = NO_AGGREGATES;
+        values = NO_VALUES;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import org.openwms.core.event.codec.CodecRegistry;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+/**
+ * A BinaryTreeCodec is a {@link TreeCodec} with a compact binary format. Identifiers and
+ * data are encoded with the {@link org.openwms.core.event.codec.ValueCodec}s of a {@link
+ * CodecRegistry}.
+ * <p>
+ * The format starts with a magic number, followed by one record per node: the distance
+ * to the parent record and the length of the encoded identifier and data, both as
+ * variable length integers, followed by the identifier and the data. The end is marked
+ * by a distance of 0, that only the root has otherwise.
+ * </p>
+ *
+ * @param <T> The type of the nodes
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class BinaryTreeCodec<T> extends TreeCodec<T> {
+
+    private static final int MAGIC = 0x4F575431;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private final CodecRegistry registry;
+    private final Class<T> dataType;
+
+    /**
+     * Create a BinaryTreeCodec with the built-in codecs.
+     *
+     * @param nodeFactory Creates the nodes of read trees
+     * @param dataType The type of the data of the nodes
+     */
+    public BinaryTreeCodec(Supplier<? extends TreeNode<T>> nodeFactory, Class<T> dataType) {
+        this(nodeFactory, dataType, new CodecRegistry());
+    }
+
+    /**
+     * Create a BinaryTreeCodec.
+     *
+     * @param nodeFactory Creates the nodes of read trees
+     * @param dataType The type of the data of the nodes
+     * @param registry Encodes identifiers and data
+     */
+    public BinaryTreeCodec(Supplier<? extends TreeNode<T>> nodeFactory, Class<T> dataType, CodecRegistry registry) {
+        super(nodeFactory);
+        this.dataType = dataType;
+        this.registry = registry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(TreeNode<T> root, OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+        dos.writeInt(MAGIC);
+        ByteBuffer[] payload = {ByteBuffer.allocate(INITIAL_BUFFER_SIZE)};
+        walk(root, (parentDistance, identifier, data) -> {
+            ByteBuffer buffer = payload[0];
+            while (true) {
+                try {
+                    buffer.clear();
+                    registry.writeValue(identifier, buffer);
+                    registry.writeValue(data, buffer);
+                    break;
+                } catch (BufferOverflowException boe) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    payload[0] = buffer;
+                }
+            }
+            writeVarint(parentDistance, dos);
+            writeVarint(buffer.position(), dos);
+            dos.write(buffer.array(), 0, buffer.position());
+        });
+        writeVarint(0, dos);
+        dos.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected RecordReader<T> createReader(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(in);
+        if (dis.readInt() != MAGIC) {
+            throw new IOException("Unknown format of encoded tree");
+        }
+        return new BinaryRecordReader(dis);
+    }
+
+    private static void writeVarint(int value, DataOutputStream out) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    private class BinaryRecordReader implements RecordReader<T> {
+
+        private final DataInputStream in;
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private ByteBuffer payload;
+        private int parentDistance;
+        private int length;
+        private boolean first = true;
+
+        BinaryRecordReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            try {
+                parentDistance = readVarint(in);
+            } catch (EOFException eofe) {
+                throw new IOException("Encoded tree is truncated", eofe);
+            }
+            if (parentDistance == 0 && !first) {
+                return false;
+            }
+            first = false;
+            length = readVarint(in);
+            payload = null;
+            return true;
+        }
+
+        @Override
+        public int parentDistance() {
+            return parentDistance;
+        }
+
+        @Override
+        public Object readIdentifier() throws IOException {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, length);
+            payload = ByteBuffer.wrap(bytes, 0, length);
+            return readValue();
+        }
+
+        @Override
+        public T readData() throws IOException {
+            Object data = readValue();
+            if (data != null && !dataType.isInstance(data)) {
+                throw new IOException("Data of type [" + data.getClass().getName() + "] is not a " + dataType.getName());
+            }
+            return dataType.cast(data);
+        }
+
+        private Object readValue() throws IOException {
+            try {
+                return registry.readValue(payload);
+            } catch (BufferUnderflowException bue) {
+                throw new IOException("Encoded node is truncated", bue);
+            }
+        }
+
+        @Override
+        public void skip() throws IOException {
+            if (payload == null) {
+                int remaining = length;
+                while (remaining > 0) {
+                    int skipped = in.skipBytes(remaining);
+                    if (skipped == 0) {
+                        // The stream does not skip, read into the buffer instead
+                        skipped = Math.min(remaining, bytes.length);
+                        in.readFully(bytes, 0, skipped);
+                    }
+                    remaining -= skipped;
+                }
+                payload = ByteBuffer.wrap(bytes, 0, 0);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.util.Objects;
+
+/**
+ * A ChildTables offers the open addressing hash tables used by {@link TreeNode}
+ * implementations that store identifiers and children alternately in one array. A table
+ * holds the position of a child + 1 at the hash of its identifier, 0 marks a free entry.
+ * A removed child may be marked with {@link #REMOVED} as identifier, its position remains
+ * in the table until the table is built again.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+final class ChildTables {
+
+    /** Identifier of a removed child, never equal to any identifier. */
+    static final Object REMOVED = new Object();
+
+    private ChildTables() {
+    }
+
+    /**
+     * Create a table for the first {@code size} children of {@code slots}, with a load
+     * factor of at most 0.5. Removed children are not inserted.
+     */
+    static int[] build(Object[] slots, int size) {
+        int[] table = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+        for (int i = 0; i < size; i++) {
+            if (slots[2 * i] != REMOVED) {
+                insert(table, slots[2 * i], i);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Check whether one more child fits into the {@code table} keeping the load factor.
+     */
+    static boolean fits(int[] table, int size) {
+        return 2 * (size + 1) <= table.length;
+    }
+
+    static void insert(int[] table, Object id, int position) {
+        int mask = table.length - 1;
+        int h = spread(id) & mask;
+        while (table[h] != 0) {
+            h = (h + 1) & mask;
+        }
+        table[h] = position + 1;
+    }
+
+    /**
+     * Find the position of the child with identifier {@code id}.
+     *
+     * @return The position or -1
+     */
+    static int indexOf(int[] table, Object[] slots, Object id) {
+        int mask = table.length - 1;
+        for (int h = spread(id) & mask; table[h] != 0; h = (h + 1) & mask) {
+            if (Objects.equals(id, slots[2 * (table[h] - 1)])) {
+                return table[h] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the position of the child with identifier {@code id} by a linear search.
+     *
+     * @return The position or -1
+     */
+    static int indexOf(Object[] slots, int size, Object id) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(id, slots[2 * i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int spread(Object id) {
+        int h = Objects.hashCode(id);
+        return h ^ (h >>> 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A CompactTreeNode is a memory saving implementation of a {@link TreeNode}, intended
+ * for large hierarchies like warehouse locations.
+ * <p>
+ * Identifiers and children are stored alternately in one array that is allocated with
+ * the first child, so a leaf does not hold any collection. Children are found by a
+ * linear search, an open addressing hash table of the array positions is allocated
+ * lazily as soon as a node has more than {@value #CHILD_INDEX_THRESHOLD} children. The
+ * order of children is the order they were added. Removed children leave a tombstone in
+ * the array and the table, both are compacted once the tombstones outnumber the children,
+ * so removing all children of a node takes linear time.
+ * </p>
+ * <p>
+ * Optionally the root node maintains an index of all nodes of the tree by their path,
+ * the sequence of identifiers from the root to the node, see {@link #enablePathIndex()}.
+ * The index is kept up to date when children are added or removed anywhere in the tree,
+ * as long as the tree consists of CompactTreeNodes only. The index allocates a path key
+ * and a map entry per node, roughly doubling the heap used by the tree, hence it is
+ * disabled by default.
+ * </p>
+ *
+ * @param <T> The type of the node
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class CompactTreeNode<T> implements TreeNode<T>, Serializable {
+
+    /** Number of children above which a hash index of the children is maintained: {@value} */
+    public static final int CHILD_INDEX_THRESHOLD = 8;
+    private static final Object[] NO_CHILDREN = {};
+    private T data;
+    private TreeNode<T> parent;
+    /** The identifier of this node within its parent. */
+    private Object identifier;
+    /** Identifier of child i at 2i, child i at 2i+1. */
+    private Object[] slots = NO_CHILDREN;
+    /** Number of children. */
+    private int size;
+    /** Number of used positions in {@link #slots}, including removed children. */
+    private int used;
+    /** Incremented whenever positions of children move. */
+    private transient int compactions;
+    /** Array positions of the children + 1 by hash of their identifiers, 0 is empty. */
+    private int[] childTable;
+    private boolean pathIndexed;
+    private transient Map<PathKey, TreeNode<T>> pathIndex;
+
+    /**
+     * Create a CompactTreeNode without data.
+     */
+    public CompactTreeNode() {
+    }
+
+    /**
+     * Create a CompactTreeNode.
+     *
+     * @param data The data of the node
+     */
+    public CompactTreeNode(T data) {
+        this.data = data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T getData() {
+        return data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLeaf() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The iterator supports the removal of children.
+     */
+    @Override
+    public Iterator<Map.Entry<Object, TreeNode<T>>> getChildren() {
+        return new ChildIterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public TreeNode<T> getChild(Object id) {
+        int i = indexOf(id);
+        return i < 0 ? null : (TreeNode<T>) slots[2 * i + 1];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * An existing child with the same identifier is replaced.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addChild(Object identifier, TreeNode<T> child) {
+        child.setParent(this);
+        if (child instanceof CompactTreeNode) {
+            ((CompactTreeNode<T>) child).identifier = identifier;
+        }
+        int i = indexOf(identifier);
+        if (i >= 0) {
+            TreeNode<T> replaced = (TreeNode<T>) slots[2 * i + 1];
+            unindexPaths(identifier, replaced);
+            slots[2 * i + 1] = child;
+            if (replaced != child && replaced.getParent() == this) {
+                // Detach the replaced subtree from the tree and its index
+                replaced.setParent(null);
+            }
+        } else {
+            if (2 * used == slots.length) {
+                if (used - size > size) {
+                    compact();
+                } else {
+                    slots = Arrays.copyOf(slots, Math.max(4, slots.length * 2));
+                }
+            }
+            slots[2 * used] = identifier;
+            slots[2 * used + 1] = child;
+            size++;
+            if (childTable != null && ChildTables.fits(childTable, used)) {
+                ChildTables.insert(childTable, identifier, used);
+                used++;
+            } else {
+                used++;
+                rebuildChildTable();
+            }
+        }
+        indexPaths(identifier, child);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void removeChild(Object id) {
+        int i = indexOf(id);
+        if (i < 0) {
+            return;
+        }
+        TreeNode<T> child = (TreeNode<T>) slots[2 * i + 1];
+        unindexPaths(id, child);
+        slots[2 * i] = ChildTables.REMOVED;
+        slots[2 * i + 1] = null;
+        size--;
+        if (used - size > size) {
+            compact();
+        }
+        child.setParent(null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TreeNode<T> getParent() {
+        return parent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setParent(TreeNode<T> parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Get the identifier of this node within its parent.
+     *
+     * @return The identifier or {@literal null} if this is a root node
+     */
+    public Object getIdentifier() {
+        return parent == null ? null : identifier;
+    }
+
+    /**
+     * Get the number of direct children.
+     *
+     * @return The number of children
+     */
+    public int getChildCount() {
+        return size;
+    }
+
+    /**
+     * Let this root node maintain an index of all nodes of the tree by their path.
+     *
+     * @throws IllegalStateException If this node is not the root node
+     */
+    public void enablePathIndex() {
+        if (parent != null) {
+            throw new IllegalStateException("The path index can only be enabled on the root node");
+        }
+        pathIndexed = true;
+        buildPathIndex();
+    }
+
+    /**
+     * Find a descendant by its path relative to this node. When this node is a root with
+     * an enabled path index the lookup takes constant time, otherwise the tree is walked
+     * down level by level.
+     *
+     * @param path The identifiers of the nodes on the path, starting with a child of
+     * this node
+     * @return The node or {@literal null} if not found
+     */
+    public TreeNode<T> findByPath(Object... path) {
+        if (pathIndex != null) {
+            return path.length == 0 ? this : pathIndex.get(PathKey.of(path));
+        }
+        TreeNode<T> node = this;
+        for (int i = 0; i < path.length && node != null; i++) {
+            node = node.getChild(path[i]);
+        }
+        return node;
+    }
+
+    private int indexOf(Object id) {
+        return childTable == null ? ChildTables.indexOf(slots, used, id) : ChildTables.indexOf(childTable, slots, id);
+    }
+
+    /**
+     * Allocate a table for many children or drop it for few children.
+     */
+    private void rebuildChildTable() {
+        childTable = size > CHILD_INDEX_THRESHOLD ? ChildTables.build(slots, used) : null;
+    }
+
+    /**
+     * Move all children to the front of the array, dropping the removed ones, and build
+     * the table again since positions have moved.
+     */
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < used; i++) {
+            if (slots[2 * i] != ChildTables.REMOVED) {
+                slots[2 * j] = slots[2 * i];
+                slots[2 * j + 1] = slots[2 * i + 1];
+                j++;
+            }
+        }
+        Arrays.fill(slots, 2 * j, 2 * used, null);
+        used = j;
+        compactions++;
+        rebuildChildTable();
+    }
+
+    /**
+     * Get the root of this node if it maintains a path index.
+     */
+    private CompactTreeNode<T> indexedRoot() {
+        TreeNode<T> node = this;
+        while (node.getParent() != null) {
+            node = node.getParent();
+        }
+        return node instanceof CompactTreeNode && ((CompactTreeNode<T>) node).pathIndex != null ? (CompactTreeNode<T>) node : null;
+    }
+
+    /**
+     * Get the path of this node, or {@literal null} if it is the root.
+     */
+    private PathKey pathOf() {
+        if (parent == null) {
+            return null;
+        }
+        if (!(parent instanceof CompactTreeNode)) {
+            throw new IllegalStateException("A tree with a path index must consist of CompactTreeNodes only");
+        }
+        return new PathKey(((CompactTreeNode<T>) parent).pathOf(), identifier);
+    }
+
+    private void indexPaths(Object id, TreeNode<T> child) {
+        CompactTreeNode<T> root = indexedRoot();
+        if (root != null) {
+            root.index(new PathKey(pathOf(), id), child, true);
+        }
+    }
+
+    private void unindexPaths(Object id, TreeNode<T> child) {
+        CompactTreeNode<T> root = indexedRoot();
+        if (root != null) {
+            root.index(new PathKey(pathOf(), id), child, false);
+        }
+    }
+
+    private void buildPathIndex() {
+        pathIndex = new HashMap<>();
+        for (Iterator<Map.Entry<Object, TreeNode<T>>> it = getChildren(); it.hasNext(); ) {
+            Map.Entry<Object, TreeNode<T>> child = it.next();
+            index(new PathKey(null, child.getKey()), child.getValue(), true);
+        }
+    }
+
+    /**
+     * Add or remove the subtree of {@code top} to or from the path index. The subtree is
+     * walked iteratively, so deep trees do not exhaust the stack.
+     */
+    private void index(PathKey topPath, TreeNode<T> top, boolean add) {
+        Deque<Object[]> pending = new ArrayDeque<>();
+        pending.push(new Object[]{topPath, top});
+        while (!pending.isEmpty()) {
+            Object[] next = pending.pop();
+            PathKey path = (PathKey) next[0];
+            @SuppressWarnings("unchecked")
+            TreeNode<T> node = (TreeNode<T>) next[1];
+            if (add) {
+                pathIndex.put(path, node);
+            } else {
+                pathIndex.remove(path);
+            }
+            for (Iterator<Map.Entry<Object, TreeNode<T>>> it = node.getChildren(); it.hasNext(); ) {
+                Map.Entry<Object, TreeNode<T>> child = it.next();
+                pending.push(new Object[]{new PathKey(path, child.getKey()), child.getValue()});
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (used != size) {
+            // Tombstones are not serializable
+            compact();
+        }
+        out.defaultWriteObject();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (pathIndexed) {
+            buildPathIndex();
+        }
+    }
+
+    /**
+     * A path of identifiers that shares the path of the parent node.
+     */
+    private static final class PathKey {
+
+        private final PathKey parent;
+        private final Object identifier;
+        private final int depth;
+        private final int hash;
+
+        PathKey(PathKey parent, Object identifier) {
+            this.parent = parent;
+            this.identifier = identifier;
+            this.depth = parent == null ? 1 : parent.depth + 1;
+            this.hash = 31 * (parent == null ? 0 : parent.hash) + Objects.hashCode(identifier);
+        }
+
+        static PathKey of(Object... path) {
+            PathKey key = null;
+            for (Object identifier : path) {
+                key = new PathKey(key, identifier);
+            }
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PathKey)) {
+                return false;
+            }
+            PathKey a = this;
+            PathKey b = (PathKey) o;
+            if (a.hash != b.hash || a.depth != b.depth) {
+                return false;
+            }
+            while (a != null) {
+                if (a == b) {
+                    return true;
+                }
+                if (!Objects.equals(a.identifier, b.identifier)) {
+                    return false;
+                }
+                a = a.parent;
+                b = b.parent;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private class ChildIterator implements Iterator<Map.Entry<Object, TreeNode<T>>> {
+
+        /** Number of children returned so far, positions may move when compacting. */
+        private int returned;
+        private int next;
+        private int expectedCompactions = compactions;
+        private Object lastReturned;
+        private boolean removable;
+
+        @Override
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Object, TreeNode<T>> next() {
+            if (returned >= size) {
+                throw new NoSuchElementException();
+            }
+            while (slots[2 * next] == ChildTables.REMOVED) {
+                next++;
+            }
+            lastReturned = slots[2 * next];
+            removable = true;
+            TreeNode<T> child = (TreeNode<T>) slots[2 * next + 1];
+            next++;
+            returned++;
+            return new AbstractMap.SimpleImmutableEntry<>(lastReturned, child);
+        }
+
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException();
+            }
+            removeChild(lastReturned);
+            removable = false;
+            returned--;
+            if (expectedCompactions != compactions) {
+                // Positions have moved, continue behind the children returned so far
+                expectedCompactions = compactions;
+                next = positionAfter(returned);
+            }
+        }
+
+        /**
+         * Get the position behind the first {@code count} children.
+         */
+        private int positionAfter(int count) {
+            int position = 0;
+            for (int seen = 0; seen < count; position++) {
+                if (slots[2 * position] != ChildTables.REMOVED) {
+                    seen++;
+                }
+            }
+            return position;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A ConcurrentTreeNode is a thread-safe implementation of a {@link TreeNode} for read
+ * mostly hierarchies.
+ * <p>
+ * The children of a node are held in an immutable snapshot that is replaced on each
+ * modification (copy-on-write). Readers never block: {@link #getChild(Object)} and
+ * {@link #getChildren()} work on the snapshot that is current when they are called, and
+ * iterators never throw a {@link java.util.ConcurrentModificationException}. Writers
+ * lock the modified node only, so modifications of different nodes do not contend, and
+ * copy the children of that node only. Snapshots with more than {@value
+ * CompactTreeNode#CHILD_INDEX_THRESHOLD} children carry a hash table of their children.
+ * </p>
+ * <p>
+ * Each node is consistent on its own, a reader walking down the tree concurrently to a
+ * writer moving a subtree may see the subtree at its former or at its new place. A subtree
+ * is moved by adding it to its new parent before removing it from the former one, removing
+ * a child clears its parent only if it has not been added to another node in the meantime.
+ * </p>
+ *
+ * @param <T> The type of the node
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class ConcurrentTreeNode<T> implements TreeNode<T>, Serializable {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentTreeNode, TreeNode> PARENT =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentTreeNode.class, TreeNode.class, "parent");
+
+    private volatile T data;
+    private volatile TreeNode<T> parent;
+    private volatile Children children = Children.EMPTY;
+
+    /**
+     * Create a ConcurrentTreeNode without data.
+     */
+    public ConcurrentTreeNode() {
+    }
+
+    /**
+     * Create a ConcurrentTreeNode.
+     *
+     * @param data The data of the node
+     */
+    public ConcurrentTreeNode(T data) {
+        this.data = data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T getData() {
+        return data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLeaf() {
+        return children.slots.length == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The iterator traverses the children at the time this method is called, it supports
+     * the removal of children.
+     */
+    @Override
+    public Iterator<Map.Entry<Object, TreeNode<T>>> getChildren() {
+        return new ChildIterator(children.slots);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public TreeNode<T> getChild(Object id) {
+        Children current = children;
+        int i = current.indexOf(id);
+        return i < 0 ? null : (TreeNode<T>) current.slots[2 * i + 1];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * An existing child with the same identifier is replaced.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addChild(Object identifier, TreeNode<T> child) {
+        synchronized (this) {
+            // Set before the child gets visible to readers
+            child.setParent(this);
+            Children current = children;
+            int i = current.indexOf(identifier);
+            children = current.with(identifier, child);
+            if (i >= 0 && current.slots[2 * i + 1] != child) {
+                release((TreeNode<T>) current.slots[2 * i + 1]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void removeChild(Object id) {
+        synchronized (this) {
+            Children current = children;
+            int i = current.indexOf(id);
+            if (i < 0) {
+                return;
+            }
+            children = current.without(i);
+            release((TreeNode<T>) current.slots[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Clear the parent of a former child, unless it has been added to another node in
+     * the meantime.
+     */
+    private void release(TreeNode<T> child) {
+        if (child instanceof ConcurrentTreeNode) {
+            PARENT.compareAndSet((ConcurrentTreeNode<?>) child, this, null);
+        } else if (child.getParent() == this) {
+            child.setParent(null);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TreeNode<T> getParent() {
+        return parent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setParent(TreeNode<T> parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * An immutable snapshot of identifiers and children, stored alternately.
+     */
+    private static final class Children implements Serializable {
+
+        static final Children EMPTY = new Children(new Object[0]);
+        private final Object[] slots;
+        private final int[] table;
+
+        Children(Object[] slots) {
+            this.slots = slots;
+            int size = slots.length / 2;
+            this.table = size > CompactTreeNode.CHILD_INDEX_THRESHOLD ? ChildTables.build(slots, size) : null;
+        }
+
+        int indexOf(Object id) {
+            return table == null ? ChildTables.indexOf(slots, slots.length / 2, id) : ChildTables.indexOf(table, slots, id);
+        }
+
+        Children with(Object id, Object child) {
+            int i = indexOf(id);
+            Object[] copy;
+            if (i < 0) {
+                copy = Arrays.copyOf(slots, slots.length + 2);
+                copy[slots.length] = id;
+                copy[slots.length + 1] = child;
+            } else {
+                copy = slots.clone();
+                copy[2 * i + 1] = child;
+            }
+            return new Children(copy);
+        }
+
+        Children without(int i) {
+            Object[] copy = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, copy, 0, 2 * i);
+            System.arraycopy(slots, 2 * i + 2, copy, 2 * i, copy.length - 2 * i);
+            return new Children(copy);
+        }
+    }
+
+    private class ChildIterator implements Iterator<Map.Entry<Object, TreeNode<T>>> {
+
+        private final Object[] snapshot;
+        private int next;
+        private boolean removable;
+
+        ChildIterator(Object[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return 2 * next < snapshot.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Object, TreeNode<T>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            removable = true;
+            next++;
+            return new AbstractMap.SimpleImmutableEntry<>(snapshot[2 * next - 2], (TreeNode<T>) snapshot[2 * next - 1]);
+        }
+
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException();
+            }
+            removable = false;
+            removeChild(snapshot[2 * next - 2]);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Supplier;
+
+/**
+ * A JsonTreeCodec is a {@link TreeCodec} with a human readable JSON format. The tree is
+ * written as an array of records, each one an array of the distance to the parent
+ * record, the identifier and the data, e.g. {@code [[0,null,"root"],[1,"a","child"]]}.
+ * <p>
+ * Identifiers are read as plain JSON values, so they should be strings or numbers that
+ * fit into an {@link Integer}.
+ * </p>
+ *
+ * @param <T> The type of the nodes
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class JsonTreeCodec<T> extends TreeCodec<T> {
+
+    private final ObjectMapper mapper;
+    private final JavaType dataType;
+
+    /**
+     * Create a JsonTreeCodec.
+     *
+     * @param nodeFactory Creates the nodes of read trees
+     * @param mapper Maps identifiers and data
+     * @param dataType The type of the data of the nodes
+     */
+    public JsonTreeCodec(Supplier<? extends TreeNode<T>> nodeFactory, ObjectMapper mapper, Class<T> dataType) {
+        this(nodeFactory, mapper, mapper.constructType(dataType));
+    }
+
+    /**
+     * Create a JsonTreeCodec for generic data types.
+     *
+     * @param nodeFactory Creates the nodes of read trees
+     * @param mapper Maps identifiers and data
+     * @param dataType The type of the data of the nodes
+     */
+    public JsonTreeCodec(Supplier<? extends TreeNode<T>> nodeFactory, ObjectMapper mapper, JavaType dataType) {
+        super(nodeFactory);
+        this.mapper = mapper;
+        this.dataType = dataType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(TreeNode<T> root, OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            walk(root, (parentDistance, identifier, data) -> {
+                generator.writeStartArray();
+                generator.writeNumber(parentDistance);
+                generator.writeObject(identifier);
+                generator.writeObject(data);
+                generator.writeEndArray();
+            });
+            generator.writeEndArray();
+            generator.flush();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected RecordReader<T> createReader(InputStream in) throws IOException {
+        JsonParser parser = mapper.getFactory().createParser(in);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Unknown format of encoded tree");
+        }
+        return new JsonRecordReader(parser);
+    }
+
+    private class JsonRecordReader implements RecordReader<T> {
+
+        private final JsonParser parser;
+        private int parentDistance;
+
+        JsonRecordReader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                return false;
+            }
+            if (token != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+                throw new IOException("Malformed record at " + parser.getCurrentLocation());
+            }
+            parentDistance = parser.getIntValue();
+            return true;
+        }
+
+        @Override
+        public int parentDistance() {
+            return parentDistance;
+        }
+
+        @Override
+        public Object readIdentifier() throws IOException {
+            parser.nextToken();
+            return mapper.readValue(parser, Object.class);
+        }
+
+        @Override
+        public T readData() throws IOException {
+            parser.nextToken();
+            return mapper.readValue(parser, dataType);
+        }
+
+        @Override
+        public void skip() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Encoded tree is truncated");
+                }
+                parser.skipChildren();
+            }
+        }
+    }
+}
\ No newline at end of file
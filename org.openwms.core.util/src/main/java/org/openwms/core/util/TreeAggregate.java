@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A TreeAggregate defines a value that is aggregated over all nodes of a subtree, like the
+ * number of free locations or the summed up capacity. It is a monoid: the value of a
+ * subtree is the {@link #lift(Object) lifted} data of its root combined with the values
+ * of its children in iteration order.
+ * <p>
+ * Aggregates are registered on a tree of {@link AggregatingTreeNode}s that caches their
+ * values per node.
+ * </p>
+ *
+ * @param <T> The type of the node data
+ * @param <A> The type of the aggregated value
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public interface TreeAggregate<T, A> {
+
+    /**
+     * Get the neutral value, that is also the value of nodes without data.
+     *
+     * @return The neutral value
+     */
+    A identity();
+
+    /**
+     * Get the value of a single node.
+     *
+     * @param data The data of the node, never {@literal null}
+     * @return The value
+     */
+    A lift(T data);
+
+    /**
+     * Combine two values. The operation must be associative, and {@link #identity()} must
+     * be neutral to it.
+     *
+     * @param left The first value
+     * @param right The second value
+     * @return The combined value
+     */
+    A combine(A left, A right);
+
+    /**
+     * Create a TreeAggregate from functions.
+     *
+     * @param identity The neutral value
+     * @param lift Maps the data of a node to its value
+     * @param combine Combines two values
+     * @param <T> The type of the node data
+     * @param <A> The type of the aggregated value
+     * @return The TreeAggregate
+     */
+    static <T, A> TreeAggregate<T, A> of(A identity, Function<? super T, ? extends A> lift, BinaryOperator<A> combine) {
+        return new TreeAggregate<T, A>() {
+            @Override
+            public A identity() {
+                return identity;
+            }
+
+            @Override
+            public A lift(T data) {
+                return lift.apply(data);
+            }
+
+            @Override
+            public A combine(A left, A right) {
+                return combine.apply(left, right);
+            }
+        };
+    }
+
+    /**
+     * Create a Group from functions.
+     *
+     * @param identity The neutral value
+     * @param lift Maps the data of a node to its value
+     * @param combine Combines two values, must be commutative
+     * @param subtract Removes a value from a combined one
+     * @param <T> The type of the node data
+     * @param <A> The type of the aggregated value
+     * @return The Group
+     */
+    static <T, A> Group<T, A> group(A identity, Function<? super T, ? extends A> lift, BinaryOperator<A> combine, BinaryOperator<A> subtract) {
+        return new Group<T, A>() {
+            @Override
+            public A subtract(A total, A part) {
+                return subtract.apply(total, part);
+            }
+
+            @Override
+            public A identity() {
+                return identity;
+            }
+
+            @Override
+            public A lift(T data) {
+                return lift.apply(data);
+            }
+
+            @Override
+            public A combine(A left, A right) {
+                return combine.apply(left, right);
+            }
+        };
+    }
+
+    /**
+     * Count the nodes whose data matches a predicate.
+     *
+     * @param predicate The predicate to match
+     * @param <T> The type of the node data
+     * @return The Group
+     */
+    static <T> Group<T, Long> count(Predicate<? super T> predicate) {
+        return group(0L, data -> predicate.test(data) ? 1L : 0L, Long::sum, (total, part) -> total - part);
+    }
+
+    /**
+     * Sum up a number of the node data.
+     *
+     * @param value Maps the data of a node to its number
+     * @param <T> The type of the node data
+     * @return The Group
+     */
+    static <T> Group<T, Long> sum(ToLongFunction<? super T> value) {
+        return group(0L, value::applyAsLong, Long::sum, (total, part) -> total - part);
+    }
+
+    /**
+     * A Group is a commutative TreeAggregate with an inverse operation. Changes of a
+     * node are applied to the values of its ancestors as a difference, instead of
+     * combining the values of all their children again.
+     *
+     * @param <T> The type of the node data
+     * @param <A> The type of the aggregated value
+     */
+    interface Group<T, A> extends TreeAggregate<T, A> {
+
+        /**
+         * Remove a value from a combined value, so that {@code subtract(combine(a, b), b)}
+         * equals {@code a}.
+         *
+         * @param total The combined value
+         * @param part The value to remove
+         * @return The remaining value
+         */
+        A subtract(A total, A part);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A TreeCodec writes a tree of {@link TreeNode}s into a stream and reads it back,
+ * without recursion and without holding the encoded form in memory.
+ * <p>
+ * Nodes are written in depth-first preorder, each one as a record of the distance to
+ * the record of its parent, its identifier and its data. The root has no parent and no
+ * identifier. Because the records of a subtree directly follow the record of its root,
+ * readers can materialize the top levels of a tree only, see {@link #read(InputStream,
+ * int)}, and load a subtree on demand, see {@link #readSubtree(InputStream, int,
+ * Object...)}. Records of other subtrees are skipped without decoding them.
+ * </p>
+ *
+ * @param <T> The type of the nodes
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public abstract class TreeCodec<T> {
+
+    private static final int OFF_PATH = -1;
+    private final Supplier<? extends TreeNode<T>> nodeFactory;
+
+    /**
+     * Create a TreeCodec.
+     *
+     * @param nodeFactory Creates the nodes of read trees
+     */
+    protected TreeCodec(Supplier<? extends TreeNode<T>> nodeFactory) {
+        this.nodeFactory = nodeFactory;
+    }
+
+    /**
+     * Write the tree of {@code root} to {@code out}. The stream is flushed but not closed.
+     *
+     * @param root The root of the tree to write
+     * @param out The stream to write to
+     * @throws IOException In case writing fails
+     */
+    public abstract void write(TreeNode<T> root, OutputStream out) throws IOException;
+
+    /**
+     * Create a reader of records from {@code in}.
+     *
+     * @param in The stream to read from
+     * @return The reader
+     * @throws IOException In case the stream has an unknown format
+     */
+    protected abstract RecordReader<T> createReader(InputStream in) throws IOException;
+
+    /**
+     * Read a whole tree.
+     *
+     * @param in The stream to read from, it is not closed
+     * @return The root of the tree
+     * @throws IOException In case reading fails
+     */
+    public TreeNode<T> read(InputStream in) throws IOException {
+        return read(in, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read the top levels of a tree, deeper nodes are skipped. Nodes at {@code maxDepth}
+     * are returned without children.
+     *
+     * @param in The stream to read from, it is not closed
+     * @param maxDepth The number of levels to read below the root
+     * @return The root of the tree
+     * @throws IOException In case reading fails
+     */
+    public TreeNode<T> read(InputStream in, int maxDepth) throws IOException {
+        return readSubtree(in, maxDepth);
+    }
+
+    /**
+     * Read the top levels of the subtree at {@code path}, all other nodes are skipped.
+     * Reading stops as soon as the subtree is complete, so the stream may not be consumed
+     * completely.
+     *
+     * @param in The stream to read from, it is not closed
+     * @param maxDepth The number of levels to read below the root of the subtree
+     * @param path The identifiers from the child of the root down to the root of the
+     * subtree, none for the whole tree
+     * @return The root of the subtree without parent, or {@literal null} if no node
+     * exists at {@code path}
+     * @throws IOException In case reading fails
+     */
+    public TreeNode<T> readSubtree(InputStream in, int maxDepth, Object... path) throws IOException {
+        RecordReader<T> reader = createReader(in);
+        // The ancestors of the current record: their record index, their node if read and
+        // the number of path elements they match or OFF_PATH
+        int[] indices = new int[16];
+        Object[] nodes = new Object[16];
+        int[] matched = new int[16];
+        int depth = 0;
+        int index = -1;
+        int subtreeDepth = -1;
+        int matchedDepth = 0;
+        TreeNode<T> subtree = null;
+        while (reader.next()) {
+            index++;
+            int parentIndex = index - reader.parentDistance();
+            while (depth > 0 && indices[depth - 1] != parentIndex) {
+                depth--;
+            }
+            if (subtree != null ? depth <= subtreeDepth : depth <= matchedDepth && matchedDepth > 0) {
+                // Left the subtree or the last node on the path, identifiers are unique
+                break;
+            }
+            if (depth == 0 && index > 0) {
+                throw new IOException("Record [" + index + "] has no parent");
+            }
+            if (depth == indices.length) {
+                indices = Arrays.copyOf(indices, depth * 2);
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                matched = Arrays.copyOf(matched, depth * 2);
+            }
+            TreeNode<T> node = null;
+            int match = OFF_PATH;
+            if (depth > 0 && nodes[depth - 1] != null) {
+                // Within the subtree
+                if (depth - subtreeDepth <= maxDepth) {
+                    Object identifier = reader.readIdentifier();
+                    node = readNode(reader);
+                    @SuppressWarnings("unchecked")
+                    TreeNode<T> parent = (TreeNode<T>) nodes[depth - 1];
+                    parent.addChild(identifier, node);
+                }
+            } else if (depth == 0 || (matched[depth - 1] == depth - 1 && subtree == null)) {
+                // On the path to the subtree
+                Object identifier = reader.readIdentifier();
+                if (depth == 0 || Objects.equals(path[depth - 1], identifier)) {
+                    if (depth == path.length) {
+                        node = readNode(reader);
+                        subtree = node;
+                        subtreeDepth = depth;
+                    } else {
+                        match = depth;
+                        matchedDepth = depth;
+                    }
+                }
+            }
+            reader.skip();
+            indices[depth] = index;
+            nodes[depth] = node;
+            matched[depth] = match;
+            depth++;
+        }
+        return subtree;
+    }
+
+    /**
+     * Create a node with the data of the current record, the identifier is read already.
+     */
+    private TreeNode<T> readNode(RecordReader<T> reader) throws IOException {
+        TreeNode<T> node = nodeFactory.get();
+        node.setData(reader.readData());
+        return node;
+    }
+
+    /**
+     * Walk the tree of {@code root} in preorder and pass each node to the {@code writer}.
+     *
+     * @param root The root of the tree
+     * @param writer Writes one record
+     * @throws IOException In case writing fails
+     */
+    protected void walk(TreeNode<T> root, RecordWriter<T> writer) throws IOException {
+        Deque<Object[]> pending = new ArrayDeque<>();
+        pending.push(new Object[]{null, root, -1});
+        int index = 0;
+        List<Map.Entry<Object, TreeNode<T>>> children = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            Object[] next = pending.pop();
+            @SuppressWarnings("unchecked")
+            TreeNode<T> node = (TreeNode<T>) next[1];
+            int parentIndex = (Integer) next[2];
+            writer.write(parentIndex < 0 ? 0 : index - parentIndex, next[0], node.getData());
+            children.clear();
+            for (Iterator<Map.Entry<Object, TreeNode<T>>> it = node.getChildren(); it.hasNext(); ) {
+                children.add(it.next());
+            }
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pending.push(new Object[]{children.get(i).getKey(), children.get(i).getValue(), index});
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Writes the record of one node.
+     *
+     * @param <T> The type of the nodes
+     */
+    protected interface RecordWriter<T> {
+
+        /**
+         * Write a record.
+         *
+         * @param parentDistance The distance to the record of the parent, 0 for the root
+         * @param identifier The identifier of the node
+         * @param data The data of the node
+         * @throws IOException In case writing fails
+         */
+        void write(int parentDistance, Object identifier, T data) throws IOException;
+    }
+
+    /**
+     * Reads records one by one. Identifier and data of a record are read on demand.
+     *
+     * @param <T> The type of the nodes
+     */
+    protected interface RecordReader<T> {
+
+        /**
+         * Move to the next record.
+         *
+         * @return {@literal false} at the end of the tree
+         * @throws IOException In case reading fails
+         */
+        boolean next() throws IOException;
+
+        /**
+         * Get the distance to the record of the parent.
+         *
+         * @return The distance, 0 for the root
+         */
+        int parentDistance();
+
+        /**
+         * Read the identifier of the current record, must be called before {@link
+         * #readData()}.
+         *
+         * @return The identifier
+         * @throws IOException In case reading fails
+         */
+        Object readIdentifier() throws IOException;
+
+        /**
+         * Read the data of the current record.
+         *
+         * @return The data
+         * @throws IOException In case reading fails
+         */
+        T readData() throws IOException;
+
+        /**
+         * Skip the remaining part of the current record.
+         *
+         * @throws IOException In case reading fails
+         */
+        void skip() throws IOException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A TreeNodes offers streams and bulk operations on trees of {@link TreeNode}s.
+ * <p>
+ * Streams traverse a tree depth-first in preorder or breadth-first in level order. Both
+ * are ordered and split into independent parts for parallel processing. The bulk
+ * operations process all nodes of a subtree in parallel with the common {@link
+ * ForkJoinPool}, so the passed functions must be free of side effects. The tree must not
+ * be modified while it is processed.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class TreeNodes {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private TreeNodes() {
+    }
+
+    /**
+     * Stream all nodes of the subtree of {@code root}, including {@code root}, in
+     * depth-first preorder.
+     *
+     * @param root The root of the subtree
+     * @param parallel Whether the stream is parallel
+     * @param <T> The type of the nodes
+     * @return The stream of nodes
+     */
+    public static <T> Stream<TreeNode<T>> depthFirst(TreeNode<T> root, boolean parallel) {
+        Deque<TreeNode<T>> pending = new ArrayDeque<>();
+        pending.push(root);
+        return StreamSupport.stream(new DepthFirstSpliterator<>(pending, Long.MAX_VALUE), parallel);
+    }
+
+    /**
+     * Stream all nodes of the subtree of {@code root}, including {@code root}, in
+     * breadth-first level order.
+     *
+     * @param root The root of the subtree
+     * @param parallel Whether the stream is parallel
+     * @param <T> The type of the nodes
+     * @return The stream of nodes
+     */
+    public static <T> Stream<TreeNode<T>> breadthFirst(TreeNode<T> root, boolean parallel) {
+        Deque<TreeNode<T>> pending = new ArrayDeque<>();
+        pending.add(root);
+        return StreamSupport.stream(new BreadthFirstSpliterator<>(pending, Long.MAX_VALUE), parallel);
+    }
+
+    /**
+     * Combine the data of all nodes of the subtree in parallel.
+     *
+     * @param root The root of the subtree
+     * @param identity The identity value of the combiner
+     * @param accumulator Accumulates the data of one node into a partial result
+     * @param combiner Combines two partial results
+     * @param <T> The type of the nodes
+     * @param <R> The type of the result
+     * @return The result
+     */
+    public static <T, R> R fold(TreeNode<T> root, R identity, BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner) {
+        return depthFirst(root, true).reduce(identity, (r, node) -> accumulator.apply(r, node.getData()), combiner);
+    }
+
+    /**
+     * Find all nodes of the subtree with matching data.
+     *
+     * @param root The root of the subtree
+     * @param predicate Applied to the data of each node
+     * @param <T> The type of the nodes
+     * @return The matching nodes in depth-first preorder
+     */
+    public static <T> List<TreeNode<T>> filter(TreeNode<T> root, Predicate<? super T> predicate) {
+        return depthFirst(root, true).filter(node -> predicate.test(node.getData())).collect(Collectors.toList());
+    }
+
+    /**
+     * Find any node of the subtree with matching data. The search stops as soon as a
+     * node is found, that is not necessarily the first one in traversal order.
+     *
+     * @param root The root of the subtree
+     * @param predicate Applied to the data of each node
+     * @param <T> The type of the nodes
+     * @return The node or nothing if no node matches
+     */
+    public static <T> Optional<TreeNode<T>> find(TreeNode<T> root, Predicate<? super T> predicate) {
+        return depthFirst(root, true).filter(node -> predicate.test(node.getData())).findAny();
+    }
+
+    /**
+     * Create a copy of the subtree with the same structure and identifiers, where the
+     * data of each node is mapped with {@code mapper}. Subtrees are mapped in parallel into
+     * detached nodes that are attached to their parents one at a time, so the nodes may
+     * maintain state across the tree.
+     *
+     * @param root The root of the subtree
+     * @param mapper Maps the data of each node
+     * @param nodeFactory Creates the nodes of the new tree
+     * @param <T> The type of the nodes
+     * @param <R> The type of the new nodes
+     * @return The root of the new tree
+     */
+    public static <T, R> TreeNode<R> map(TreeNode<T> root, Function<? super T, ? extends R> mapper, Supplier<? extends TreeNode<R>> nodeFactory) {
+        TreeNode<R> target = nodeFactory.get();
+        target.setData(mapper.apply(root.getData()));
+        ForkJoinPool.commonPool().invoke(new MapTask<>(null, root, target, mapper, nodeFactory));
+        return target;
+    }
+
+    private static <T> List<TreeNode<T>> childrenOf(TreeNode<T> node) {
+        if (node.isLeaf()) {
+            return null;
+        }
+        List<TreeNode<T>> children = new ArrayList<>();
+        for (Iterator<Map.Entry<Object, TreeNode<T>>> it = node.getChildren(); it.hasNext(); ) {
+            children.add(it.next().getValue());
+        }
+        return children;
+    }
+
+    /**
+     * Splits off the first half of its pending subtrees, or the next node alone if only
+     * one subtree is pending. The size estimate is halved on each split.
+     */
+    private static final class DepthFirstSpliterator<T> implements Spliterator<TreeNode<T>> {
+
+        /** Roots of the subtrees still to traverse, the next one first. */
+        private final Deque<TreeNode<T>> pending;
+        private long estimate;
+
+        DepthFirstSpliterator(Deque<TreeNode<T>> pending, long estimate) {
+            this.pending = pending;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TreeNode<T>> action) {
+            TreeNode<T> node = pending.poll();
+            if (node == null) {
+                return false;
+            }
+            expand(node);
+            action.accept(node);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super TreeNode<T>> action) {
+            TreeNode<T> node;
+            while ((node = pending.poll()) != null) {
+                expand(node);
+                action.accept(node);
+            }
+        }
+
+        private void expand(TreeNode<T> node) {
+            List<TreeNode<T>> children = childrenOf(node);
+            if (children != null) {
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    pending.push(children.get(i));
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<TreeNode<T>> trySplit() {
+            if (pending.size() > 1) {
+                Deque<TreeNode<T>> prefix = new ArrayDeque<>();
+                for (int i = pending.size() / 2; i > 0; i--) {
+                    prefix.add(pending.poll());
+                }
+                estimate >>>= 1;
+                return new DepthFirstSpliterator<>(prefix, estimate);
+            }
+            TreeNode<T> node = pending.peek();
+            if (node == null || node.isLeaf()) {
+                return null;
+            }
+            pending.poll();
+            expand(node);
+            estimate >>>= 1;
+            return Spliterators.spliterator(new Object[]{node}, CHARACTERISTICS);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * Splits off the first half of the queued nodes, whose children are enqueued to this
+     * spliterator. That keeps the level order, because the children of the split nodes
+     * come after all nodes that are queued already.
+     */
+    private static final class BreadthFirstSpliterator<T> implements Spliterator<TreeNode<T>> {
+
+        /** Nodes to visit in level order. */
+        private final Deque<TreeNode<T>> pending;
+        private long estimate;
+
+        BreadthFirstSpliterator(Deque<TreeNode<T>> pending, long estimate) {
+            this.pending = pending;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TreeNode<T>> action) {
+            TreeNode<T> node = pending.poll();
+            if (node == null) {
+                return false;
+            }
+            expand(node);
+            action.accept(node);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super TreeNode<T>> action) {
+            TreeNode<T> node;
+            while ((node = pending.poll()) != null) {
+                expand(node);
+                action.accept(node);
+            }
+        }
+
+        private void expand(TreeNode<T> node) {
+            List<TreeNode<T>> children = childrenOf(node);
+            if (children != null) {
+                pending.addAll(children);
+            }
+        }
+
+        @Override
+        public Spliterator<TreeNode<T>> trySplit() {
+            int n = pending.size() == 1 ? 1 : pending.size() / 2;
+            if (n == 0 || (n == 1 && pending.peek().isLeaf())) {
+                return null;
+            }
+            Object[] prefix = new Object[n];
+            for (int i = 0; i < n; i++) {
+                TreeNode<T> node = pending.poll();
+                expand(node);
+                prefix[i] = node;
+            }
+            estimate >>>= 1;
+            return Spliterators.spliterator(prefix, CHARACTERISTICS);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * Maps the children of one node and forks a task for each child that has children
+     * itself. Completers do not block, so deep trees do not exhaust the stack.
+     */
+    private static final class MapTask<T, R> extends CountedCompleter<Void> {
+
+        private final TreeNode<T> source;
+        private final TreeNode<R> target;
+        private final Function<? super T, ? extends R> mapper;
+        private final Supplier<? extends TreeNode<R>> nodeFactory;
+        /** Mapped children, attached to the target when all subtrees are mapped. */
+        private final List<Map.Entry<Object, TreeNode<R>>> mapped = new ArrayList<>();
+
+        MapTask(CountedCompleter<?> parent, TreeNode<T> source, TreeNode<R> target, Function<? super T, ? extends R> mapper, Supplier<? extends TreeNode<R>> nodeFactory) {
+            super(parent);
+            this.source = source;
+            this.target = target;
+            this.mapper = mapper;
+            this.nodeFactory = nodeFactory;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Each child is mapped to a detached node that is filled by a subtask, so that
+         * concurrent tasks never modify the same tree.
+         * </p>
+         */
+        @Override
+        public void compute() {
+            for (Iterator<Map.Entry<Object, TreeNode<T>>> it = source.getChildren(); it.hasNext(); ) {
+                Map.Entry<Object, TreeNode<T>> child = it.next();
+                TreeNode<R> node = nodeFactory.get();
+                node.setData(mapper.apply(child.getValue().getData()));
+                mapped.add(new AbstractMap.SimpleImmutableEntry<>(child.getKey(), node));
+                if (!child.getValue().isLeaf()) {
+                    addToPendingCount(1);
+                    new MapTask<>(this, child.getValue(), node, mapper, nodeFactory).fork();
+                }
+            }
+            tryComplete();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Attach the mapped children in order. All subtasks have completed, and the target
+         * is attached to its parent only when this task has completed, hence nodes that
+         * maintain state across the tree, like aggregates or a path index, are modified by
+         * one thread at a time.
+         * </p>
+         */
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            for (Map.Entry<Object, TreeNode<R>> child : mapped) {
+                target.addChild(child.getKey(), child.getValue());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -29,7 +29,8 @@ import java.util.List;
 public interface BaseUnit<T extends BaseUnit<T>> {
 
     /**
-     * Return all sub types of the {@code UnitType}.
+     * Return all sub types of the {@code UnitType}. Implementations should return an
+     * immutable list that is not created on each call, like {@link UnitTable#getUnits()}.
      *
      * @return a list of sub types
      */
@@ -0,0 +1,484 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * A Decimal is an immutable, exact decimal number of a {@code long} mantissa and a scale
+ * between 0 and {@value #MAX_SCALE}, with a value of {@code mantissa / 10^scale}. It is
+ * meant as the magnitude of {@link Measurable}s that need exact decimal arithmetic, like
+ * {@link DecimalMeasure}.
+ * <p>
+ * Arithmetic works on the primitive mantissa and detects overflows. Only if a result does
+ * not fit into a {@code long} mantissa the operation falls back to {@link BigDecimal},
+ * and the result is kept as a BigDecimal until it fits again. Quantities of up to {@link
+ * CoreTypeDefinitions#QUANTITY_LENGTH} digits never overflow. Like {@link
+ * #compareTo(Decimal)}, {@link #equals(Object)} ignores the scale, so {@code 1.50} equals
+ * {@code 1.5}.
+ * </p>
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class Decimal extends Number implements Comparable<Decimal> {
+
+    private static final long serialVersionUID = 1L;
+    /** The largest scale of a primitive mantissa: {@value} */
+    public static final int MAX_SCALE = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+    /** Zero. */
+    public static final Decimal ZERO = new Decimal(0, 0, null);
+    /** One. */
+    public static final Decimal ONE = new Decimal(1, 0, null);
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long mantissa;
+    private final int scale;
+    /** The value if it does not fit into a mantissa and scale, otherwise {@literal null}. */
+    private final BigDecimal inflated;
+
+    private Decimal(long mantissa, int scale, BigDecimal inflated) {
+        this.mantissa = mantissa;
+        this.scale = scale;
+        this.inflated = inflated;
+    }
+
+    /**
+     * Get a Decimal of an integral value.
+     *
+     * @param value The value
+     * @return The Decimal
+     */
+    public static Decimal valueOf(long value) {
+        return value == 0 ? ZERO : new Decimal(value, 0, null);
+    }
+
+    /**
+     * Get a Decimal of {@code mantissa / 10^scale}.
+     *
+     * @param mantissa The mantissa
+     * @param scale The scale
+     * @return The Decimal
+     */
+    public static Decimal valueOf(long mantissa, int scale) {
+        if (scale >= 0 && scale <= MAX_SCALE) {
+            return new Decimal(mantissa, scale, null);
+        }
+        return valueOf(BigDecimal.valueOf(mantissa, scale));
+    }
+
+    /**
+     * Get a Decimal of a BigDecimal.
+     *
+     * @param value The value
+     * @return The Decimal
+     */
+    public static Decimal valueOf(BigDecimal value) {
+        if (fits(value)) {
+            return new Decimal(value.unscaledValue().longValue(), value.scale(), null);
+        }
+        BigDecimal stripped = value.stripTrailingZeros();
+        if (stripped.scale() < 0) {
+            stripped = stripped.setScale(0);
+        }
+        return fits(stripped) ? new Decimal(stripped.unscaledValue().longValue(), stripped.scale(), null) : new Decimal(0, 0, value);
+    }
+
+    /**
+     * Parse a Decimal.
+     *
+     * @param value The value in the format of {@link BigDecimal#BigDecimal(String)}
+     * @return The Decimal
+     * @throws NumberFormatException If the value is not a number
+     */
+    public static Decimal parse(String value) {
+        return valueOf(new BigDecimal(value));
+    }
+
+    /**
+     * Get a Decimal of a BigDecimal that keeps its scale, unlike {@link
+     * #valueOf(BigDecimal)} it does not strip trailing zeros to get a compact value.
+     */
+    private static Decimal exactly(BigDecimal value) {
+        return fits(value) ? new Decimal(value.unscaledValue().longValue(), value.scale(), null) : new Decimal(0, 0, value);
+    }
+
+    private static boolean fits(BigDecimal value) {
+        return value.scale() >= 0 && value.scale() <= MAX_SCALE && value.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    private boolean isCompact() {
+        return inflated == null;
+    }
+
+    /**
+     * Get the scale.
+     *
+     * @return The number of digits after the decimal point
+     */
+    public int scale() {
+        return isCompact() ? scale : inflated.scale();
+    }
+
+    /**
+     * Get the precision.
+     *
+     * @return The number of digits of the unscaled value
+     */
+    public int precision() {
+        if (!isCompact()) {
+            return inflated.precision();
+        }
+        long value = Math.abs(mantissa);
+        if (value < 0) {
+            return 19;
+        }
+        int precision = 1;
+        while (precision <= MAX_SCALE && value >= POWERS_OF_TEN[precision]) {
+            precision++;
+        }
+        return precision;
+    }
+
+    /**
+     * Get the sign.
+     *
+     * @return -1, 0 or 1 if the value is negative, zero or positive
+     */
+    public int signum() {
+        return isCompact() ? Long.signum(mantissa) : inflated.signum();
+    }
+
+    /**
+     * Get the unscaled value, so that this Decimal equals {@code unscaledValueExact() /
+     * 10^scale()}.
+     *
+     * @return The unscaled value
+     * @throws ArithmeticException If the unscaled value does not fit into a {@code long}
+     */
+    public long unscaledValueExact() {
+        return isCompact() ? mantissa : inflated.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convert into a BigDecimal.
+     *
+     * @return The BigDecimal
+     */
+    public BigDecimal toBigDecimal() {
+        return isCompact() ? BigDecimal.valueOf(mantissa, scale) : inflated;
+    }
+
+    /**
+     * Add another Decimal, the result has the larger scale of both.
+     *
+     * @param other The Decimal to add
+     * @return The sum
+     */
+    public Decimal add(Decimal other) {
+        if (isCompact() && other.isCompact()) {
+            int resultScale = Math.max(scale, other.scale);
+            long a = scaleUp(mantissa, resultScale - scale);
+            long b = scaleUp(other.mantissa, resultScale - other.scale);
+            long sum = a + b;
+            if (a != Long.MIN_VALUE && b != Long.MIN_VALUE && ((a ^ sum) & (b ^ sum)) >= 0) {
+                return new Decimal(sum, resultScale, null);
+            }
+        }
+        return valueOf(toBigDecimal().add(other.toBigDecimal()));
+    }
+
+    /**
+     * Subtract another Decimal, the result has the larger scale of both.
+     *
+     * @param other The Decimal to subtract
+     * @return The difference
+     */
+    public Decimal subtract(Decimal other) {
+        if (isCompact() && other.isCompact()) {
+            int resultScale = Math.max(scale, other.scale);
+            long a = scaleUp(mantissa, resultScale - scale);
+            long b = scaleUp(other.mantissa, resultScale - other.scale);
+            long difference = a - b;
+            if (a != Long.MIN_VALUE && b != Long.MIN_VALUE && ((a ^ b) & (a ^ difference)) >= 0) {
+                return new Decimal(difference, resultScale, null);
+            }
+        }
+        return valueOf(toBigDecimal().subtract(other.toBigDecimal()));
+    }
+
+    /**
+     * Multiply with another Decimal, the result has the sum of both scales.
+     *
+     * @param other The Decimal to multiply with
+     * @return The product
+     */
+    public Decimal multiply(Decimal other) {
+        if (isCompact() && other.isCompact() && scale + other.scale <= MAX_SCALE) {
+            long product = multiply(mantissa, other.mantissa);
+            if (product != Long.MIN_VALUE) {
+                return new Decimal(product, scale + other.scale, null);
+            }
+        }
+        return valueOf(toBigDecimal().multiply(other.toBigDecimal()));
+    }
+
+    /**
+     * Multiply with an integral value, the result keeps the scale.
+     *
+     * @param factor The value to multiply with
+     * @return The product
+     */
+    public Decimal multiply(long factor) {
+        if (isCompact()) {
+            long product = multiply(mantissa, factor);
+            if (product != Long.MIN_VALUE) {
+                return new Decimal(product, scale, null);
+            }
+        }
+        return valueOf(toBigDecimal().multiply(BigDecimal.valueOf(factor)));
+    }
+
+    /**
+     * Divide by another Decimal.
+     *
+     * @param divisor The Decimal to divide by
+     * @param resultScale The scale of the quotient
+     * @param roundingMode How to round the quotient
+     * @return The quotient
+     * @throws ArithmeticException If the divisor is zero, or rounding is necessary but
+     * {@code roundingMode} is {@link RoundingMode#UNNECESSARY}
+     */
+    public Decimal divide(Decimal divisor, int resultScale, RoundingMode roundingMode) {
+        if (divisor.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (isCompact() && divisor.isCompact() && resultScale >= 0 && resultScale <= MAX_SCALE) {
+            int exponent = resultScale - scale + divisor.scale;
+            long dividend = exponent >= 0 ? scaleUp(mantissa, exponent) : mantissa;
+            long denominator = exponent >= 0 ? divisor.mantissa : scaleUp(divisor.mantissa, -exponent);
+            if (dividend != Long.MIN_VALUE && denominator != Long.MIN_VALUE) {
+                return new Decimal(divide(dividend, denominator, roundingMode), resultScale, null);
+            }
+        }
+        return exactly(toBigDecimal().divide(divisor.toBigDecimal(), resultScale, roundingMode));
+    }
+
+    /**
+     * Change the scale. The result has the new scale, even if its unscaled value does not
+     * fit into a {@code long} mantissa.
+     *
+     * @param newScale The new scale
+     * @param roundingMode How to round if the scale is reduced
+     * @return The Decimal with the new scale
+     * @throws ArithmeticException If rounding is necessary but {@code roundingMode} is
+     * {@link RoundingMode#UNNECESSARY}
+     */
+    public Decimal setScale(int newScale, RoundingMode roundingMode) {
+        if (isCompact() && newScale >= 0 && newScale <= MAX_SCALE) {
+            if (newScale >= scale) {
+                long scaled = scaleUp(mantissa, newScale - scale);
+                if (scaled != Long.MIN_VALUE) {
+                    return new Decimal(scaled, newScale, null);
+                }
+            } else if (mantissa != Long.MIN_VALUE) {
+                return new Decimal(divide(mantissa, POWERS_OF_TEN[scale - newScale], roundingMode), newScale, null);
+            }
+        }
+        return exactly(toBigDecimal().setScale(newScale, roundingMode));
+    }
+
+    /**
+     * Negate this Decimal.
+     *
+     * @return The negated value
+     */
+    public Decimal negate() {
+        return isCompact() && mantissa != Long.MIN_VALUE ? new Decimal(-mantissa, scale, null) : valueOf(toBigDecimal().negate());
+    }
+
+    /**
+     * Multiply by {@code 10^exponent}, or return {@link Long#MIN_VALUE} on overflow. The
+     * minimum value is never a valid mantissa of an intermediate result, it marks the
+     * fallback to BigDecimal.
+     */
+    private static long scaleUp(long value, int exponent) {
+        if (exponent == 0) {
+            return value;
+        }
+        if (exponent > MAX_SCALE) {
+            return value == 0 ? 0 : Long.MIN_VALUE;
+        }
+        long factor = POWERS_OF_TEN[exponent];
+        if (value > Long.MAX_VALUE / factor || value < -Long.MAX_VALUE / factor) {
+            return Long.MIN_VALUE;
+        }
+        return value * factor;
+    }
+
+    /**
+     * Multiply two values, or return {@link Long#MIN_VALUE} on overflow.
+     */
+    private static long multiply(long a, long b) {
+        long product = a * b;
+        if (((Math.abs(a) | Math.abs(b)) >>> 31 != 0) && ((b != 0 && product / b != a) || (a == Long.MIN_VALUE && b == -1))) {
+            return Long.MIN_VALUE;
+        }
+        return product;
+    }
+
+    /**
+     * Divide two values and round the quotient, the divisor must not be {@link
+     * Long#MIN_VALUE}.
+     */
+    private static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = ((dividend ^ divisor) >> 63) == 0 ? 1 : -1;
+        boolean increment;
+        switch (roundingMode) {
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary");
+            case DOWN:
+                increment = false;
+                break;
+            case UP:
+                increment = true;
+                break;
+            case FLOOR:
+                increment = sign < 0;
+                break;
+            case CEILING:
+                increment = sign > 0;
+                break;
+            default:
+                long absRemainder = Math.abs(remainder);
+                int half = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+                if (roundingMode == RoundingMode.HALF_UP) {
+                    increment = half >= 0;
+                } else if (roundingMode == RoundingMode.HALF_DOWN) {
+                    increment = half > 0;
+                } else {
+                    increment = half > 0 || (half == 0 && (quotient & 1) != 0);
+                }
+        }
+        return increment ? quotient + sign : quotient;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(Decimal other) {
+        if (isCompact() && other.isCompact()) {
+            if (scale == other.scale) {
+                return Long.compare(mantissa, other.mantissa);
+            }
+            int commonScale = Math.max(scale, other.scale);
+            long a = scaleUp(mantissa, commonScale - scale);
+            long b = scaleUp(other.mantissa, commonScale - other.scale);
+            if (a != Long.MIN_VALUE && b != Long.MIN_VALUE) {
+                return Long.compare(a, b);
+            }
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Decimals of the same value are equal, regardless of their scale.
+     * </p>
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Decimal && compareTo((Decimal) o) == 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        if (!isCompact()) {
+            return inflated.stripTrailingZeros().hashCode();
+        }
+        long m = mantissa;
+        int s = scale;
+        while (s > 0 && m % 10 == 0) {
+            m /= 10;
+            s--;
+        }
+        return 31 * Long.hashCode(m) + s;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long longValue() {
+        return isCompact() ? mantissa / POWERS_OF_TEN[scale] : inflated.longValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double doubleValue() {
+        if (!isCompact()) {
+            return inflated.doubleValue();
+        }
+        return scale == 0 ? mantissa : mantissa / (double) POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The plain decimal representation without exponent, e.g. {@code 1.50}.
+     * </p>
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.io.Serializable;
+import java.math.RoundingMode;
+
+/**
+ * A DecimalMeasure is a {@link Measurable} with an exact {@link Decimal} magnitude in any
+ * {@link ScaledBaseUnit}, like {@code 1.125 KG}. Unlike a {@link LongMeasure} it keeps
+ * fractions of the base unit.
+ * <p>
+ * Converting into a larger unit extends the scale by the number of digits of the
+ * reduced ratio of both units and rounds {@link RoundingMode#HALF_EVEN half even}, so
+ * that conversions between decimal units are exact.
+ * </p>
+ *
+ * @param <T> The type of units
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class DecimalMeasure<T extends ScaledBaseUnit<T>> implements Measurable<Decimal, DecimalMeasure<T>, T>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final Decimal magnitude;
+    private final T unit;
+
+    private DecimalMeasure(Decimal magnitude, T unit) {
+        this.magnitude = magnitude;
+        this.unit = unit;
+    }
+
+    /**
+     * Create a DecimalMeasure.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @param <T> The type of units
+     * @return The DecimalMeasure
+     */
+    public static <T extends ScaledBaseUnit<T>> DecimalMeasure<T> of(Decimal magnitude, T unit) {
+        return new DecimalMeasure<>(magnitude, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T getUnitType() {
+        return unit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Decimal getMagnitude() {
+        return magnitude;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isZero() {
+        return magnitude.signum() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNegative() {
+        return magnitude.signum() < 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DecimalMeasure<T> convertTo(T unit) {
+        if (unit == this.unit) {
+            return this;
+        }
+        long from = this.unit.getFactor();
+        long to = unit.getFactor();
+        if (from % to == 0) {
+            return new DecimalMeasure<>(magnitude.multiply(from / to), unit);
+        }
+        long divisor = gcd(from, to);
+        Decimal dividend = magnitude.multiply(from / divisor);
+        divisor = to / divisor;
+        int digits = Long.toString(divisor - 1).length();
+        return new DecimalMeasure<>(dividend.divide(Decimal.valueOf(divisor), Math.min(dividend.scale() + digits, Decimal.MAX_SCALE), RoundingMode.HALF_EVEN), unit);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * Add another measure, the result has the unit of this measure.
+     *
+     * @param other The measure to add
+     * @return The sum
+     */
+    public DecimalMeasure<T> add(DecimalMeasure<T> other) {
+        return new DecimalMeasure<>(magnitude.add(other.convertTo(unit).magnitude), unit);
+    }
+
+    /**
+     * Subtract another measure, the result has the unit of this measure.
+     *
+     * @param other The measure to subtract
+     * @return The difference
+     */
+    public DecimalMeasure<T> subtract(DecimalMeasure<T> other) {
+        return new DecimalMeasure<>(magnitude.subtract(other.convertTo(unit).magnitude), unit);
+    }
+
+    /**
+     * Multiply this measure with a scalar.
+     *
+     * @param factor The scalar
+     * @return The product
+     */
+    public DecimalMeasure<T> multiply(Decimal factor) {
+        return new DecimalMeasure<>(magnitude.multiply(factor), unit);
+    }
+
+    private Decimal getBaseMagnitude() {
+        return magnitude.multiply(unit.getFactor());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(DecimalMeasure<T> other) {
+        return unit == other.unit ? magnitude.compareTo(other.magnitude) : getBaseMagnitude().compareTo(other.getBaseMagnitude());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Measures of the same amount are equal, regardless of their unit.
+     * </p>
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DecimalMeasure) || unit.getClass() != ((DecimalMeasure<?>) o).unit.getClass()) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        DecimalMeasure<T> other = (DecimalMeasure<T>) o;
+        return compareTo(other) == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return getBaseMagnitude().hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return magnitude + " " + unit;
+    }
+}
\ No newline at end of file
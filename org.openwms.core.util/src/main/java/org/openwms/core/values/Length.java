@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.math.BigDecimal;
+
+/**
+ * A Length is the length or any other dimension of something, stored in {@link LengthUnit#MM MM}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @GlossaryTerm
+ */
+public final class Length extends LongMeasure<Length, LengthUnit> {
+
+    private static final long serialVersionUID = 1L;
+    /** Zero {@link LengthUnit#MM MM}. */
+    public static final Length ZERO = new Length(0, LengthUnit.MM);
+
+    private Length(long baseMagnitude, LengthUnit unit) {
+        super(baseMagnitude, unit);
+    }
+
+    /**
+     * Create a Length.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @return The Length
+     * @throws ArithmeticException If the magnitude overflows in {@link LengthUnit#MM MM}
+     */
+    public static Length of(long magnitude, LengthUnit unit) {
+        return new Length(toBase(magnitude, unit), unit);
+    }
+
+    /**
+     * Create a Length of a decimal magnitude, like {@code 1.5 M}.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @return The Length
+     * @throws ArithmeticException If the magnitude overflows or is a fraction of {@link
+     * LengthUnit#MM MM}
+     */
+    public static Length of(BigDecimal magnitude, LengthUnit unit) {
+        return new Length(toBase(magnitude, unit), unit);
+    }
+
+    /**
+     * Create a Length of a magnitude in the base unit, like it is stored.
+     *
+     * @param baseMagnitude The magnitude in {@link LengthUnit#MM MM}
+     * @param unit The unit to represent the magnitude in
+     * @return The Length
+     */
+    public static Length ofBase(long baseMagnitude, LengthUnit unit) {
+        return new Length(baseMagnitude, unit);
+    }
+
+    /**
+     * Create a column of Lengths to convert and aggregate them in bulk.
+     *
+     * @param magnitudes The magnitudes in {@code unit}, not modified
+     * @param unit The unit of all magnitudes
+     * @return The column
+     * @throws ArithmeticException If a magnitude overflows in the base unit
+     */
+    public static MeasureColumn<Length, LengthUnit> column(long[] magnitudes, LengthUnit unit) {
+        return MeasureColumn.of(ZERO, magnitudes, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Length create(long baseMagnitude, LengthUnit unit) {
+        return new Length(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.util.List;
+
+/**
+ * A LengthUnit defines the units of a {@link Length}, the base unit is millimeter.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @GlossaryTerm
+ */
+public enum LengthUnit implements ScaledBaseUnit<LengthUnit> {
+
+    /** Millimeter. */
+    MM(1, 1L),
+    /** Centimeter. */
+    CM(2, 10L),
+    /** Decimeter. */
+    DM(3, 100L),
+    /** Meter. */
+    M(4, 1_000L),
+    /** Kilometer. */
+    KM(5, 1_000_000L);
+
+    private final short code;
+    private final long factor;
+
+    LengthUnit(int code, long factor) {
+        this.code = (short) code;
+        this.factor = factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFactor() {
+        return factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The list is immutable and cached by the {@link UnitTable}.
+     * </p>
+     */
+    @Override
+    public List<LengthUnit> getAll() {
+        return UnitTable.of(LengthUnit.class).getUnits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LengthUnit getBaseUnit() {
+        return MM;
+    }
+}
\ No newline at end of file
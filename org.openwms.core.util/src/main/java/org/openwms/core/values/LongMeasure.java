@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * A LongMeasure is a {@link Measurable} that stores its magnitude as a primitive {@code
+ * long} of the base unit. Arithmetic, comparison and conversion work on that value and
+ * do not box or allocate anything except the resulting measure. Overflows throw an
+ * {@link ArithmeticException}.
+ * <p>
+ * The unit of a LongMeasure only determines how its magnitude is represented, measures
+ * in different units of the same amount are equal. {@link #getMagnitude()} is kept for
+ * the {@link Measurable} contract, calculations should use {@link #getBaseMagnitude()}
+ * or {@link #doubleValue(ScaledBaseUnit)} instead.
+ * </p>
+ *
+ * @param <E> The concrete type of measure
+ * @param <T> The type of units
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public abstract class LongMeasure<E extends LongMeasure<E, T>, T extends ScaledBaseUnit<T>> implements Measurable<Double, E, T>, Serializable {
+
+    private final long baseMagnitude;
+    private final T unit;
+
+    /**
+     * Create a LongMeasure.
+     *
+     * @param baseMagnitude The magnitude in the base unit
+     * @param unit The unit to represent the magnitude in
+     */
+    protected LongMeasure(long baseMagnitude, T unit) {
+        this.baseMagnitude = baseMagnitude;
+        this.unit = unit;
+    }
+
+    /**
+     * Create a measure of the concrete type.
+     *
+     * @param baseMagnitude The magnitude in the base unit
+     * @param unit The unit to represent the magnitude in
+     * @return The measure
+     */
+    protected abstract E create(long baseMagnitude, T unit);
+
+    /**
+     * Scale a magnitude to the base unit.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit of the magnitude
+     * @return The magnitude in the base unit
+     * @throws ArithmeticException If the result overflows
+     */
+    protected static long toBase(long magnitude, ScaledBaseUnit<?> unit) {
+        return Math.multiplyExact(magnitude, unit.getFactor());
+    }
+
+    /**
+     * Scale a decimal magnitude to the base unit.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit of the magnitude
+     * @return The magnitude in the base unit
+     * @throws ArithmeticException If the result overflows or is a fraction of the base
+     * unit
+     */
+    protected static long toBase(BigDecimal magnitude, ScaledBaseUnit<?> unit) {
+        return magnitude.multiply(BigDecimal.valueOf(unit.getFactor())).longValueExact();
+    }
+
+    /**
+     * Get the magnitude in the base unit.
+     *
+     * @return The magnitude
+     */
+    public long getBaseMagnitude() {
+        return baseMagnitude;
+    }
+
+    /**
+     * Get the magnitude in the unit of this measure.
+     *
+     * @return The magnitude, may be rounded
+     */
+    public double doubleValue() {
+        return doubleValue(unit);
+    }
+
+    /**
+     * Get the magnitude in another unit.
+     *
+     * @param unit The unit
+     * @return The magnitude, may be rounded
+     */
+    public double doubleValue(T unit) {
+        long factor = unit.getFactor();
+        return factor == 1 ? baseMagnitude : (double) baseMagnitude / factor;
+    }
+
+    /**
+     * Get the magnitude in another unit without loss of precision.
+     *
+     * @param unit The unit
+     * @return The magnitude
+     * @throws ArithmeticException If the magnitude is not an integral number of {@code
+     * unit}
+     */
+    public long longValueExact(T unit) {
+        UnitTable<T> table = UnitTable.of(unit);
+        return table.convertExact(baseMagnitude, table.getBaseUnit(), unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T getUnitType() {
+        return unit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Double getMagnitude() {
+        return doubleValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isZero() {
+        return baseMagnitude == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNegative() {
+        return baseMagnitude < 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E convertTo(T unit) {
+        return unit == this.unit ? (E) this : create(baseMagnitude, unit);
+    }
+
+    /**
+     * Add another measure, the result has the unit of this measure.
+     *
+     * @param other The measure to add
+     * @return The sum
+     */
+    public E add(E other) {
+        return create(Math.addExact(baseMagnitude, other.getBaseMagnitude()), unit);
+    }
+
+    /**
+     * Subtract another measure, the result has the unit of this measure.
+     *
+     * @param other The measure to subtract
+     * @return The difference
+     */
+    public E subtract(E other) {
+        return create(Math.subtractExact(baseMagnitude, other.getBaseMagnitude()), unit);
+    }
+
+    /**
+     * Multiply this measure with a scalar.
+     *
+     * @param factor The scalar
+     * @return The product
+     */
+    public E multiply(long factor) {
+        return create(Math.multiplyExact(baseMagnitude, factor), unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(E other) {
+        return Long.compare(baseMagnitude, other.getBaseMagnitude());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Measures of the same type and the same magnitude in the base unit are equal.
+     * </p>
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return baseMagnitude == ((LongMeasure<?, ?>) o).baseMagnitude;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(baseMagnitude);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The magnitude in the unit of this measure followed by the unit, e.g. {@code 1.5 KG}.
+     * </p>
+     */
+    @Override
+    public String toString() {
+        long factor = unit.getFactor();
+        if (baseMagnitude % factor == 0) {
+            return baseMagnitude / factor + " " + unit;
+        }
+        return BigDecimal.valueOf(baseMagnitude).divide(BigDecimal.valueOf(factor), MathContext.DECIMAL64).stripTrailingZeros().toPlainString() + " " + unit;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A MeasureColumn is an immutable array of {@link LongMeasure}s of one type, stored as
+ * primitive {@code long} magnitudes of the base unit and a common unit. It converts and
+ * aggregates whole arrays without creating a measure per element.
+ * <p>
+ * All operations are plain counted loops without branches or calls in their bodies,
+ * that the JIT compiler unrolls and vectorizes. Overflows are detected upfront from the
+ * range of magnitudes, so that the exact and slower arithmetic of {@link Math} is only
+ * used if an overflow is possible.
+ * </p>
+ *
+ * @param <E> The type of measures
+ * @param <T> The type of units
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class MeasureColumn<E extends LongMeasure<E, T>, T extends ScaledBaseUnit<T>> {
+
+    private final E prototype;
+    private final long[] magnitudes;
+    private final T unit;
+
+    private MeasureColumn(E prototype, long[] baseMagnitudes, T unit) {
+        this.prototype = prototype;
+        this.magnitudes = baseMagnitudes;
+        this.unit = unit;
+    }
+
+    /**
+     * Create a MeasureColumn.
+     *
+     * @param prototype Any measure of the type, to create measures from
+     * @param magnitudes The magnitudes in {@code unit}, not modified
+     * @param unit The unit of the magnitudes
+     * @param <E> The type of measures
+     * @param <T> The type of units
+     * @return The MeasureColumn
+     * @throws ArithmeticException If a magnitude overflows in the base unit
+     */
+    static <E extends LongMeasure<E, T>, T extends ScaledBaseUnit<T>> MeasureColumn<E, T> of(E prototype, long[] magnitudes, T unit) {
+        return new MeasureColumn<>(prototype, toBase(magnitudes, unit.getFactor()), unit);
+    }
+
+    private static long[] toBase(long[] magnitudes, long factor) {
+        long[] result = new long[magnitudes.length];
+        if (factor == 1) {
+            System.arraycopy(magnitudes, 0, result, 0, magnitudes.length);
+            return result;
+        }
+        long limit = Long.MAX_VALUE / factor;
+        if (max(magnitudes) > limit || min(magnitudes) < -limit) {
+            for (int i = 0; i < magnitudes.length; i++) {
+                result[i] = Math.multiplyExact(magnitudes[i], factor);
+            }
+        } else {
+            for (int i = 0; i < magnitudes.length; i++) {
+                result[i] = magnitudes[i] * factor;
+            }
+        }
+        return result;
+    }
+
+    private static long min(long[] magnitudes) {
+        long min = Long.MAX_VALUE;
+        for (long magnitude : magnitudes) {
+            min = Math.min(min, magnitude);
+        }
+        return min;
+    }
+
+    private static long max(long[] magnitudes) {
+        long max = Long.MIN_VALUE;
+        for (long magnitude : magnitudes) {
+            max = Math.max(max, magnitude);
+        }
+        return max;
+    }
+
+    /**
+     * Get the number of measures.
+     *
+     * @return The size
+     */
+    public int size() {
+        return magnitudes.length;
+    }
+
+    /**
+     * Get the common unit.
+     *
+     * @return The unit
+     */
+    public T getUnitType() {
+        return unit;
+    }
+
+    /**
+     * Get the measure at a position.
+     *
+     * @param index The position
+     * @return The measure
+     */
+    public E get(int index) {
+        return prototype.create(magnitudes[index], unit);
+    }
+
+    /**
+     * Get a copy of all magnitudes in the base unit.
+     *
+     * @return The magnitudes
+     */
+    public long[] getBaseMagnitudes() {
+        return magnitudes.clone();
+    }
+
+    /**
+     * Get all magnitudes in a unit.
+     *
+     * @param unit The unit
+     * @return The magnitudes, may be rounded
+     */
+    public double[] toDoubleArray(T unit) {
+        double[] result = new double[magnitudes.length];
+        double factor = unit.getFactor();
+        for (int i = 0; i < magnitudes.length; i++) {
+            result[i] = magnitudes[i] / factor;
+        }
+        return result;
+    }
+
+    /**
+     * Convert all measures into another unit. Magnitudes are kept in the base unit, so
+     * the array is shared and not copied.
+     *
+     * @param unit The unit
+     * @return The converted column
+     */
+    public MeasureColumn<E, T> convertTo(T unit) {
+        return unit == this.unit ? this : new MeasureColumn<>(prototype, magnitudes, unit);
+    }
+
+    /**
+     * Sum up all measures.
+     *
+     * @return The sum in the common unit
+     * @throws ArithmeticException If the sum overflows
+     */
+    public E sum() {
+        int n = Math.max(magnitudes.length, 1);
+        long sum = 0;
+        if (max(magnitudes) > Long.MAX_VALUE / n || min(magnitudes) < Long.MIN_VALUE / n) {
+            for (long magnitude : magnitudes) {
+                sum = Math.addExact(sum, magnitude);
+            }
+        } else {
+            for (long magnitude : magnitudes) {
+                sum += magnitude;
+            }
+        }
+        return prototype.create(sum, unit);
+    }
+
+    /**
+     * Get the smallest measure.
+     *
+     * @return The minimum in the common unit
+     * @throws NoSuchElementException If the column is empty
+     */
+    public E min() {
+        checkNotEmpty();
+        return prototype.create(min(magnitudes), unit);
+    }
+
+    /**
+     * Get the largest measure.
+     *
+     * @return The maximum in the common unit
+     * @throws NoSuchElementException If the column is empty
+     */
+    public E max() {
+        checkNotEmpty();
+        return prototype.create(max(magnitudes), unit);
+    }
+
+    /**
+     * Count the measures within a range.
+     *
+     * @param lower The lower bound, inclusive
+     * @param upper The upper bound, inclusive
+     * @return The number of measures within the range
+     */
+    public int count(E lower, E upper) {
+        long low = lower.getBaseMagnitude();
+        long high = upper.getBaseMagnitude();
+        int count = 0;
+        for (long magnitude : magnitudes) {
+            count += magnitude >= low & magnitude <= high ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Find the positions of the measures within a range.
+     *
+     * @param lower The lower bound, inclusive
+     * @param upper The upper bound, inclusive
+     * @return The ascending positions of measures within the range
+     */
+    public int[] filter(E lower, E upper) {
+        long low = lower.getBaseMagnitude();
+        long high = upper.getBaseMagnitude();
+        int[] positions = new int[magnitudes.length];
+        int count = 0;
+        for (int i = 0; i < magnitudes.length; i++) {
+            positions[count] = i;
+            count += magnitudes[i] >= low & magnitudes[i] <= high ? 1 : 0;
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private void checkNotEmpty() {
+        if (magnitudes.length == 0) {
+            throw new NoSuchElementException("The column is empty");
+        }
+    }
+}
\ No newline at end of file
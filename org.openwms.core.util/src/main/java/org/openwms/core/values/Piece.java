@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.math.BigDecimal;
+
+/**
+ * A Piece is an amount of pieces, stored in {@link PieceUnit#PC PC}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @GlossaryTerm
+ */
+public final class Piece extends LongMeasure<Piece, PieceUnit> {
+
+    private static final long serialVersionUID = 1L;
+    /** Zero {@link PieceUnit#PC PC}. */
+    public static final Piece ZERO = new Piece(0, PieceUnit.PC);
+
+    private Piece(long baseMagnitude, PieceUnit unit) {
+        super(baseMagnitude, unit);
+    }
+
+    /**
+     * Create a Piece.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @return The Piece
+     * @throws ArithmeticException If the magnitude overflows in {@link PieceUnit#PC PC}
+     */
+    public static Piece of(long magnitude, PieceUnit unit) {
+        return new Piece(toBase(magnitude, unit), unit);
+    }
+
+    /**
+     * Create a Piece of a decimal magnitude, like {@code 1.5 DOZ}.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @return The Piece
+     * @throws ArithmeticException If the magnitude overflows or is a fraction of {@link
+     * PieceUnit#PC PC}
+     */
+    public static Piece of(BigDecimal magnitude, PieceUnit unit) {
+        return new Piece(toBase(magnitude, unit), unit);
+    }
+
+    /**
+     * Create a Piece of a magnitude in the base unit, like it is stored.
+     *
+     * @param baseMagnitude The magnitude in {@link PieceUnit#PC PC}
+     * @param unit The unit to represent the magnitude in
+     * @return The Piece
+     */
+    public static Piece ofBase(long baseMagnitude, PieceUnit unit) {
+        return new Piece(baseMagnitude, unit);
+    }
+
+    /**
+     * Create a column of Pieces to convert and aggregate them in bulk.
+     *
+     * @param magnitudes The magnitudes in {@code unit}, not modified
+     * @param unit The unit of all magnitudes
+     * @return The column
+     * @throws ArithmeticException If a magnitude overflows in the base unit
+     */
+    public static MeasureColumn<Piece, PieceUnit> column(long[] magnitudes, PieceUnit unit) {
+        return MeasureColumn.of(ZERO, magnitudes, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Piece create(long baseMagnitude, PieceUnit unit) {
+        return new Piece(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
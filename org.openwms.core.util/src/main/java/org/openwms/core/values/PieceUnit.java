@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.util.List;
+
+/**
+ * A PieceUnit defines the units of a {@link Piece}, the base unit is a single piece.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @GlossaryTerm
+ */
+public enum PieceUnit implements ScaledBaseUnit<PieceUnit> {
+
+    /** A single piece. */
+    PC(1, 1L),
+    /** A dozen pieces. */
+    DOZ(2, 12L);
+
+    private final short code;
+    private final long factor;
+
+    PieceUnit(int code, long factor) {
+        this.code = (short) code;
+        this.factor = factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFactor() {
+        return factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The list is immutable and cached by the {@link UnitTable}.
+     * </p>
+     */
+    @Override
+    public List<PieceUnit> getAll() {
+        return UnitTable.of(PieceUnit.class).getUnits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PieceUnit getBaseUnit() {
+        return PC;
+    }
+}
\ No newline at end of file
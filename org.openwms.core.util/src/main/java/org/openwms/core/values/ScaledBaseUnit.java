@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+/**
+ * A ScaledBaseUnit is a {@link BaseUnit} that is an integral multiple of its base unit.
+ * Magnitudes in such units are stored as {@code long} values of the base unit.
+ *
+ * @param <T> Concrete type of BaseUnit
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public interface ScaledBaseUnit<T extends ScaledBaseUnit<T>> extends AbstractBaseUnit<T> {
+
+    /**
+     * Return a code that identifies the unit within its type, e.g. when it is persisted.
+     * Codes must be unique per type and must not change once they are in use.
+     *
+     * @return The code
+     */
+    short getCode();
+
+    /**
+     * Return the number of base units that make up one of this unit.
+     *
+     * @return The factor, 1 for the base unit
+     */
+    long getFactor();
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A UnitTable holds the conversion factors between any two units of one {@link
+ * ScaledBaseUnit} type, so that converting a magnitude is a single lookup and
+ * multiplication. Tables are built once per type from the {@link BaseUnit#getBaseUnit()}
+ * relations and {@link ScaledBaseUnit#getFactor() factors} of all units, and are shared
+ * afterwards. The units must be the constants of an enum with unique {@link
+ * ScaledBaseUnit#getCode() codes}.
+ *
+ * @param <T> The type of units
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public final class UnitTable<T extends ScaledBaseUnit<T>> {
+
+    private static final ClassValue<UnitTable<?>> TABLES = new ClassValue<UnitTable<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected UnitTable<?> computeValue(Class<?> type) {
+            return new UnitTable(type);
+        }
+    };
+    private final List<T> units;
+    private final T baseUnit;
+    private final int size;
+    /** Ratios of all pairs of units, indexed by {@code from * size + to}. */
+    private final double[] ratios;
+    /** Integral factors of all pairs of units, or 0 if {@code to} is larger. */
+    private final long[] multipliers;
+    /** Integral divisors of all pairs of units, or 0 if {@code to} is smaller. */
+    private final long[] divisors;
+    /** Units indexed by their code. */
+    private final Object[] codes;
+
+    private UnitTable(Class<T> type) {
+        T[] constants = type.getEnumConstants();
+        if (constants == null || constants.length == 0) {
+            throw new IllegalArgumentException("Units of type [" + type.getName() + "] must be the constants of an enum");
+        }
+        units = Collections.unmodifiableList(Arrays.asList(constants));
+        baseUnit = constants[0].getBaseUnit();
+        if (baseUnit.getFactor() != 1) {
+            throw new IllegalStateException("The base unit of type [" + type.getName() + "] must have a factor of 1");
+        }
+        size = constants.length;
+        int maxCode = 0;
+        for (T unit : constants) {
+            maxCode = Math.max(maxCode, unit.getCode());
+        }
+        codes = new Object[maxCode + 1];
+        ratios = new double[size * size];
+        multipliers = new long[size * size];
+        divisors = new long[size * size];
+        for (T from : constants) {
+            if (from.getBaseUnit() != baseUnit || from.getFactor() < 1) {
+                throw new IllegalStateException("Unit [" + from + "] of type [" + type.getName() + "] has another base unit or an invalid factor");
+            }
+            if (from.getCode() < 0 || codes[from.getCode()] != null) {
+                throw new IllegalStateException("Unit [" + from + "] of type [" + type.getName() + "] has a negative or duplicate code");
+            }
+            codes[from.getCode()] = from;
+            for (T to : constants) {
+                int index = index(from, to);
+                ratios[index] = (double) from.getFactor() / to.getFactor();
+                multipliers[index] = from.getFactor() % to.getFactor() == 0 ? from.getFactor() / to.getFactor() : 0;
+                divisors[index] = to.getFactor() % from.getFactor() == 0 ? to.getFactor() / from.getFactor() : 0;
+            }
+        }
+    }
+
+    /**
+     * Get the table of a unit type.
+     *
+     * @param type The enum type of units
+     * @param <T> The type of units
+     * @return The shared table
+     * @throws IllegalArgumentException If the type is not an enum
+     * @throws IllegalStateException If the units do not share one base unit with a factor
+     * of 1
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ScaledBaseUnit<T>> UnitTable<T> of(Class<T> type) {
+        return (UnitTable<T>) TABLES.get(type);
+    }
+
+    /**
+     * Get the table of the type of a unit.
+     *
+     * @param unit Any unit of the type
+     * @param <T> The type of units
+     * @return The shared table
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ScaledBaseUnit<T>> UnitTable<T> of(T unit) {
+        return (UnitTable<T>) TABLES.get(((Enum<?>) unit).getDeclaringClass());
+    }
+
+    private int index(T from, T to) {
+        return ((Enum<?>) from).ordinal() * size + ((Enum<?>) to).ordinal();
+    }
+
+    /**
+     * Get all units.
+     *
+     * @return An immutable list of all units in declaration order
+     */
+    public List<T> getUnits() {
+        return units;
+    }
+
+    /**
+     * Get the common base unit.
+     *
+     * @return The base unit
+     */
+    public T getBaseUnit() {
+        return baseUnit;
+    }
+
+    /**
+     * Get a unit by its {@link ScaledBaseUnit#getCode() code}.
+     *
+     * @param code The code
+     * @return The unit
+     * @throws IllegalArgumentException If no unit has the code
+     */
+    @SuppressWarnings("unchecked")
+    public T getUnit(short code) {
+        if (code < 0 || code >= codes.length || codes[code] == null) {
+            throw new IllegalArgumentException("No unit of type [" + baseUnit.getClass().getName() + "] with code [" + code + "]");
+        }
+        return (T) codes[code];
+    }
+
+    /**
+     * Get the number of {@code to} units that make up one {@code from} unit.
+     *
+     * @param from The unit to convert from
+     * @param to The unit to convert to
+     * @return The ratio, may be rounded
+     */
+    public double getRatio(T from, T to) {
+        return ratios[index(from, to)];
+    }
+
+    /**
+     * Convert a magnitude.
+     *
+     * @param magnitude The magnitude in {@code from}
+     * @param from The unit to convert from
+     * @param to The unit to convert to
+     * @return The magnitude in {@code to}, may be rounded
+     */
+    public double convert(double magnitude, T from, T to) {
+        return magnitude * ratios[index(from, to)];
+    }
+
+    /**
+     * Convert a magnitude without loss of precision.
+     *
+     * @param magnitude The magnitude in {@code from}
+     * @param from The unit to convert from
+     * @param to The unit to convert to
+     * @return The magnitude in {@code to}
+     * @throws ArithmeticException If the result overflows or is not integral
+     */
+    public long convertExact(long magnitude, T from, T to) {
+        int index = index(from, to);
+        if (multipliers[index] != 0) {
+            return Math.multiplyExact(magnitude, multipliers[index]);
+        }
+        long divisor = divisors[index];
+        if (divisor == 0) {
+            magnitude = Math.multiplyExact(magnitude, from.getFactor());
+            divisor = to.getFactor();
+        }
+        if (magnitude % divisor != 0) {
+            throw new ArithmeticException(magnitude + " " + from + " is not an integral number of " + to);
+        }
+        return magnitude / divisor;
+    }
+}
\ No newline at end of file
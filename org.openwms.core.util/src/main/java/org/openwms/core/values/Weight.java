@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.math.BigDecimal;
+
+/**
+ * A Weight is the weight of something, stored in {@link WeightUnit#MG MG}.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @GlossaryTerm
+ */
+public final class Weight extends LongMeasure<Weight, WeightUnit> {
+
+    private static final long serialVersionUID = 1L;
+    /** Zero {@link WeightUnit#MG MG}. */
+    public static final Weight ZERO = new Weight(0, WeightUnit.MG);
+
+    private Weight(long baseMagnitude, WeightUnit unit) {
+        super(baseMagnitude, unit);
+    }
+
+    /**
+     * Create a Weight.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @return The Weight
+     * @throws ArithmeticException If the magnitude overflows in {@link WeightUnit#MG MG}
+     */
+    public static Weight of(long magnitude, WeightUnit unit) {
+        return new Weight(toBase(magnitude, unit), unit);
+    }
+
+    /**
+     * Create a Weight of a decimal magnitude, like {@code 1.5 KG}.
+     *
+     * @param magnitude The magnitude in {@code unit}
+     * @param unit The unit
+     * @return The Weight
+     * @throws ArithmeticException If the magnitude overflows or is a fraction of {@link
+     * WeightUnit#MG MG}
+     */
+    public static Weight of(BigDecimal magnitude, WeightUnit unit) {
+        return new Weight(toBase(magnitude, unit), unit);
+    }
+
+    /**
+     * Create a Weight of a magnitude in the base unit, like it is stored.
+     *
+     * @param baseMagnitude The magnitude in {@link WeightUnit#MG MG}
+     * @param unit The unit to represent the magnitude in
+     * @return The Weight
+     */
+    public static Weight ofBase(long baseMagnitude, WeightUnit unit) {
+        return new Weight(baseMagnitude, unit);
+    }
+
+    /**
+     * Create a column of Weights to convert and aggregate them in bulk.
+     *
+     * @param magnitudes The magnitudes in {@code unit}, not modified
+     * @param unit The unit of all magnitudes
+     * @return The column
+     * @throws ArithmeticException If a magnitude overflows in the base unit
+     */
+    public static MeasureColumn<Weight, WeightUnit> column(long[] magnitudes, WeightUnit unit) {
+        return MeasureColumn.of(ZERO, magnitudes, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Weight create(long baseMagnitude, WeightUnit unit) {
+        return new Weight(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
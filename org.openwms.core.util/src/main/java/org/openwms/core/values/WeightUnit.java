@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import java.util.List;
+
+/**
+ * A WeightUnit defines the units of a {@link Weight}, the base unit is milligram.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ * @GlossaryTerm
+ */
+public enum WeightUnit implements ScaledBaseUnit<WeightUnit> {
+
+    /** Milligram. */
+    MG(1, 1L),
+    /** Gram. */
+    G(2, 1_000L),
+    /** Kilogram. */
+    KG(3, 1_000_000L),
+    /** Metric ton. */
+    T(4, 1_000_000_000L);
+
+    private final short code;
+    private final long factor;
+
+    WeightUnit(int code, long factor) {
+        this.code = (short) code;
+        this.factor = factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFactor() {
+        return factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The list is immutable and cached by the {@link UnitTable}.
+     * </p>
+     */
+    @Override
+    public List<WeightUnit> getAll() {
+        return UnitTable.of(WeightUnit.class).getUnits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WeightUnit getBaseUnit() {
+        return MG;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+import org.openwms.core.values.Decimal;
+
+import java.io.Serializable;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * A DecimalType is a Hibernate type that maps a {@link Decimal} to a {@code BIGINT}
+ * column of its unscaled value at a fixed scale, configured with the parameter {@value
+ * #SCALE} and {@value #DEFAULT_SCALE} by default. Values with more fractional digits are
+ * rejected instead of being rounded silently. Because all values of a column share one
+ * scale, range queries and indexes work on the plain integers.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class DecimalType implements UserType, ParameterizedType {
+
+    /** Name of the parameter that defines the scale: {@value} */
+    public static final String SCALE = "scale";
+    /** The scale if no parameter is defined: {@value} */
+    public static final int DEFAULT_SCALE = 6;
+    private static final int[] SQL_TYPES = {Types.BIGINT};
+    private int scale = DEFAULT_SCALE;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException If the scale is not between 0 and {@link
+     * Decimal#MAX_SCALE}
+     */
+    @Override
+    public void setParameterValues(Properties parameters) {
+        if (parameters != null && parameters.getProperty(SCALE) != null) {
+            int value = Integer.parseInt(parameters.getProperty(SCALE));
+            if (value < 0 || value > Decimal.MAX_SCALE) {
+                throw new IllegalArgumentException("The scale must be between 0 and " + Decimal.MAX_SCALE + " but is [" + value + "]");
+            }
+            scale = value;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] sqlTypes() {
+        return SQL_TYPES.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class returnedClass() {
+        return Decimal.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Decimals of the same value are equal, the stored scale is fixed anyway.
+     * </p>
+     */
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode(Object x) {
+        return x.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        long unscaled = rs.getLong(names[0]);
+        return rs.wasNull() ? null : Decimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ArithmeticException If the value has more fractional digits than the
+     * scale or does not fit into a {@code BIGINT}
+     */
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BIGINT);
+        } else {
+            Decimal scaled = ((Decimal) value).setScale(scale, RoundingMode.UNNECESSARY);
+            if (scaled.scale() != scale) {
+                // The unscaled value would be read back at the wrong scale
+                throw new ArithmeticException("The value [" + value + "] cannot be stored with scale [" + scale + "]");
+            }
+            st.setLong(index, scaled.unscaledValueExact());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.openwms.core.values.Length;
+import org.openwms.core.values.LengthUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+/**
+ * An EmbeddedLength stores a {@link Length} in two columns: the magnitude in {@link
+ * LengthUnit#MM MM} as {@code BIGINT} and the unit as {@code SMALLINT} code. Queries on
+ * the magnitude, like all lengths {@code > 5 M}, compare with the magnitude in the base
+ * unit and can use an index on that column.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@Embeddable
+public class EmbeddedLength implements Serializable {
+
+    /** The magnitude in the base unit. */
+    @Column(name = "C_MAGNITUDE")
+    private long baseMagnitude;
+    /** The unit to represent the magnitude in. */
+    @Column(name = "C_UNIT")
+    @Convert(converter = LengthUnitConverter.class)
+    private LengthUnit unit;
+
+    /** Dear JPA... */
+    protected EmbeddedLength() {
+        super();
+    }
+
+    /**
+     * Create a new EmbeddedLength.
+     *
+     * @param length The length to store
+     */
+    public EmbeddedLength(Length length) {
+        super();
+        this.baseMagnitude = length.getBaseMagnitude();
+        this.unit = length.getUnitType();
+    }
+
+    /**
+     * Get the magnitude in the base unit.
+     *
+     * @return The baseMagnitude property
+     */
+    public long getBaseMagnitude() {
+        return baseMagnitude;
+    }
+
+    /**
+     * Get the stored Length.
+     *
+     * @return The Length in its unit
+     */
+    public Length toLength() {
+        return Length.ofBase(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
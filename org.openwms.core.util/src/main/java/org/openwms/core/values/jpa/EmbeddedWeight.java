@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.openwms.core.values.Weight;
+import org.openwms.core.values.WeightUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+/**
+ * An EmbeddedWeight stores a {@link Weight} in two columns: the magnitude in {@link
+ * WeightUnit#MG MG} as {@code BIGINT} and the unit as {@code SMALLINT} code. Queries on
+ * the magnitude, like all weights {@code > 5 KG}, compare with the magnitude in the base
+ * unit and can use an index on that column.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@Embeddable
+public class EmbeddedWeight implements Serializable {
+
+    /** The magnitude in the base unit. */
+    @Column(name = "C_MAGNITUDE")
+    private long baseMagnitude;
+    /** The unit to represent the magnitude in. */
+    @Column(name = "C_UNIT")
+    @Convert(converter = WeightUnitConverter.class)
+    private WeightUnit unit;
+
+    /** Dear JPA... */
+    protected EmbeddedWeight() {
+        super();
+    }
+
+    /**
+     * Create a new EmbeddedWeight.
+     *
+     * @param weight The weight to store
+     */
+    public EmbeddedWeight(Weight weight) {
+        super();
+        this.baseMagnitude = weight.getBaseMagnitude();
+        this.unit = weight.getUnitType();
+    }
+
+    /**
+     * Get the magnitude in the base unit.
+     *
+     * @return The baseMagnitude property
+     */
+    public long getBaseMagnitude() {
+        return baseMagnitude;
+    }
+
+    /**
+     * Get the stored Weight.
+     *
+     * @return The Weight in its unit
+     */
+    public Weight toWeight() {
+        return Weight.ofBase(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
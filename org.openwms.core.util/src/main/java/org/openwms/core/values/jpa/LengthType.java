@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.openwms.core.values.Length;
+import org.openwms.core.values.LengthUnit;
+
+/**
+ * A LengthType is the Hibernate type of {@link Length}s, use it with {@code
+ * @Type(type = "org.openwms.core.values.jpa.LengthType")} and two {@code @Column}s.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class LengthType extends LongMeasureType<Length, LengthUnit> {
+
+    /**
+     * Create a LengthType.
+     */
+    public LengthType() {
+        super(Length.class, LengthUnit.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Length create(long baseMagnitude, LengthUnit unit) {
+        return Length.ofBase(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+import org.hibernate.usertype.CompositeUserType;
+import org.openwms.core.values.LongMeasure;
+import org.openwms.core.values.ScaledBaseUnit;
+import org.openwms.core.values.UnitTable;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * A LongMeasureType is a Hibernate type that maps a {@link LongMeasure} to two columns:
+ * the magnitude in the base unit as {@code BIGINT} and the unit as {@code SMALLINT}
+ * code. Range queries use the property {@code baseMagnitude}, e.g. {@code where
+ * s.weight.baseMagnitude > :mg}, and an index on its column.
+ * <p>
+ * Measures are immutable, so they are neither copied nor compared deeply for dirty
+ * checking, and the columns are always bound with the same JDBC types, which allows
+ * Hibernate to batch inserts and updates.
+ * </p>
+ *
+ * @param <E> The type of measures
+ * @param <T> The type of units
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public abstract class LongMeasureType<E extends LongMeasure<E, T>, T extends ScaledBaseUnit<T>> implements CompositeUserType {
+
+    private static final String[] PROPERTY_NAMES = {"baseMagnitude", "unit"};
+    private static final Type[] PROPERTY_TYPES = {StandardBasicTypes.LONG, StandardBasicTypes.SHORT};
+    private final Class<E> measureType;
+    private final UnitTable<T> units;
+
+    /**
+     * Create a LongMeasureType.
+     *
+     * @param measureType The type of measures
+     * @param unitType The enum type of units
+     */
+    protected LongMeasureType(Class<E> measureType, Class<T> unitType) {
+        this.measureType = measureType;
+        this.units = UnitTable.of(unitType);
+    }
+
+    /**
+     * Create a measure.
+     *
+     * @param baseMagnitude The magnitude in the base unit
+     * @param unit The unit to represent the magnitude in
+     * @return The measure
+     */
+    protected abstract E create(long baseMagnitude, T unit);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getPropertyNames() {
+        return PROPERTY_NAMES.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Type[] getPropertyTypes() {
+        return PROPERTY_TYPES.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getPropertyValue(Object component, int property) {
+        E measure = measureType.cast(component);
+        return property == 0 ? (Object) measure.getBaseMagnitude() : (Object) measure.getUnitType().getCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException Always, measures are immutable
+     */
+    @Override
+    public void setPropertyValue(Object component, int property, Object value) {
+        throw new UnsupportedOperationException("Measures are immutable");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class returnedClass() {
+        return measureType;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Measures are equal if they have the same magnitude and unit, so that changing the
+     * unit only is detected as modification.
+     * </p>
+     */
+    @Override
+    public boolean equals(Object x, Object y) {
+        if (x == y) {
+            return true;
+        }
+        if (x == null || y == null) {
+            return false;
+        }
+        return x.equals(y) && measureType.cast(x).getUnitType() == measureType.cast(y).getUnitType();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode(Object x) {
+        return x.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        long baseMagnitude = rs.getLong(names[0]);
+        if (rs.wasNull()) {
+            return null;
+        }
+        short code = rs.getShort(names[1]);
+        return create(baseMagnitude, rs.wasNull() ? units.getBaseUnit() : units.getUnit(code));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BIGINT);
+            st.setNull(index + 1, Types.SMALLINT);
+        } else {
+            E measure = measureType.cast(value);
+            st.setLong(index, measure.getBaseMagnitude());
+            st.setShort(index + 1, measure.getUnitType().getCode());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Serializable disassemble(Object value, SharedSessionContractImplementor session) {
+        return (Serializable) value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object assemble(Serializable cached, SharedSessionContractImplementor session, Object owner) {
+        return cached;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object replace(Object original, Object target, SharedSessionContractImplementor session, Object owner) {
+        return original;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.openwms.core.values.Piece;
+import org.openwms.core.values.PieceUnit;
+
+/**
+ * A PieceType is the Hibernate type of {@link Piece}s, use it with {@code
+ * @Type(type = "org.openwms.core.values.jpa.PieceType")} and two {@code @Column}s.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class PieceType extends LongMeasureType<Piece, PieceUnit> {
+
+    /**
+     * Create a PieceType.
+     */
+    public PieceType() {
+        super(Piece.class, PieceUnit.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Piece create(long baseMagnitude, PieceUnit unit) {
+        return Piece.ofBase(baseMagnitude, unit);
+    }
+}
\ No newline at end of file
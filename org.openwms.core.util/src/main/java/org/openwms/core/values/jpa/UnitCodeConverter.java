@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.openwms.core.values.ScaledBaseUnit;
+import org.openwms.core.values.UnitTable;
+
+import javax.persistence.AttributeConverter;
+
+/**
+ * An UnitCodeConverter stores a {@link ScaledBaseUnit} as its {@link
+ * ScaledBaseUnit#getCode() code} in a {@code SMALLINT} column.
+ *
+ * @param <T> The type of units
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public abstract class UnitCodeConverter<T extends ScaledBaseUnit<T>> implements AttributeConverter<T, Short> {
+
+    private final UnitTable<T> units;
+
+    /**
+     * Create an UnitCodeConverter.
+     *
+     * @param unitType The enum type of units
+     */
+    protected UnitCodeConverter(Class<T> unitType) {
+        this.units = UnitTable.of(unitType);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Short convertToDatabaseColumn(T unit) {
+        return unit == null ? null : unit.getCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException If no unit has the code
+     */
+    @Override
+    public T convertToEntityAttribute(Short code) {
+        return code == null ? null : units.getUnit(code);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.openwms.core.values.WeightUnit;
+
+import javax.persistence.Converter;
+
+/**
+ * A WeightUnitConverter stores {@link WeightUnit}s as their code, it is applied to all
+ * attributes of that type.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+@Converter(autoApply = true)
+public class WeightUnitConverter extends UnitCodeConverter<WeightUnit> {
+
+    /**
+     * Create a WeightUnitConverter.
+     */
+    public WeightUnitConverter() {
+        super(WeightUnit.class);
+    }
+}
\ No newline at end of file
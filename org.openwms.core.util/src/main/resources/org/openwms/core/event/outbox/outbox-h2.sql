@@ -0,0 +1,14 @@
+CREATE TABLE COR_EVENT_OUTBOX (
+    C_PK BIGINT AUTO_INCREMENT PRIMARY KEY,
+    C_PAYLOAD VARBINARY NOT NULL,
+    C_CREATED_DT TIMESTAMP NOT NULL,
+    C_STATE SMALLINT NOT NULL DEFAULT 0,
+    C_ATTEMPTS INT NOT NULL DEFAULT 0,
+    C_NEXT_ATTEMPT_DT TIMESTAMP NOT NULL,
+    C_CLAIMED_BY VARCHAR(36),
+    C_CLAIMED_UNTIL TIMESTAMP,
+    C_DELIVERED_DT TIMESTAMP
+);
+CREATE INDEX IDX_COR_EVENT_OUTBOX_PENDING ON COR_EVENT_OUTBOX (C_STATE, C_PK);
+CREATE INDEX IDX_COR_EVENT_OUTBOX_CLAIM ON COR_EVENT_OUTBOX (C_CLAIMED_BY);
+CREATE INDEX IDX_COR_EVENT_OUTBOX_DELIVERED ON COR_EVENT_OUTBOX (C_STATE, C_DELIVERED_DT);
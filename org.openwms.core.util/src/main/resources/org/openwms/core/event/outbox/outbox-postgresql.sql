@@ -0,0 +1,14 @@
+CREATE TABLE COR_EVENT_OUTBOX (
+    C_PK BIGSERIAL PRIMARY KEY,
+    C_PAYLOAD BYTEA NOT NULL,
+    C_CREATED_DT TIMESTAMP NOT NULL,
+    C_STATE SMALLINT NOT NULL DEFAULT 0,
+    C_ATTEMPTS INT NOT NULL DEFAULT 0,
+    C_NEXT_ATTEMPT_DT TIMESTAMP NOT NULL,
+    C_CLAIMED_BY VARCHAR(36),
+    C_CLAIMED_UNTIL TIMESTAMP,
+    C_DELIVERED_DT TIMESTAMP
+);
+CREATE INDEX IDX_COR_EVENT_OUTBOX_PENDING ON COR_EVENT_OUTBOX (C_PK) WHERE C_STATE = 0;
+CREATE INDEX IDX_COR_EVENT_OUTBOX_CLAIM ON COR_EVENT_OUTBOX (C_CLAIMED_BY) WHERE C_CLAIMED_BY IS NOT NULL;
+CREATE INDEX IDX_COR_EVENT_OUTBOX_DELIVERED ON COR_EVENT_OUTBOX (C_DELIVERED_DT) WHERE C_STATE = 1;
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.aop;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openwms.core.annotation.FireAfterTransaction;
+import org.openwms.core.event.RoleChangedEvent;
+import org.openwms.core.event.UserChangedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A FireAfterTransactionAspectTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class FireAfterTransactionAspectTest {
+
+    private FireAfterTransactionAspect testee;
+    private TransactionTemplate tx;
+    private List<ApplicationEvent> received;
+    private FireAfterTransaction events;
+
+    @Before
+    public void onBefore() throws NoSuchMethodException {
+        StaticApplicationContext ctx = new StaticApplicationContext();
+        received = new ArrayList<>();
+        ctx.addApplicationListener((ApplicationListener<ApplicationEvent>) received::add);
+        ctx.refresh();
+        testee = new FireAfterTransactionAspect(ctx);
+        tx = new TransactionTemplate(new InMemoryTransactionManager());
+        events = FireAfterTransactionAspectTest.class.getDeclaredMethod("save").getAnnotation(FireAfterTransaction.class);
+    }
+
+    @FireAfterTransaction(events = {UserChangedEvent.class, RoleChangedEvent.class})
+    private void save() {
+    }
+
+    /**
+     * Test method for {@link FireAfterTransactionAspect#fireEvent(Object, FireAfterTransaction)}
+     * without a transaction.
+     */
+    @Test
+    public final void testPublishWithoutTransaction() {
+        testee.fireEvent(this, events);
+
+        assertEquals(2, userEvents().size());
+    }
+
+    /**
+     * Test method for {@link FireAfterTransactionAspect#fireEvent(Object, FireAfterTransaction)}
+     * within a committed transaction.
+     */
+    @Test
+    public final void testPublishOnCommit() {
+        tx.execute(status -> {
+            testee.fireEvent(this, events);
+            assertTrue("Events shall not be published before commit", userEvents().isEmpty());
+            return null;
+        });
+
+        assertEquals(2, userEvents().size());
+    }
+
+    /**
+     * Test method for {@link FireAfterTransactionAspect#fireEvent(Object, FireAfterTransaction)}
+     * within a transaction that is rolled back.
+     */
+    @Test
+    public final void testDiscardOnRollback() {
+        tx.execute(status -> {
+            testee.fireEvent(this, events);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertTrue("Events shall be discarded on rollback", userEvents().isEmpty());
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    /**
+     * Test method for {@link FireAfterTransactionAspect#fireEvent(Object, FireAfterTransaction)}
+     * within a transaction that is suspended by an inner one.
+     */
+    @Test
+    public final void testSuspendedTransaction() {
+        TransactionTemplate inner = new TransactionTemplate(tx.getTransactionManager());
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.execute(status -> {
+            testee.fireEvent(this, events);
+            inner.execute(innerStatus -> {
+                testee.fireEvent(this, events);
+                innerStatus.setRollbackOnly();
+                return null;
+            });
+            assertTrue(userEvents().isEmpty());
+            return null;
+        });
+
+        assertEquals("Only the events of the outer transaction shall be published", 2, userEvents().size());
+    }
+
+    /**
+     * Test method for {@link FireAfterTransactionAspect#fireEvent(Object, FireAfterTransaction)}
+     * with a failing listener.
+     */
+    @Test
+    public final void testFailingListener() {
+        StaticApplicationContext ctx = new StaticApplicationContext();
+        ctx.addApplicationListener((ApplicationListener<UserChangedEvent>) e -> {
+            throw new IllegalStateException("Expected by test");
+        });
+        ctx.addApplicationListener((ApplicationListener<ApplicationEvent>) received::add);
+        ctx.refresh();
+        testee = new FireAfterTransactionAspect(ctx);
+
+        tx.execute(status -> {
+            testee.fireEvent(this, events);
+            return null;
+        });
+
+        assertEquals("A failing listener shall not drop the remaining events", 1, received.stream().filter(e -> e instanceof RoleChangedEvent).count());
+    }
+
+    private List<ApplicationEvent> userEvents() {
+        List<ApplicationEvent> result = new ArrayList<>();
+        for (ApplicationEvent event : received) {
+            if (event instanceof UserChangedEvent || event instanceof RoleChangedEvent) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A transaction manager without a resource that supports suspension.
+     */
+    private static class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return transaction;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.aop;
+
+import org.junit.Test;
+import org.openwms.core.annotation.FireAfterTransaction;
+import org.openwms.core.annotation.FireAfterTransactionAsynchronous;
+import org.openwms.core.event.RoleChangedEvent;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.UserChangedEvent;
+import org.springframework.beans.factory.BeanInitializationException;
+
+import java.util.EventObject;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * A FireAfterTransactionEventsValidatorTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class FireAfterTransactionEventsValidatorTest {
+
+    private final FireAfterTransactionEventsValidator testee = new FireAfterTransactionEventsValidator();
+
+    /**
+     * Test method for {@link FireAfterTransactionEventsValidator#postProcessBeforeInitialization(Object, String)}
+     * with events that can be fired.
+     */
+    @Test
+    public final void testValidEvents() {
+        ValidService bean = new ValidService();
+
+        assertSame(bean, testee.postProcessBeforeInitialization(bean, "validService"));
+    }
+
+    /**
+     * Test method for {@link FireAfterTransactionEventsValidator#postProcessBeforeInitialization(Object, String)}
+     * with an event that has no constructor accepting the source.
+     */
+    @Test(expected = BeanInitializationException.class)
+    public final void testInvalidEvent() {
+        testee.postProcessBeforeInitialization(new InvalidService(), "invalidService");
+    }
+
+    static class ValidService {
+
+        @FireAfterTransaction(events = {UserChangedEvent.class, EventObject.class})
+        public void save() {
+        }
+
+        @FireAfterTransactionAsynchronous(events = RoleChangedEvent.class)
+        public void delete() {
+        }
+    }
+
+    static class InvalidService {
+
+        @FireAfterTransactionAsynchronous(events = StringSourceEvent.class)
+        public void save() {
+        }
+    }
+
+    /**
+     * An event that accepts Strings only.
+     */
+    public static class StringSourceEvent extends RootApplicationEvent {
+
+        public StringSourceEvent(String source) {
+            super(source);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A CoalescingEventPublisherTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class CoalescingEventPublisherTest {
+
+    private SimpleEventDispatcher dispatcher;
+    private CoalescingEventPublisher<RootApplicationEvent> testee;
+    private List<RootApplicationEvent> received;
+
+    @Before
+    public void onBefore() {
+        dispatcher = new SimpleEventDispatcher(new StaticApplicationContext());
+        received = new CopyOnWriteArrayList<>();
+        dispatcher.subscribe(UserChangedEvent.class, received::add);
+        dispatcher.subscribe(ConfigurationChangedEvent.class, received::add);
+        testee = new CoalescingEventPublisher<>(dispatcher, 60_000, 3);
+    }
+
+    @After
+    public void onAfter() {
+        testee.destroy();
+    }
+
+    /**
+     * Test method for {@link CoalescingEventPublisher#publish(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testKeepLatestPerSource() {
+        testee.publish(new UserChangedEvent("a"));
+        UserChangedEvent latest = new UserChangedEvent("a");
+        testee.publish(latest);
+
+        testee.flush();
+
+        assertEquals(1, received.size());
+        assertSame("The latest event of a source shall be dispatched", latest, received.get(0));
+    }
+
+    /**
+     * Test method for {@link CoalescingEventPublisher#publish(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testSingleEventsWithoutCoalesceSources() {
+        UserChangedEvent a = new UserChangedEvent("a");
+        UserChangedEvent b = new UserChangedEvent("b");
+        testee.publish(a);
+        testee.publish(b);
+
+        testee.flush();
+
+        assertEquals("Events of types not annotated shall keep their source", Arrays.asList(a, b), received);
+    }
+
+    /**
+     * Test method for {@link CoalescingEventPublisher#publish(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testBatchWithCoalesceSources() {
+        testee.publish(new ConfigurationChangedEvent("a"));
+        testee.publish(new ConfigurationChangedEvent("b"));
+
+        testee.flush();
+
+        assertEquals(1, received.size());
+        assertTrue(received.get(0) instanceof ConfigurationChangedEvent);
+        assertEquals(Arrays.asList("a", "b"), received.get(0).getSource());
+    }
+
+    /**
+     * Test method for {@link CoalescingEventPublisher#publish(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testMaxEventsCountsDistinctSources() {
+        testee.publish(new UserChangedEvent("a"));
+        testee.publish(new UserChangedEvent("a"));
+        testee.publish(new UserChangedEvent("b"));
+        testee.publish(new UserChangedEvent("b"));
+        assertTrue("Collapsed events shall not count towards max-events", received.isEmpty());
+
+        testee.publish(new UserChangedEvent("c"));
+
+        assertEquals(3, received.size());
+    }
+
+    /**
+     * Test method for {@link CoalescingEventPublisher#flush()}.
+     */
+    @Test
+    public final void testDeliveryInOrder() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.subscribe(RoleChangedEvent.class, e -> {
+            if ("first".equals(e.getSource())) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(e);
+        });
+        RoleChangedEvent first = new RoleChangedEvent("first");
+        RoleChangedEvent second = new RoleChangedEvent("second");
+        testee.publish(first);
+        Thread firstFlush = new Thread(testee::flush);
+        firstFlush.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        testee.publish(second);
+        Thread secondFlush = new Thread(testee::flush);
+        secondFlush.start();
+        secondFlush.join(200);
+        assertTrue("A batch shall not be delivered while a previous one is delivered", received.isEmpty());
+
+        release.countDown();
+        firstFlush.join(5_000);
+        secondFlush.join(5_000);
+        assertEquals(Arrays.asList(first, second), received);
+    }
+}
\ No newline at end of file
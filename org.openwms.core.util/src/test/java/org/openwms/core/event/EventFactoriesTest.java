@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EventObject;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A EventFactoriesTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class EventFactoriesTest {
+
+    /**
+     * Test method for {@link EventFactories#of(Class)}.
+     */
+    @Test
+    public final void testFactoryIsCached() {
+        Function<Object, UserChangedEvent> factory = EventFactories.of(UserChangedEvent.class);
+
+        assertSame(factory, EventFactories.of(UserChangedEvent.class));
+        UserChangedEvent event = factory.apply("source");
+        assertEquals("source", event.getSource());
+        assertNotSame(event, factory.apply("source"));
+    }
+
+    /**
+     * Test method for {@link EventFactories#of(Class)} with an event class without a
+     * suitable constructor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testEventWithoutSourceConstructor() {
+        EventFactories.of(StringSourceEvent.class);
+    }
+
+    /**
+     * Test method for {@link EventFactories#create(Class, Object)} with an event class
+     * that is not visible from the ClassLoader of EventFactories.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public final void testInvisibleEventClass() throws Exception {
+        Class<? extends EventObject> isolated = (Class<? extends EventObject>) new IsolatingClassLoader(IsolatedEvent.class.getName())
+                .loadClass(IsolatedEvent.class.getName());
+        assertNotSame(IsolatedEvent.class, isolated);
+
+        EventObject event = EventFactories.create(isolated, "source");
+
+        assertSame(isolated, event.getClass());
+        assertEquals("source", event.getSource());
+    }
+
+    /**
+     * An event that is loaded by the {@link IsolatingClassLoader}.
+     */
+    public static class IsolatedEvent extends EventObject {
+
+        public IsolatedEvent(Object source) {
+            super(source);
+        }
+    }
+
+    /**
+     * An event that accepts Strings only.
+     */
+    public static class StringSourceEvent extends RootApplicationEvent {
+
+        public StringSourceEvent(String source) {
+            super(source);
+        }
+    }
+
+    /**
+     * Defines one class itself, instead of delegating to its parent.
+     */
+    private static final class IsolatingClassLoader extends ClassLoader {
+
+        private final String isolated;
+
+        IsolatingClassLoader(String isolated) {
+            super(EventFactoriesTest.class.getClassLoader());
+            this.isolated = isolated;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isolated.equals(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = StreamUtils.copyToByteArray(in);
+                        type = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException ioe) {
+                        throw new ClassNotFoundException(name, ioe);
+                    }
+                }
+                return type;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A NonBlockingEventPublisherImplTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class NonBlockingEventPublisherImplTest {
+
+    private NonBlockingEventPublisherImpl<RootApplicationEvent> testee;
+    private SimpleEventDispatcher dispatcher;
+
+    @Before
+    public void onBefore() {
+        dispatcher = new SimpleEventDispatcher(new StaticApplicationContext());
+        testee = new NonBlockingEventPublisherImpl<>(dispatcher, 1, 100, OverflowPolicy.BLOCK, EventDispatchMonitor.NONE);
+    }
+
+    @After
+    public void onAfter() {
+        testee.destroy();
+    }
+
+    /**
+     * Test method for {@link NonBlockingEventPublisherImpl#publish(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testHighPriorityOvertakesLowPriority() throws InterruptedException {
+        List<RootApplicationEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch highReceived = new CountDownLatch(1);
+        CountDownLatch lowReceived = new CountDownLatch(10);
+        dispatcher.subscribe(ReloadFilePreferencesEvent.class, e -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(e);
+            lowReceived.countDown();
+        });
+        dispatcher.subscribe(UserChangedEvent.class, e -> {
+            received.add(e);
+            highReceived.countDown();
+        });
+        for (int i = 0; i < 10; i++) {
+            testee.publish(new ReloadFilePreferencesEvent(i));
+        }
+
+        testee.publish(new UserChangedEvent(this));
+
+        assertTrue("A high priority event shall not wait for queued low priority events", highReceived.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue(lowReceived.await(5, TimeUnit.SECONDS));
+        assertEquals(11, received.size());
+        assertTrue(received.get(0) instanceof UserChangedEvent);
+    }
+}
\ No newline at end of file
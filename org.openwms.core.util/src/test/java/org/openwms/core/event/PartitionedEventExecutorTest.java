@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A PartitionedEventExecutorTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class PartitionedEventExecutorTest {
+
+    private PartitionedEventExecutor testee;
+
+    @After
+    public void onAfter() {
+        if (testee != null) {
+            testee.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link PartitionedEventExecutor#execute(RootApplicationEvent)} with
+     * listeners that leave the interrupt flag set or throw an Error.
+     */
+    @Test
+    public final void testWorkerSurvivesMisbehavingListeners() throws InterruptedException {
+        List<Object> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        testee = new PartitionedEventExecutor("test", 1, 10, OverflowPolicy.BLOCK, event -> {
+            processed.add(event.getSource());
+            if ("interrupt".equals(event.getSource())) {
+                Thread.currentThread().interrupt();
+            } else if ("error".equals(event.getSource())) {
+                throw new AssertionError("Failing listener");
+            } else if ("last".equals(event.getSource())) {
+                done.countDown();
+            }
+        });
+
+        testee.execute(new UserChangedEvent("interrupt"));
+        testee.execute(new UserChangedEvent("error"));
+        testee.execute(new UserChangedEvent("last"));
+
+        assertTrue("The worker shall keep processing events", done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, processed.size());
+    }
+}
\ No newline at end of file
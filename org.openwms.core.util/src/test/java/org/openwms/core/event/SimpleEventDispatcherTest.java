@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.ameba.exception.ServiceLayerException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A SimpleEventDispatcherTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class SimpleEventDispatcherTest {
+
+    private SimpleEventDispatcher testee;
+    private List<RootApplicationEvent> received;
+
+    @Before
+    public void onBefore() {
+        testee = new SimpleEventDispatcher(new StaticApplicationContext());
+        received = new ArrayList<>();
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#dispatch(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testDispatchToSubscriber() {
+        EventListener listener = received::add;
+        testee.subscribe(UserChangedEvent.class, listener);
+        testee.subscribe(UserChangedEvent.class, listener);
+
+        UserChangedEvent event = new UserChangedEvent(this);
+        testee.dispatch(event);
+        testee.dispatch(new RoleChangedEvent(this));
+        testee.dispatch(null);
+
+        assertEquals("A listener subscribed twice shall be called only once", 1, received.size());
+        assertEquals(event, received.get(0));
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#unsubscribe(Class, EventListener)}.
+     */
+    @Test
+    public final void testUnsubscribe() {
+        EventListener listener = received::add;
+        EventListener other = e -> {};
+        testee.subscribe(UserChangedEvent.class, listener);
+        testee.subscribe(UserChangedEvent.class, other);
+        testee.unsubscribe(UserChangedEvent.class, listener);
+        testee.unsubscribe(RoleChangedEvent.class, listener);
+
+        testee.dispatch(new UserChangedEvent(this));
+
+        assertTrue("An unsubscribed listener shall not be called", received.isEmpty());
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#dispatch(RootApplicationEvent)} with
+     * listeners subscribed to a supertype.
+     */
+    @Test
+    public final void testDispatchAlongTypeHierarchy() {
+        EventListener listener = received::add;
+        testee.subscribe(RoleChangedEvent.class, listener);
+        testee.dispatch(new UserChangedEvent(this));
+        assertTrue(received.isEmpty());
+
+        testee.subscribe(RootApplicationEvent.class, listener);
+        testee.dispatch(new UserChangedEvent(this));
+        testee.dispatch(new RoleChangedEvent(this));
+        assertEquals("A listener subscribed to a super- and subtype shall be called once per event", 2, received.size());
+
+        testee.unsubscribe(RootApplicationEvent.class, listener);
+        testee.dispatch(new UserChangedEvent(this));
+        assertEquals("Dispatch table must be invalidated on unsubscribe", 2, received.size());
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#subscribe(Class, String)}.
+     */
+    @Test
+    public final void testSubscribeByBeanName() {
+        StaticApplicationContext ctx = new StaticApplicationContext();
+        int[] instances = new int[1];
+        ctx.registerBean("listener", EventListener.class, () -> {
+            instances[0]++;
+            return received::add;
+        }, bd -> bd.setLazyInit(true));
+        ctx.registerSingleton("noListener", Object.class);
+        ctx.refresh();
+        testee = new SimpleEventDispatcher(ctx);
+
+        testee.subscribe(UserChangedEvent.class, "listener");
+        assertEquals("The bean shall not be resolved before an event is dispatched", 0, instances[0]);
+        testee.dispatch(new UserChangedEvent(this));
+        testee.dispatch(new UserChangedEvent(this));
+        assertEquals(2, received.size());
+
+        testee.unsubscribe(UserChangedEvent.class, "listener");
+        testee.dispatch(new UserChangedEvent(this));
+        assertEquals(2, received.size());
+        assertEquals(1, instances[0]);
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#subscribe(Class, String)} with a bean
+     * that is not an EventListener.
+     */
+    @Test(expected = ServiceLayerException.class)
+    public final void testSubscribeByBeanNameOfWrongType() {
+        StaticApplicationContext ctx = new StaticApplicationContext();
+        ctx.registerSingleton("noListener", Object.class);
+        ctx.refresh();
+        new SimpleEventDispatcher(ctx).subscribe(UserChangedEvent.class, "noListener");
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#subscribeWeakly(Class, EventListener)}.
+     */
+    @Test
+    public final void testSubscribeWeakly() {
+        EventListener listener = received::add;
+        testee.subscribeWeakly(UserChangedEvent.class, listener);
+        testee.subscribeWeakly(UserChangedEvent.class, listener);
+        testee.dispatch(new UserChangedEvent(this));
+        assertEquals(1, received.size());
+
+        testee.unsubscribe(UserChangedEvent.class, listener);
+        testee.dispatch(new UserChangedEvent(this));
+        assertEquals(1, received.size());
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#subscribe(Class, String)} and {@link
+     * SimpleEventDispatcher#subscribe(Class, EventListener)} with the same bean.
+     */
+    @Test
+    public final void testSubscribeByNameAndInstance() {
+        StaticApplicationContext ctx = new StaticApplicationContext();
+        EventListener listener = received::add;
+        ctx.getBeanFactory().registerSingleton("listener", listener);
+        ctx.refresh();
+        testee = new SimpleEventDispatcher(ctx);
+        testee.subscribe(RootApplicationEvent.class, "listener");
+        testee.subscribe(UserChangedEvent.class, listener);
+
+        testee.dispatch(new UserChangedEvent(this));
+
+        assertEquals("A bean subscribed by name and as instance shall be called only once", 1, received.size());
+    }
+
+    /**
+     * Test method for {@link SimpleEventDispatcher#subscribeWeakly(Class, EventListener)}
+     * with a listener that has been garbage collected.
+     */
+    @Test
+    public final void testPurgeCollectedListener() throws InterruptedException {
+        EventListener listener = received::add;
+        WeakReference<EventListener> probe = new WeakReference<>(listener);
+        testee.subscribeWeakly(UserChangedEvent.class, listener);
+        assertEquals(1, testee.countSubscriptions(UserChangedEvent.class));
+
+        listener = null;
+        for (int i = 0; i < 50 && probe.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull("The listener shall have been collected", probe.get());
+        for (int i = 0; i < 50 && testee.countSubscriptions(UserChangedEvent.class) > 0; i++) {
+            // the reference is enqueued asynchronously after it has been cleared
+            Thread.sleep(20);
+            testee.dispatch(new UserChangedEvent(this));
+        }
+
+        assertTrue(received.isEmpty());
+        assertEquals("The subscription of a collected listener shall be purged", 0, testee.countSubscriptions(UserChangedEvent.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A ThreadPerListenerInvokerTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class ThreadPerListenerInvokerTest {
+
+    private ThreadPerListenerInvoker testee;
+
+    @After
+    public void onAfter() {
+        testee.destroy();
+    }
+
+    /**
+     * Test method for {@link ThreadPerListenerInvoker#invoke(EventListener[], RootApplicationEvent, EventDispatchMonitor)}
+     * with a failing listener.
+     */
+    @Test
+    public final void testFailingListener() throws InterruptedException {
+        testee = new ThreadPerListenerInvoker(0, true);
+        CountDownLatch called = new CountDownLatch(1);
+        EventListener failing = e -> {
+            throw new IllegalStateException("Expected by test");
+        };
+
+        testee.invoke(new EventListener[]{failing, e -> called.countDown()}, new UserChangedEvent(this), EventDispatchMonitor.NONE);
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test method for {@link ThreadPerListenerInvoker#invoke(EventListener[], RootApplicationEvent, EventDispatchMonitor)}
+     * with a listener that exceeds the timeout.
+     */
+    @Test
+    public final void testTimeout() throws InterruptedException {
+        testee = new ThreadPerListenerInvoker(50, false);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        EventListener slow = e -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ie) {
+                interrupted.countDown();
+            }
+        };
+
+        testee.invoke(new EventListener[]{slow}, new UserChangedEvent(this), EventDispatchMonitor.NONE);
+
+        assertTrue("A listener exceeding the timeout shall be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test method for {@link ThreadPerListenerInvoker#invoke(EventListener[], RootApplicationEvent, EventDispatchMonitor)}
+     * with listeners that finish before the timeout.
+     */
+    @Test
+    public final void testTimeoutCancelledOnCompletion() throws InterruptedException {
+        testee = new ThreadPerListenerInvoker(60_000, false);
+        CountDownLatch called = new CountDownLatch(100);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        EventListener listener = e -> {
+            interrupted.compareAndSet(false, Thread.currentThread().isInterrupted());
+            called.countDown();
+        };
+        for (int i = 0; i < 100; i++) {
+            testee.invoke(new EventListener[]{listener}, new UserChangedEvent(this), EventDispatchMonitor.NONE);
+        }
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!testee.watchdog.getQueue().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Timeouts of finished listeners shall be removed", testee.watchdog.getQueue().isEmpty());
+    }
+}
\ No newline at end of file
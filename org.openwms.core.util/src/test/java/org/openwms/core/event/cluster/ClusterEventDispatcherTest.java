@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.cluster;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openwms.core.event.ConfigurationChangedEvent;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.SimpleEventDispatcher;
+import org.openwms.core.event.UserChangedEvent;
+import org.openwms.core.event.codec.CodecRegistry;
+import org.openwms.core.event.codec.EventCodec;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A ClusterEventDispatcherTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class ClusterEventDispatcherTest {
+
+    private final List<ClusterEventDispatcher> nodes = new ArrayList<>();
+
+    @After
+    public void onAfter() {
+        nodes.forEach(ClusterEventDispatcher::shutdown);
+    }
+
+    /**
+     * Test method for {@link ClusterEventDispatcher#dispatch(RootApplicationEvent)}.
+     */
+    @Test
+    public final void testRoundTrip() {
+        LoopbackEventTransport transportA = new LoopbackEventTransport();
+        LoopbackEventTransport transportB = new LoopbackEventTransport();
+        transportA.connect(transportB);
+        List<RootApplicationEvent> receivedA = new ArrayList<>();
+        List<RootApplicationEvent> receivedB = new ArrayList<>();
+        ClusterEventDispatcher nodeA = node(transportA, receivedA);
+        node(transportB, receivedB);
+
+        nodeA.dispatch(new UserChangedEvent("user"));
+        nodeA.dispatch(new ConfigurationChangedEvent(12L));
+
+        assertEquals(2, receivedA.size());
+        assertEquals(2, receivedB.size());
+        assertTrue(receivedB.get(0) instanceof UserChangedEvent);
+        assertEquals("user", receivedB.get(0).getSource());
+        assertTrue(receivedB.get(1) instanceof ConfigurationChangedEvent);
+        assertEquals(12L, receivedB.get(1).getSource());
+    }
+
+    /**
+     * Test method for {@link ClusterEventDispatcher#dispatch(RootApplicationEvent)} with a
+     * transport that delivers batches to the sender and more than once.
+     */
+    @Test
+    public final void testNoSelfEcho() {
+        LoopbackEventTransport transportB = new LoopbackEventTransport();
+        EchoTransport transportA = new EchoTransport(transportB);
+        List<RootApplicationEvent> receivedA = new ArrayList<>();
+        List<RootApplicationEvent> receivedB = new ArrayList<>();
+        ClusterEventDispatcher nodeA = node(transportA, receivedA);
+        node(transportB, receivedB);
+
+        nodeA.dispatch(new UserChangedEvent("user"));
+
+        assertEquals("An event shall not be dispatched again at its origin", 1, receivedA.size());
+        assertEquals("A batch delivered twice shall be dispatched once", 1, receivedB.size());
+    }
+
+    /**
+     * Test method for {@link ClusterEventDispatcher#dispatch(RootApplicationEvent)} with a
+     * source that has no registered codec.
+     */
+    @Test
+    public final void testSerializationOptIn() {
+        LoopbackEventTransport transportA = new LoopbackEventTransport();
+        LoopbackEventTransport transportB = new LoopbackEventTransport();
+        transportA.connect(transportB);
+        List<RootApplicationEvent> receivedB = new ArrayList<>();
+        ClusterEventDispatcher nodeA = node(transportA, new ArrayList<>());
+        node(transportB, receivedB);
+
+        nodeA.dispatch(new UserChangedEvent(new BigDecimal("1.5")));
+        assertTrue("Java serialization shall be disabled by default", receivedB.isEmpty());
+
+        LoopbackEventTransport transportC = new LoopbackEventTransport();
+        LoopbackEventTransport transportD = new LoopbackEventTransport();
+        transportC.connect(transportD);
+        List<RootApplicationEvent> receivedD = new ArrayList<>();
+        ClusterEventDispatcher nodeC = node(transportC, new ArrayList<>(), withSerialization());
+        node(transportD, receivedD, withSerialization());
+
+        nodeC.dispatch(new UserChangedEvent(new BigDecimal("1.5")));
+        assertEquals(1, receivedD.size());
+        assertEquals(new BigDecimal("1.5"), receivedD.get(0).getSource());
+    }
+
+    private ClusterEventDispatcher node(EventTransport transport, List<RootApplicationEvent> received) {
+        return add(new ClusterEventDispatcher(dispatcher(received), transport, 1, 60_000));
+    }
+
+    private ClusterEventDispatcher node(EventTransport transport, List<RootApplicationEvent> received, EventCodec codec) {
+        return add(new ClusterEventDispatcher(dispatcher(received), transport, 1, 60_000, codec));
+    }
+
+    private ClusterEventDispatcher add(ClusterEventDispatcher node) {
+        nodes.add(node);
+        return node;
+    }
+
+    private static SimpleEventDispatcher dispatcher(List<RootApplicationEvent> received) {
+        SimpleEventDispatcher dispatcher = new SimpleEventDispatcher(new StaticApplicationContext());
+        dispatcher.subscribe(RootApplicationEvent.class, received::add);
+        return dispatcher;
+    }
+
+    private static EventCodec withSerialization() {
+        CodecRegistry registry = new CodecRegistry();
+        registry.registerSerializable(BigDecimal.class);
+        return new EventCodec(registry);
+    }
+
+    /**
+     * Passes each batch to the sender itself and twice to the peer.
+     */
+    private static class EchoTransport implements EventTransport {
+
+        private final LoopbackEventTransport peer = new LoopbackEventTransport();
+        private Consumer<byte[]> receiver;
+
+        EchoTransport(LoopbackEventTransport other) {
+            peer.connect(other);
+        }
+
+        @Override
+        public void send(byte[] batch) {
+            receiver.accept(batch);
+            peer.send(batch);
+            peer.send(batch);
+        }
+
+        @Override
+        public void setReceiver(Consumer<byte[]> receiver) {
+            this.receiver = receiver;
+        }
+    }
+}
\ No newline at end of file
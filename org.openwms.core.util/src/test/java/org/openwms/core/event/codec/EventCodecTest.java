@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.codec;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openwms.core.event.ConfigurationChangedEvent;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.RootNotification;
+import org.openwms.core.event.UserChangedEvent;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A EventCodecTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class EventCodecTest {
+
+    private EventCodec testee;
+
+    @Before
+    public void onBefore() {
+        testee = new EventCodec(new CodecRegistry(), new BufferPool(16, 1, false));
+    }
+
+    /**
+     * Test method for {@link EventCodec#encode(RootApplicationEvent)} with built-in codecs.
+     */
+    @Test
+    public final void testRoundTripOfBuiltInTypes() throws IOException {
+        List<Object> source = Arrays.asList("\u00c4nderung", 42L, 7, true, null, new RootNotification(new ArrayList<>(Collections.singletonList("data"))));
+
+        RootApplicationEvent decoded = testee.decode(testee.encode(new UserChangedEvent(source)));
+
+        assertEquals(UserChangedEvent.class, decoded.getClass());
+        assertEquals(6, ((List<?>) decoded.getSource()).size());
+        assertEquals(source.subList(0, 5), ((List<?>) decoded.getSource()).subList(0, 5));
+        assertEquals(Collections.singletonList("data"), ((RootNotification) ((List<?>) decoded.getSource()).get(5)).getData());
+    }
+
+    /**
+     * Test method for {@link CodecRegistry#register(int, Class, ValueCodec)}.
+     */
+    @Test
+    public final void testRegisteredCodecIsPreferredOverSerialization() throws IOException {
+        testee.getRegistry().registerSerializable(BigDecimal.class);
+        byte[] serialized = testee.encode(new ConfigurationChangedEvent(new BigDecimal("12.50")));
+        testee.getRegistry().register(CodecRegistry.FIRST_CUSTOM_TAG, BigDecimal.class, new ValueCodec<BigDecimal>() {
+            @Override
+            public void write(BigDecimal value, ByteBuffer buffer, CodecRegistry registry) {
+                buffer.putLong(value.unscaledValue().longValue()).put((byte) value.scale());
+            }
+
+            @Override
+            public BigDecimal read(ByteBuffer buffer, CodecRegistry registry) {
+                return BigDecimal.valueOf(buffer.getLong(), buffer.get());
+            }
+        });
+
+        byte[] encoded = testee.encode(new ConfigurationChangedEvent(new BigDecimal("12.50")));
+
+        assertTrue(encoded.length < serialized.length);
+        assertEquals(new BigDecimal("12.50"), testee.decode(encoded).getSource());
+        assertEquals(new BigDecimal("12.50"), testee.decode(serialized).getSource());
+    }
+
+    /**
+     * Test method for {@link EventCodec#write(RootApplicationEvent, ByteBuffer)}.
+     */
+    @Test
+    public final void testWriteIntoBufferAndEncodeAreEqual() throws IOException {
+        UserChangedEvent event = new UserChangedEvent("a rather long source that exceeds the pooled buffer");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        testee.write(event, buffer);
+        buffer.flip();
+        byte[] written = new byte[buffer.remaining()];
+        buffer.duplicate().get(written);
+
+        assertArrayEquals(testee.encode(event), written);
+        assertEquals(event.getSource(), testee.read(buffer).getSource());
+    }
+
+    /**
+     * Test method for {@link EventCodec#decode(byte[])}.
+     */
+    @Test(expected = IOException.class)
+    public final void testDecodeUnknownEventId() throws IOException {
+        testee.decode(new byte[]{0x7F, 0x7F, 0});
+    }
+
+    /**
+     * Test method for {@link EventCodec#encode(RootApplicationEvent)} with a source that is
+     * Serializable but not registered.
+     */
+    @Test
+    public final void testUnregisteredSerializableIsNotEncodable() {
+        UserChangedEvent event = new UserChangedEvent(new BigDecimal("1.5"));
+
+        assertFalse(testee.isEncodable(event));
+        try {
+            testee.encode(event);
+            fail("Java serialization shall require registration");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Test method for {@link EventCodec#decode(byte[])} of a serialized value whose type is
+     * not registered on the reading side.
+     */
+    @Test(expected = IOException.class)
+    public final void testDecodeUnregisteredSerializable() throws IOException {
+        testee.getRegistry().registerSerializable(BigDecimal.class);
+        byte[] encoded = testee.encode(new UserChangedEvent(new BigDecimal("1.5")));
+
+        new EventCodec().decode(encoded);
+    }
+
+    /**
+     * Test method for {@link EventCodec#decode(byte[])} of a registered type that refers
+     * to objects of other types.
+     */
+    @Test
+    public final void testDecodeNestedTypes() throws IOException {
+        testee.getRegistry().registerSerializable(Holder.class);
+
+        Holder values = new Holder(new Object[]{42L, new BigDecimal("1.5"), new int[]{1, 2}, new Holder("nested")});
+        Object[] decoded = (Object[]) ((Holder) testee.decode(testee.encode(new UserChangedEvent(values))).getSource()).value;
+        assertEquals(42L, decoded[0]);
+        assertEquals(new BigDecimal("1.5"), decoded[1]);
+        assertArrayEquals(new int[]{1, 2}, (int[]) decoded[2]);
+        assertEquals("nested", ((Holder) decoded[3]).value);
+
+        byte[] unregistered = testee.encode(new UserChangedEvent(new Holder(new ArrayList<>(Collections.singletonList("element")))));
+        try {
+            testee.decode(unregistered);
+            fail("Nested types shall require registration");
+        } catch (IOException expected) {
+            // expected
+        }
+        testee.getRegistry().registerSerializable(ArrayList.class);
+        assertEquals(Collections.singletonList("element"), ((Holder) testee.decode(unregistered).getSource()).value);
+    }
+
+    private static final class Holder implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final Object value;
+
+        Holder(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Test method for {@link EventCodec#encode(RootApplicationEvent)} with an event that
+     * exceeds the pooled buffer.
+     */
+    @Test
+    public final void testPooledBufferReturnedWhenGrowing() throws IOException {
+        BufferPool pool = new BufferPool(16, 1, false);
+        testee = new EventCodec(new CodecRegistry(), pool);
+        ByteBuffer pooled = pool.acquire();
+        pool.release(pooled);
+
+        testee.encode(new UserChangedEvent("a rather long source that exceeds the pooled buffer"));
+
+        assertSame("The pooled buffer shall be returned", pooled, pool.acquire());
+    }
+
+    /**
+     * Test method for {@link EventCodec#encode(RootApplicationEvent)} with lengths that
+     * are written at the end of the pooled buffer.
+     */
+    @Test
+    public final void testLengthAtBufferBoundary() throws IOException {
+        testee.getRegistry().registerSerializable(BigDecimal.class);
+        for (int padding = 0; padding < 40; padding++) {
+            char[] chars = new char[padding];
+            Arrays.fill(chars, 'x');
+            List<Object> source = Arrays.asList(new String(chars), "value", new BigDecimal("1.5"));
+
+            assertEquals(source, testee.decode(testee.encode(new UserChangedEvent(source))).getSource());
+        }
+    }
+}
\ No newline at end of file
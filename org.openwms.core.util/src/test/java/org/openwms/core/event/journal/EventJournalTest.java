@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openwms.core.event.RoleChangedEvent;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.UserChangedEvent;
+import org.openwms.core.event.codec.EventCodec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A EventJournalTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class EventJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+    private EventJournal testee;
+    private List<RootApplicationEvent> replayed;
+
+    @Before
+    public void onBefore() throws IOException {
+        directory = folder.getRoot().toPath();
+        testee = new EventJournal(directory, 128, new EventCodec());
+        replayed = new ArrayList<>();
+    }
+
+    @After
+    public void onAfter() throws IOException {
+        testee.close();
+    }
+
+    /**
+     * Test method for {@link EventJournal#replay(long, Class, org.openwms.core.event.EventListener)}.
+     */
+    @Test
+    public final void testReplayFromOffsetAcrossSegments() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, testee.append(new UserChangedEvent("user" + i)));
+        }
+        testee.append(new RoleChangedEvent("role"));
+
+        long next = testee.replay(15, UserChangedEvent.class, replayed::add);
+
+        assertEquals(21, next);
+        assertEquals(5, replayed.size());
+        assertEquals("user15", replayed.get(0).getSource());
+        assertEquals("user19", replayed.get(4).getSource());
+    }
+
+    /**
+     * Test method for {@link EventJournal#EventJournal(Path, int, EventCodec)}.
+     */
+    @Test
+    public final void testRecoverAfterReopen() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            testee.append(new UserChangedEvent("user" + i));
+        }
+        testee.close();
+
+        testee = new EventJournal(directory, 128, new EventCodec());
+        assertEquals(10, testee.getNextOffset());
+        assertEquals(10, testee.append(new UserChangedEvent("user10")));
+        testee.replay(0, RootApplicationEvent.class, replayed::add);
+        assertEquals(11, replayed.size());
+    }
+
+    /**
+     * Test method for {@link EventJournal#compact()}.
+     */
+    @Test
+    public final void testCompactKeepsLatestPerTypeAndSource() throws IOException {
+        for (int i = 0; i < 30; i++) {
+            testee.append(new UserChangedEvent("user" + (i % 3)));
+            testee.append(new RoleChangedEvent("user" + (i % 3)));
+        }
+        testee.compact();
+
+        testee.replay(0, RootApplicationEvent.class, replayed::add);
+        assertEquals(60, testee.getNextOffset());
+        assertTrue(replayed.size() < 60);
+        Set<String> keys = new HashSet<>();
+        replayed.forEach(e -> keys.add(e.getClass().getSimpleName() + e.getSource()));
+        assertEquals(6, keys.size());
+        RootApplicationEvent last = replayed.get(replayed.size() - 1);
+        assertTrue(last instanceof RoleChangedEvent);
+        assertEquals("user2", last.getSource());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.event.outbox;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openwms.core.event.RootApplicationEvent;
+import org.openwms.core.event.SimpleEventDispatcher;
+import org.openwms.core.event.UserChangedEvent;
+import org.openwms.core.event.codec.EventCodec;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * An OutboxRelayTest runs the relay against the H2 schema of the outbox.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class OutboxRelayTest {
+
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbcTemplate;
+    private EventCodec codec;
+    private JdbcEventOutbox outbox;
+    private SimpleEventDispatcher dispatcher;
+    private List<RootApplicationEvent> received;
+
+    @Before
+    public void onBefore() {
+        db = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:org/openwms/core/event/outbox/outbox-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(db);
+        codec = new EventCodec();
+        outbox = new JdbcEventOutbox(jdbcTemplate, codec);
+        dispatcher = new SimpleEventDispatcher(new StaticApplicationContext());
+        received = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.subscribe(UserChangedEvent.class, received::add);
+    }
+
+    @After
+    public void onAfter() {
+        db.shutdown();
+    }
+
+    /**
+     * Test method for {@link OutboxRelay#relay()}.
+     */
+    @Test
+    public final void testRelay() {
+        for (int i = 0; i < 5; i++) {
+            outbox.append(new UserChangedEvent("user" + i));
+        }
+        OutboxRelay testee = relay(2, 10, 60_000);
+
+        assertEquals(5, testee.relay());
+        assertEquals(5, received.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("user" + i, received.get(i).getSource());
+        }
+        assertEquals("Delivered events shall not be relayed again", 0, testee.relay());
+        assertEquals(5, count("C_STATE = 1"));
+    }
+
+    /**
+     * Test method for {@link OutboxRelay#relay()} with a source type registered on the
+     * shared codec.
+     */
+    @Test
+    public final void testRelayRegisteredSource() {
+        codec.getRegistry().registerSerializable(BigDecimal.class);
+        outbox.append(new UserChangedEvent(new BigDecimal("12.50")));
+
+        assertEquals(1, relay(10, 10, 60_000).relay());
+        assertEquals(new BigDecimal("12.50"), received.get(0).getSource());
+    }
+
+    /**
+     * Test method for {@link JdbcEventOutbox#claimPending(int, long)}.
+     */
+    @Test
+    public final void testClaimedEntriesAreSkipped() {
+        outbox.append(new UserChangedEvent("user"));
+        assertEquals(1, outbox.claimPending(10, 60_000).size());
+
+        assertEquals("Entries claimed by another relay shall be skipped", 0, relay(10, 10, 60_000).relay());
+        assertTrue(received.isEmpty());
+    }
+
+    /**
+     * Test method for {@link OutboxRelay#relay()} with relays of several nodes.
+     */
+    @Test
+    public final void testConcurrentRelays() throws InterruptedException {
+        int events = 500;
+        for (int i = 0; i < events; i++) {
+            outbox.append(new UserChangedEvent("user" + i));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> relays = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            OutboxRelay relay = relay(20, 10, 60_000);
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                    while (count("C_STATE = 0") > 0) {
+                        relay.relay();
+                    }
+                } catch (InterruptedException | RuntimeException e) {
+                    failed.set(true);
+                }
+            });
+            t.start();
+            relays.add(t);
+        }
+        start.countDown();
+        for (Thread t : relays) {
+            t.join(30_000);
+        }
+
+        assertTrue(!failed.get());
+        assertEquals(events, received.size());
+        Set<Object> sources = new HashSet<>();
+        received.forEach(e -> sources.add(e.getSource()));
+        assertEquals("Each event shall be dispatched by exactly one relay", events, sources.size());
+    }
+
+    /**
+     * Test method for {@link OutboxRelay#relay()} with a failing listener.
+     */
+    @Test
+    public final void testRetryAndDeadLetter() {
+        dispatcher.subscribe(UserChangedEvent.class, e -> {
+            throw new IllegalStateException("Expected by test");
+        });
+        outbox.append(new UserChangedEvent("user"));
+
+        OutboxRelay delayed = relay(10, 3, 60_000);
+        assertEquals(0, delayed.relay());
+        assertEquals("A failed entry shall stay pending", 1, count("C_STATE = 0 AND C_ATTEMPTS = 1"));
+        delayed.relay();
+        assertEquals("A failed entry shall not be retried before its next attempt", 1, received.size());
+
+        jdbcTemplate.update("UPDATE " + JdbcEventOutbox.TABLE + " SET C_NEXT_ATTEMPT_DT = C_CREATED_DT");
+        OutboxRelay testee = relay(10, 3, 0);
+        testee.relay();
+        assertEquals(1, count("C_STATE = 0 AND C_ATTEMPTS = 2"));
+        testee.relay();
+        assertEquals("The entry shall be dead after max attempts", 1, count("C_STATE = 2 AND C_ATTEMPTS = 3"));
+        testee.relay();
+        assertEquals(3, received.size());
+    }
+
+    /**
+     * Test method for {@link OutboxRelay#relay()} with an entry that cannot be decoded.
+     */
+    @Test
+    public final void testUndecodableEntry() {
+        jdbcTemplate.update("INSERT INTO " + JdbcEventOutbox.TABLE + " (C_PAYLOAD, C_CREATED_DT, C_NEXT_ATTEMPT_DT) VALUES (?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", (Object) new byte[]{0x7F});
+        outbox.append(new UserChangedEvent("user"));
+
+        assertEquals(1, relay(10, 3, 0).relay());
+        assertEquals(1, count("C_STATE = 2"));
+        assertEquals(1, received.size());
+    }
+
+    /**
+     * Test method for {@link OutboxRelay#purge()}.
+     */
+    @Test
+    public final void testPurge() {
+        outbox.append(new UserChangedEvent("user1"));
+        outbox.append(new UserChangedEvent("user2"));
+        relay(10, 3, 0).relay();
+        outbox.append(new UserChangedEvent("user3"));
+        jdbcTemplate.update("UPDATE " + JdbcEventOutbox.TABLE + " SET C_DELIVERED_DT = DATEADD('DAY', -2, C_DELIVERED_DT) WHERE C_STATE = 1");
+
+        assertEquals(2, relay(10, 3, 0).purge());
+        assertEquals("Pending entries shall be kept", 1, count("C_STATE = 0"));
+        assertEquals(0, relay(10, 3, 0).purge());
+    }
+
+    private OutboxRelay relay(int batchSize, int maxAttempts, long retryDelayMillis) {
+        return new OutboxRelay(outbox, dispatcher, codec, batchSize, 1000, RelayStrategy.POLLING, 60_000, maxAttempts, retryDelayMillis, 86_400_000);
+    }
+
+    private int count(String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + JdbcEventOutbox.TABLE + " WHERE " + condition, Integer.class);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * An AggregatingTreeNodeTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class AggregatingTreeNodeTest {
+
+    private static final TreeAggregate.Group<Integer, Long> FREE = TreeAggregate.count(capacity -> capacity > 0);
+    private static final TreeAggregate<Integer, Integer> MAX = TreeAggregate.of(0, capacity -> capacity, Math::max);
+    private AggregatingTreeNode<Integer> root;
+
+    @Before
+    public void onBefore() {
+        root = new AggregatingTreeNode<>();
+        for (int area = 0; area < 3; area++) {
+            AggregatingTreeNode<Integer> areaNode = new AggregatingTreeNode<>();
+            root.addChild("area" + area, areaNode);
+            for (int bin = 0; bin < 10; bin++) {
+                areaNode.addChild(bin, node(bin % 3 == 0 ? 0 : bin));
+            }
+        }
+        root.register(FREE);
+        root.register(MAX);
+    }
+
+    private static AggregatingTreeNode<Integer> node(Integer data) {
+        AggregatingTreeNode<Integer> node = new AggregatingTreeNode<>();
+        node.setData(data);
+        return node;
+    }
+
+    private static long free(TreeNode<Integer> node) {
+        return TreeNodes.fold(node, 0L, (count, capacity) -> capacity != null && capacity > 0 ? count + 1 : count, Long::sum);
+    }
+
+    private static int max(TreeNode<Integer> node) {
+        Optional<Integer> max = TreeNodes.depthFirst(node, false).map(TreeNode::getData).filter(d -> d != null).max(Integer::compare);
+        return max.orElse(0);
+    }
+
+    private void assertAggregates() {
+        TreeNodes.depthFirst(root, false).forEach(node -> {
+            assertEquals(free(node), (long) ((AggregatingTreeNode<Integer>) node).getAggregate(FREE));
+            assertEquals(max(node), (int) ((AggregatingTreeNode<Integer>) node).getAggregate(MAX));
+        });
+    }
+
+    /**
+     * Test method for {@link AggregatingTreeNode#register(TreeAggregate)}.
+     */
+    @Test
+    public final void testRegister() {
+        assertEquals(18L, (long) root.getAggregate(FREE));
+        assertEquals(8, (int) root.getAggregate(MAX));
+        assertAggregates();
+    }
+
+    /**
+     * Test method for {@link AggregatingTreeNode#setData(Object)}.
+     */
+    @Test
+    public final void testSetData() {
+        root.getChild("area1").getChild(8).setData(0);
+        assertEquals(17L, (long) root.getAggregate(FREE));
+        assertEquals(8, (int) root.getAggregate(MAX));
+
+        root.getChild("area1").getChild(0).setData(42);
+        root.getChild("area2").getChild(4).setData(null);
+        assertEquals(42, (int) root.getAggregate(MAX));
+        assertAggregates();
+    }
+
+    /**
+     * Test method for {@link AggregatingTreeNode#addChild(Object, TreeNode)} and {@link
+     * AggregatingTreeNode#removeChild(Object)}.
+     */
+    @Test
+    public final void testAddAndRemoveChild() {
+        TreeNode<Integer> area = root.getChild("area0");
+        root.removeChild("area0");
+        assertEquals(12L, (long) root.getAggregate(FREE));
+        assertEquals(6L, (long) ((AggregatingTreeNode<Integer>) area).getAggregate(FREE));
+
+        area.addChild(10, node(99));
+        root.addChild("area0", area);
+        assertEquals(19L, (long) root.getAggregate(FREE));
+        assertEquals(99, (int) root.getAggregate(MAX));
+
+        AggregatingTreeNode<Integer> unregistered = new AggregatingTreeNode<>();
+        unregistered.addChild(0, node(5));
+        unregistered.addChild(1, node(7));
+        root.getChild("area2").addChild(3, unregistered);
+        root.getChild("area2").addChild(1, node(0));
+        assertAggregates();
+    }
+
+    /**
+     * Test method for {@link AggregatingTreeNode#addChild(Object, TreeNode)} with a node
+     * of another type.
+     */
+    @Test(expected = IllegalStateException.class)
+    public final void testAddOtherNode() {
+        root.addChild("other", new TreeNodeImpl<>());
+    }
+
+    /**
+     * Test method for {@link AggregatingTreeNode#getAggregate(TreeAggregate)} with an
+     * aggregate that is not registered.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testUnregisteredAggregate() {
+        root.getAggregate(TreeAggregate.sum(Integer::longValue));
+    }
+}
\ No newline at end of file
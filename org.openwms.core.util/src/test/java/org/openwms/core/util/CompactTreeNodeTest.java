@@ -0,0 +1,228 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A CompactTreeNodeTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class CompactTreeNodeTest {
+
+    private CompactTreeNode<String> root;
+
+    @Before
+    public void onBefore() {
+        root = new CompactTreeNode<>("AREA");
+        for (int aisle = 0; aisle < 3; aisle++) {
+            CompactTreeNode<String> a = new CompactTreeNode<>("AISLE" + aisle);
+            root.addChild("A" + aisle, a);
+            for (int bin = 0; bin < 20; bin++) {
+                a.addChild("B" + bin, new CompactTreeNode<>("BIN" + bin));
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link CompactTreeNode#getChildren()}.
+     */
+    @Test
+    public final void testChildrenKeepOrderBeyondThreshold() {
+        TreeNode<String> aisle = root.getChild("A1");
+        List<Object> ids = new ArrayList<>();
+        for (Iterator<Map.Entry<Object, TreeNode<String>>> it = aisle.getChildren(); it.hasNext(); ) {
+            Map.Entry<Object, TreeNode<String>> child = it.next();
+            ids.add(child.getKey());
+            if ("B3".equals(child.getKey())) {
+                it.remove();
+            }
+        }
+        assertEquals(20, ids.size());
+        assertEquals("B19", ids.get(19));
+        assertNull(aisle.getChild("B3"));
+        assertEquals("BIN12", aisle.getChild("B12").getData());
+        assertEquals(19, ((CompactTreeNode<String>) aisle).getChildCount());
+        assertFalse(aisle.isLeaf());
+    }
+
+    /**
+     * Test method for {@link CompactTreeNode#findByPath(Object...)}.
+     */
+    @Test
+    public final void testPathIndexFollowsModifications() {
+        root.enablePathIndex();
+        assertEquals("BIN7", root.findByPath("A2", "B7").getData());
+
+        CompactTreeNode<String> level = new CompactTreeNode<>("LEVEL");
+        level.addChild("L1", new CompactTreeNode<>("BIN"));
+        ((CompactTreeNode<String>) root.findByPath("A2", "B7")).addChild("R1", level);
+        assertSame(level, root.findByPath("A2", "B7", "R1"));
+        assertEquals("BIN", root.findByPath("A2", "B7", "R1", "L1").getData());
+
+        root.getChild("A2").removeChild("B7");
+        assertNull(root.findByPath("A2", "B7"));
+        assertNull(root.findByPath("A2", "B7", "R1", "L1"));
+        assertEquals("BIN8", root.findByPath("A2", "B8").getData());
+    }
+
+    /**
+     * Test method for {@link CompactTreeNode#enablePathIndex()}.
+     */
+    @Test(expected = IllegalStateException.class)
+    public final void testPathIndexOnlyOnRoot() {
+        ((CompactTreeNode<String>) root.getChild("A0")).enablePathIndex();
+    }
+
+    /**
+     * Serialization keeps the path index.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public final void testSerialization() throws Exception {
+        root.enablePathIndex();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(root);
+        }
+        CompactTreeNode<String> read;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            read = (CompactTreeNode<String>) ois.readObject();
+        }
+        assertEquals("BIN19", read.findByPath("A0", "B19").getData());
+        assertSame(read, read.findByPath("A0", "B19").getParent().getParent());
+        assertTrue(read.findByPath("A0", "B19").isLeaf());
+    }
+
+    /**
+     * Test method for {@link CompactTreeNode#addChild(Object, TreeNode)} replacing a child
+     * of an indexed tree.
+     */
+    @Test
+    public final void testReplacedChildIsDetached() {
+        root.enablePathIndex();
+        CompactTreeNode<String> aisle = (CompactTreeNode<String>) root.getChild("A1");
+        CompactTreeNode<String> replaced = (CompactTreeNode<String>) aisle.getChild("B3");
+        CompactTreeNode<String> replacement = new CompactTreeNode<>("NEW");
+
+        aisle.addChild("B3", replacement);
+        assertNull(replaced.getParent());
+        assertSame(aisle, replacement.getParent());
+        assertSame(replacement, root.findByPath("A1", "B3"));
+
+        replaced.addChild("L1", new CompactTreeNode<>("LEVEL"));
+        assertNull("The detached subtree shall not modify the index", root.findByPath("A1", "B3", "L1"));
+        replacement.addChild("L1", new CompactTreeNode<>("LEVEL"));
+        assertEquals("LEVEL", root.findByPath("A1", "B3", "L1").getData());
+
+        aisle.addChild("B3", replacement);
+        assertSame("Adding the same child again shall keep it", aisle, replacement.getParent());
+        assertEquals("LEVEL", root.findByPath("A1", "B3", "L1").getData());
+    }
+
+    /**
+     * Test method for {@link CompactTreeNode#removeChild(Object)} with removals in mixed
+     * order and children added again.
+     */
+    @Test
+    public final void testRemoveAndAddAgain() {
+        CompactTreeNode<String> aisle = (CompactTreeNode<String>) root.getChild("A0");
+        for (int bin = 0; bin < 20; bin += 2) {
+            aisle.removeChild("B" + bin);
+        }
+        aisle.removeChild("B19");
+        aisle.addChild("B0", new CompactTreeNode<>("NEW"));
+
+        List<Object> ids = new ArrayList<>();
+        aisle.getChildren().forEachRemaining(e -> ids.add(e.getKey()));
+        assertEquals(Arrays.asList("B1", "B3", "B5", "B7", "B9", "B11", "B13", "B15", "B17", "B0"), ids);
+        assertEquals(10, aisle.getChildCount());
+        for (int bin = 1; bin < 19; bin += 2) {
+            assertEquals("BIN" + bin, aisle.getChild("B" + bin).getData());
+        }
+        assertEquals("NEW", aisle.getChild("B0").getData());
+        assertNull(aisle.getChild("B2"));
+        assertNull(aisle.getChild("B19"));
+    }
+
+    /**
+     * Test method for {@link CompactTreeNode#getChildren()} and
+     * {@link CompactTreeNode#removeChild(Object)} draining a node with many children.
+     */
+    @Test(timeout = 5_000)
+    public final void testDrainManyChildren() {
+        int children = 200_000;
+        CompactTreeNode<String> node = new CompactTreeNode<>();
+        for (int i = 0; i < children; i++) {
+            node.addChild(i, new CompactTreeNode<>());
+        }
+        int expected = 0;
+        for (Iterator<Map.Entry<Object, TreeNode<String>>> it = node.getChildren(); it.hasNext(); expected++) {
+            assertEquals(expected, it.next().getKey());
+            it.remove();
+        }
+        assertEquals(children, expected);
+        assertTrue(node.isLeaf());
+
+        for (int i = 0; i < children; i++) {
+            node.addChild(i, new CompactTreeNode<>());
+        }
+        for (int i = 0; i < children; i++) {
+            node.removeChild(i);
+            assertEquals(children - i - 1, node.getChildCount());
+        }
+        assertTrue(node.isLeaf());
+        assertNull(node.getChild(children - 1));
+    }
+
+    /**
+     * Serialization of a node with removed children.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public final void testSerializationAfterRemoval() throws Exception {
+        root.getChild("A1").removeChild("B5");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(root);
+        }
+        CompactTreeNode<String> read;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            read = (CompactTreeNode<String>) ois.readObject();
+        }
+        assertNull(read.findByPath("A1", "B5"));
+        assertEquals("BIN6", read.findByPath("A1", "B6").getData());
+        assertEquals(19, ((CompactTreeNode<String>) read.getChild("A1")).getChildCount());
+    }
+}
\ No newline at end of file
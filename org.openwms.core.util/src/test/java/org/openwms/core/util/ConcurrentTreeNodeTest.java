@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A ConcurrentTreeNodeTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class ConcurrentTreeNodeTest {
+
+    /**
+     * Test method for {@link ConcurrentTreeNode#addChild(Object, TreeNode)} and {@link
+     * ConcurrentTreeNode#removeChild(Object)} while readers iterate.
+     */
+    @Test
+    public final void testReadersSeeConsistentChildren() throws Exception {
+        ConcurrentTreeNode<String> root = new ConcurrentTreeNode<>("ROOT");
+        for (int i = 0; i < 20; i++) {
+            root.addChild(i, new ConcurrentTreeNode<>("STATIC" + i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(2);
+        Future<?> reader = executor.submit(() -> {
+            started.countDown();
+            while (running.get()) {
+                for (Iterator<Map.Entry<Object, TreeNode<String>>> it = root.getChildren(); it.hasNext(); ) {
+                    Map.Entry<Object, TreeNode<String>> child = it.next();
+                    if (child.getValue() == null || root.getChild(5) == null) {
+                        throw new IllegalStateException("Inconsistent snapshot");
+                    }
+                }
+            }
+        });
+        Future<?> writer = executor.submit(() -> {
+            started.countDown();
+            for (int i = 0; i < 10_000; i++) {
+                root.addChild("tmp" + (i % 50), new ConcurrentTreeNode<>("TMP"));
+                root.removeChild("tmp" + ((i + 25) % 50));
+            }
+        });
+        started.await();
+        writer.get(30, TimeUnit.SECONDS);
+        running.set(false);
+        reader.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals("STATIC5", root.getChild(5).getData());
+        assertSame(root, root.getChild(19).getParent());
+        assertNull(root.getChild("tmp10"));
+    }
+
+    /**
+     * Test method for {@link ConcurrentTreeNode#getChildren()}.
+     */
+    @Test
+    public final void testIteratorRemove() {
+        ConcurrentTreeNode<String> root = new ConcurrentTreeNode<>();
+        TreeNode<String> child = new ConcurrentTreeNode<>("A");
+        root.addChild("a", child);
+        root.addChild("b", new ConcurrentTreeNode<>("B"));
+        Iterator<Map.Entry<Object, TreeNode<String>>> it = root.getChildren();
+        it.next();
+        it.remove();
+
+        assertNull(root.getChild("a"));
+        assertNull(child.getParent());
+        assertEquals("B", it.next().getValue().getData());
+    }
+
+    /**
+     * Test method for {@link ConcurrentTreeNode#addChild(Object, TreeNode)} and {@link
+     * ConcurrentTreeNode#removeChild(Object)} adding, removing and moving children
+     * concurrently.
+     */
+    @Test
+    public final void testConcurrentAddRemoveAndMove() throws Exception {
+        ConcurrentTreeNode<String> left = new ConcurrentTreeNode<>("LEFT");
+        ConcurrentTreeNode<String> right = new ConcurrentTreeNode<>("RIGHT");
+        int threads = 4;
+        int moved = 25;
+        List<List<TreeNode<String>>> owned = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<TreeNode<String>> nodes = new ArrayList<>();
+            for (int i = 0; i < moved; i++) {
+                TreeNode<String> node = new ConcurrentTreeNode<>("M" + t + "-" + i);
+                left.addChild(node.getData(), node);
+                nodes.add(node);
+            }
+            owned.add(nodes);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                started.countDown();
+                started.await();
+                for (int round = 0; round < 2_000; round++) {
+                    ConcurrentTreeNode<String> from = round % 2 == 0 ? left : right;
+                    ConcurrentTreeNode<String> to = round % 2 == 0 ? right : left;
+                    for (TreeNode<String> node : owned.get(thread)) {
+                        to.addChild(node.getData(), node);
+                        from.removeChild(node.getData());
+                    }
+                    String transientId = "T" + thread + "-" + round;
+                    from.addChild(transientId, new ConcurrentTreeNode<>(transientId));
+                    from.removeChild(transientId);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(right.isLeaf());
+        int children = 0;
+        for (Iterator<Map.Entry<Object, TreeNode<String>>> it = left.getChildren(); it.hasNext(); children++) {
+            Map.Entry<Object, TreeNode<String>> child = it.next();
+            assertSame(left, child.getValue().getParent());
+            assertEquals(child.getKey(), child.getValue().getData());
+        }
+        assertEquals(threads * moved, children);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A TreeCodecTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class TreeCodecTest {
+
+    private List<TreeCodec<String>> codecs;
+    private TreeNode<String> root;
+
+    @Before
+    public void onBefore() {
+        codecs = Arrays.asList(
+                new BinaryTreeCodec<>(TreeNodeImpl::new, String.class),
+                new JsonTreeCodec<>(TreeNodeImpl::new, new ObjectMapper(), String.class)
+        );
+        root = node("root");
+        for (String id : new String[]{"a", "b", "c"}) {
+            TreeNode<String> child = node(id);
+            root.addChild(id, child);
+            for (int i = 0; i < 3; i++) {
+                TreeNode<String> grandChild = node(id + i);
+                child.addChild(i, grandChild);
+                grandChild.addChild(0, node(id + i + "0"));
+            }
+        }
+        root.getChild("b").getChild(1).setData(null);
+    }
+
+    private static TreeNode<String> node(String data) {
+        TreeNode<String> node = new TreeNodeImpl<>();
+        node.setData(data);
+        return node;
+    }
+
+    private static byte[] write(TreeCodec<String> codec, TreeNode<String> root) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(root, out);
+        return out.toByteArray();
+    }
+
+    private static List<String> preorder(TreeNode<String> root) {
+        return TreeNodes.depthFirst(root, false).map(TreeNode::getData).collect(Collectors.toList());
+    }
+
+    /**
+     * Test method for {@link TreeCodec#read(java.io.InputStream)}.
+     */
+    @Test
+    public final void testRoundTrip() throws IOException {
+        for (TreeCodec<String> codec : codecs) {
+            TreeNode<String> read = codec.read(new ByteArrayInputStream(write(codec, root)));
+
+            assertEquals(preorder(root), preorder(read));
+            assertEquals("a20", read.getChild("a").getChild(2).getChild(0).getData());
+            assertNull(read.getChild("b").getChild(1).getData());
+            assertNull(read.getParent());
+        }
+    }
+
+    /**
+     * Test method for {@link TreeCodec#read(java.io.InputStream, int)}.
+     */
+    @Test
+    public final void testReadTopLevels() throws IOException {
+        for (TreeCodec<String> codec : codecs) {
+            TreeNode<String> read = codec.read(new ByteArrayInputStream(write(codec, root)), 1);
+
+            assertEquals(Arrays.asList("root", "a", "b", "c"), preorder(read));
+            assertTrue(read.getChild("c").isLeaf());
+        }
+    }
+
+    /**
+     * Test method for {@link TreeCodec#readSubtree(java.io.InputStream, int, Object...)}.
+     */
+    @Test
+    public final void testReadSubtree() throws IOException {
+        for (TreeCodec<String> codec : codecs) {
+            byte[] encoded = write(codec, root);
+
+            TreeNode<String> subtree = codec.readSubtree(new ByteArrayInputStream(encoded), Integer.MAX_VALUE, "c");
+            assertEquals(Arrays.asList("c", "c0", "c00", "c1", "c10", "c2", "c20"), preorder(subtree));
+            assertNull(subtree.getParent());
+
+            subtree = codec.readSubtree(new ByteArrayInputStream(encoded), 0, "a", 2);
+            assertEquals(Arrays.asList("a2"), preorder(subtree));
+
+            subtree = codec.readSubtree(new ByteArrayInputStream(encoded), 1, "b", 2, 0);
+            assertEquals(Arrays.asList("b20"), preorder(subtree));
+
+            assertNull(codec.readSubtree(new ByteArrayInputStream(encoded), 1, "b", 3));
+            assertNull(codec.readSubtree(new ByteArrayInputStream(encoded), 1, "d"));
+            assertNull(codec.readSubtree(new ByteArrayInputStream(encoded), 1, "a", 0, 0, 0));
+        }
+    }
+
+    /**
+     * Test method for {@link TreeCodec#write(TreeNode, java.io.OutputStream)} with nodes
+     * whose encoded form crosses the initial buffer of the binary codec.
+     */
+    @Test
+    public final void testLargeNodes() throws IOException {
+        TreeNode<String> large = node("large");
+        for (int length = 1000; length < 1040; length++) {
+            char[] chars = new char[length];
+            Arrays.fill(chars, 'x');
+            String identifier = new String(chars);
+            large.addChild(identifier, node(identifier.substring(length - 1000)));
+        }
+        for (TreeCodec<String> codec : codecs) {
+            TreeNode<String> read = codec.read(new ByteArrayInputStream(write(codec, large)));
+
+            assertEquals(preorder(large), preorder(read));
+            for (Iterator<Map.Entry<Object, TreeNode<String>>> it = large.getChildren(); it.hasNext(); ) {
+                Map.Entry<Object, TreeNode<String>> child = it.next();
+                assertEquals(child.getValue().getData(), read.getChild(child.getKey()).getData());
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link TreeCodec#write(TreeNode, java.io.OutputStream)} with a tree
+     * deeper than the stack of recursive implementations.
+     */
+    @Test
+    public final void testDeepTree() throws IOException {
+        TreeNode<String> deep = node("0");
+        TreeNode<String> last = deep;
+        for (int i = 1; i < 100_000; i++) {
+            TreeNode<String> child = node(String.valueOf(i));
+            last.addChild(i, child);
+            last = child;
+        }
+        for (TreeCodec<String> codec : codecs) {
+            TreeNode<String> read = codec.read(new ByteArrayInputStream(write(codec, deep)));
+
+            List<String> data = preorder(read);
+            assertEquals(100_000, data.size());
+            assertEquals("99999", data.get(data.size() - 1));
+        }
+    }
+
+    /**
+     * Test method for {@link TreeCodec#readSubtree(java.io.InputStream, int, Object...)}
+     * reading from a stream that does not skip.
+     */
+    @Test
+    public final void testReadSubtreeWithoutSkipping() throws IOException {
+        for (TreeCodec<String> codec : codecs) {
+            byte[] encoded = write(codec, root);
+
+            TreeNode<String> subtree = codec.readSubtree(new NonSkippingInputStream(encoded), Integer.MAX_VALUE, "c");
+            assertEquals(Arrays.asList("c", "c0", "c00", "c1", "c10", "c2", "c20"), preorder(subtree));
+            try {
+                codec.readSubtree(new NonSkippingInputStream(Arrays.copyOf(encoded, encoded.length - 3)), 1, "d");
+                fail("Expected to fail on a truncated stream");
+            } catch (IOException expected) {
+                // ok
+            }
+        }
+    }
+
+    private static final class NonSkippingInputStream extends ByteArrayInputStream {
+
+        NonSkippingInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public synchronized long skip(long n) {
+            return 0;
+        }
+    }
+}
\ No newline at end of file
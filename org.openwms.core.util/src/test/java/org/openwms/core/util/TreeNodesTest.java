@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A TreeNodesTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class TreeNodesTest {
+
+    private TreeNode<Integer> root;
+    private int nodes;
+
+    @Before
+    public void onBefore() {
+        root = create(0, 0);
+    }
+
+    private TreeNode<Integer> create(int depth, int index) {
+        TreeNode<Integer> node = new TreeNodeImpl<>();
+        node.setData(nodes++);
+        for (int i = 0; depth < 4 && i < 3 + index % 5; i++) {
+            node.addChild(i, create(depth + 1, i));
+        }
+        return node;
+    }
+
+    private static void preorder(TreeNode<Integer> node, List<Integer> result) {
+        result.add(node.getData());
+        for (Iterator<Map.Entry<Object, TreeNode<Integer>>> it = node.getChildren(); it.hasNext(); ) {
+            preorder(it.next().getValue(), result);
+        }
+    }
+
+    /**
+     * Test method for {@link TreeNodes#depthFirst(TreeNode, boolean)}.
+     */
+    @Test
+    public final void testDepthFirstOrderInParallel() {
+        List<Integer> expected = new ArrayList<>();
+        preorder(root, expected);
+
+        assertEquals(expected, TreeNodes.depthFirst(root, false).map(TreeNode::getData).collect(Collectors.toList()));
+        assertEquals(expected, TreeNodes.depthFirst(root, true).map(TreeNode::getData).collect(Collectors.toList()));
+    }
+
+    /**
+     * Test method for {@link TreeNodes#breadthFirst(TreeNode, boolean)}.
+     */
+    @Test
+    public final void testBreadthFirstOrderInParallel() {
+        List<Integer> sequential = TreeNodes.breadthFirst(root, false).map(TreeNode::getData).collect(Collectors.toList());
+
+        assertEquals(nodes, sequential.size());
+        assertEquals(Integer.valueOf(0), sequential.get(0));
+        assertEquals(Integer.valueOf(1), sequential.get(1));
+        assertEquals(sequential, TreeNodes.breadthFirst(root, true).map(TreeNode::getData).collect(Collectors.toList()));
+    }
+
+    /**
+     * Test method for {@link TreeNodes#fold(TreeNode, Object, java.util.function.BiFunction, java.util.function.BinaryOperator)}.
+     */
+    @Test
+    public final void testFoldFilterAndFind() {
+        long sum = TreeNodes.fold(root, 0L, (s, data) -> s + data, Long::sum);
+
+        assertEquals((long) nodes * (nodes - 1) / 2, sum);
+        assertEquals(nodes / 2, TreeNodes.filter(root, data -> data % 2 == 1).size());
+        assertEquals(Integer.valueOf(42), TreeNodes.find(root, data -> data == 42).get().getData());
+        assertTrue(!TreeNodes.find(root, data -> data < 0).isPresent());
+    }
+
+    /**
+     * Test method for {@link TreeNodes#map(TreeNode, java.util.function.Function, java.util.function.Supplier)}.
+     */
+    @Test
+    public final void testMapKeepsStructure() {
+        TreeNode<String> mapped = TreeNodes.map(root, String::valueOf, CompactTreeNode::new);
+
+        assertEquals(
+                TreeNodes.depthFirst(root, false).map(n -> String.valueOf(n.getData())).collect(Collectors.toList()),
+                TreeNodes.depthFirst(mapped, false).map(TreeNode::getData).collect(Collectors.toList()));
+        assertEquals(root.getChild(2).getChild(1).getData().toString(), mapped.getChild(2).getChild(1).getData());
+    }
+
+    /**
+     * Test method for {@link TreeNodes#map(TreeNode, java.util.function.Function, java.util.function.Supplier)}
+     * with nodes that maintain state across the tree.
+     */
+    @Test
+    public final void testMapToAggregatingAndIndexedNodes() {
+        TreeAggregate.Group<Integer, Long> sum = TreeAggregate.sum(Integer::longValue);
+        AtomicBoolean first = new AtomicBoolean(true);
+        AggregatingTreeNode<Integer> aggregated = (AggregatingTreeNode<Integer>) TreeNodes.map(root, data -> data, () -> {
+            AggregatingTreeNode<Integer> node = new AggregatingTreeNode<>();
+            if (first.getAndSet(false)) {
+                node.register(sum);
+            }
+            return node;
+        });
+        assertEquals(Long.valueOf((long) nodes * (nodes - 1) / 2), aggregated.getAggregate(sum));
+        TreeNode<Integer> child = root.getChild(2);
+        assertEquals(Long.valueOf(TreeNodes.fold(child, 0L, (s, data) -> s + data, Long::sum)),
+                ((AggregatingTreeNode<Integer>) aggregated.getChild(2)).getAggregate(sum));
+
+        first.set(true);
+        CompactTreeNode<Integer> indexed = (CompactTreeNode<Integer>) TreeNodes.map(root, data -> data, () -> {
+            CompactTreeNode<Integer> node = new CompactTreeNode<>();
+            if (first.getAndSet(false)) {
+                node.enablePathIndex();
+            }
+            return node;
+        });
+        for (Iterator<Map.Entry<Object, TreeNode<Integer>>> a = root.getChildren(); a.hasNext(); ) {
+            Map.Entry<Object, TreeNode<Integer>> level1 = a.next();
+            for (Iterator<Map.Entry<Object, TreeNode<Integer>>> b = level1.getValue().getChildren(); b.hasNext(); ) {
+                Map.Entry<Object, TreeNode<Integer>> level2 = b.next();
+                assertEquals(level2.getValue().getData(), indexed.findByPath(level1.getKey(), level2.getKey()).getData());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A DecimalTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class DecimalTest {
+
+    /**
+     * Test method for the arithmetic of {@link Decimal}.
+     */
+    @Test
+    public final void testArithmetic() {
+        Decimal a = Decimal.parse("1.25");
+        Decimal b = Decimal.valueOf(3);
+
+        assertEquals("4.25", a.add(b).toString());
+        assertEquals("-1.75", a.subtract(b).toString());
+        assertEquals("3.75", a.multiply(b).toString());
+        assertEquals("0.417", a.divide(b, 3, RoundingMode.HALF_EVEN).toString());
+        assertEquals("1.2", a.setScale(1, RoundingMode.HALF_EVEN).toString());
+        assertEquals("-1.3", a.negate().setScale(1, RoundingMode.HALF_UP).toString());
+        assertEquals("-1.2", a.negate().setScale(1, RoundingMode.CEILING).toString());
+        assertEquals("1.2500", a.setScale(4, RoundingMode.UNNECESSARY).toString());
+        assertEquals(1.25, a.doubleValue(), 0);
+        assertEquals(1, a.longValue());
+        assertEquals(3, a.precision());
+    }
+
+    /**
+     * Test method for {@link Decimal#equals(Object)} of different scales.
+     */
+    @Test
+    public final void testEquality() {
+        assertEquals(Decimal.parse("1.50"), Decimal.parse("1.5"));
+        assertEquals(Decimal.parse("1.50").hashCode(), Decimal.parse("1.5").hashCode());
+        assertEquals(Decimal.ZERO, Decimal.valueOf(0, 7));
+        assertNotEquals(Decimal.parse("1.51"), Decimal.parse("1.5"));
+        assertTrue(Decimal.parse("0.999999999999999999").compareTo(Decimal.valueOf(Long.MAX_VALUE)) < 0);
+    }
+
+    /**
+     * Test method for the fallback of {@link Decimal} to BigDecimal on overflow.
+     */
+    @Test
+    public final void testOverflow() {
+        Decimal large = Decimal.valueOf(Long.MAX_VALUE);
+        Decimal sum = large.add(Decimal.parse("0.5"));
+
+        assertEquals(new BigDecimal(Long.MAX_VALUE).add(new BigDecimal("0.5")), sum.toBigDecimal());
+        assertEquals(large.multiply(10).toBigDecimal(), new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.TEN));
+        assertEquals("Results that fit again are compact", large, sum.subtract(Decimal.parse("0.5")));
+        assertEquals(large.hashCode(), sum.subtract(Decimal.parse("0.5")).hashCode());
+        assertEquals(Decimal.parse("1E+20"), Decimal.valueOf(10_000_000_000L).multiply(Decimal.valueOf(10_000_000_000L)));
+        assertEquals(Decimal.ONE, Decimal.parse("0.000000001").multiply(Decimal.parse("1000000000.0000000000")));
+    }
+
+    /**
+     * Test method for {@link Decimal#setScale(int, RoundingMode)} and {@link
+     * Decimal#divide(Decimal, int, RoundingMode)} with results that do not fit into a
+     * mantissa at the requested scale.
+     */
+    @Test
+    public final void testScaleBeyondMantissa() {
+        Decimal scaled = Decimal.valueOf(10_000_000_000_000L).setScale(6, RoundingMode.UNNECESSARY);
+
+        assertEquals(6, scaled.scale());
+        assertEquals(new BigDecimal("10000000000000.000000"), scaled.toBigDecimal());
+        assertEquals(Decimal.valueOf(10_000_000_000_000L), scaled);
+        Decimal quotient = Decimal.valueOf(20_000_000_000_000L).divide(Decimal.valueOf(2), 6, RoundingMode.UNNECESSARY);
+        assertEquals(6, quotient.scale());
+        assertEquals("10000000000000.000000", quotient.toString());
+    }
+
+    /**
+     * Test method for {@link Decimal#divide(Decimal, int, RoundingMode)} with a necessary
+     * rounding.
+     */
+    @Test(expected = ArithmeticException.class)
+    public final void testRoundingNecessary() {
+        Decimal.ONE.divide(Decimal.valueOf(3), 2, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Test method for {@link DecimalMeasure}.
+     */
+    @Test
+    public final void testDecimalMeasure() {
+        DecimalMeasure<WeightUnit> weight = DecimalMeasure.of(Decimal.parse("1.125"), WeightUnit.KG);
+
+        assertEquals("1125.000 G", weight.convertTo(WeightUnit.G).toString());
+        assertEquals("0.001125 T", weight.convertTo(WeightUnit.T).toString());
+        assertEquals(weight, DecimalMeasure.of(Decimal.valueOf(1125), WeightUnit.G));
+        assertEquals("1.625 KG", weight.add(DecimalMeasure.of(Decimal.valueOf(500), WeightUnit.G)).toString());
+        assertEquals("1.08 DOZ", DecimalMeasure.of(Decimal.valueOf(13), PieceUnit.PC).convertTo(PieceUnit.DOZ).toString());
+        assertTrue(weight.compareTo(DecimalMeasure.of(Decimal.valueOf(1), WeightUnit.KG)) > 0);
+    }
+}
\ No newline at end of file
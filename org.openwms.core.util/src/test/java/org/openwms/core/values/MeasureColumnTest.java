@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A MeasureColumnTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class MeasureColumnTest {
+
+    private final MeasureColumn<Weight, WeightUnit> column = Weight.column(new long[]{1500, -250, 4000, 0, 999}, WeightUnit.G);
+
+    /**
+     * Test method for the aggregations of {@link MeasureColumn}.
+     */
+    @Test
+    public final void testAggregate() {
+        assertEquals(5, column.size());
+        assertEquals(Weight.of(6249, WeightUnit.G), column.sum());
+        assertEquals(WeightUnit.G, column.sum().getUnitType());
+        assertEquals(Weight.of(-250, WeightUnit.G), column.min());
+        assertEquals(Weight.of(4, WeightUnit.KG), column.max());
+        assertEquals(Weight.of(1500, WeightUnit.G), column.get(0));
+    }
+
+    /**
+     * Test method for {@link MeasureColumn#convertTo(ScaledBaseUnit)} and {@link
+     * MeasureColumn#toDoubleArray(ScaledBaseUnit)}.
+     */
+    @Test
+    public final void testConvert() {
+        MeasureColumn<Weight, WeightUnit> converted = column.convertTo(WeightUnit.KG);
+
+        assertEquals("4 KG", converted.max().toString());
+        assertArrayEquals(new double[]{1.5, -0.25, 4, 0, 0.999}, converted.toDoubleArray(WeightUnit.KG), 0);
+        assertArrayEquals(column.getBaseMagnitudes(), converted.getBaseMagnitudes());
+    }
+
+    /**
+     * Test method for {@link MeasureColumn#count(LongMeasure, LongMeasure)} and {@link
+     * MeasureColumn#filter(LongMeasure, LongMeasure)}.
+     */
+    @Test
+    public final void testRange() {
+        Weight lower = Weight.of(0, WeightUnit.KG);
+        Weight upper = Weight.of(1500, WeightUnit.G);
+
+        assertEquals(3, column.count(lower, upper));
+        assertArrayEquals(new int[]{0, 3, 4}, column.filter(lower, upper));
+        assertArrayEquals(new int[0], column.filter(upper, lower));
+    }
+
+    /**
+     * Test method for overflows of {@link MeasureColumn}.
+     */
+    @Test
+    public final void testOverflow() {
+        try {
+            Weight.column(new long[]{1, Long.MAX_VALUE / 10}, WeightUnit.G);
+            throw new AssertionError("Expected an overflow when scaling to the base unit");
+        } catch (ArithmeticException expected) {
+            // expected
+        }
+        MeasureColumn<Piece, PieceUnit> pieces = Piece.column(new long[]{Long.MAX_VALUE / 2, -1, Long.MAX_VALUE / 2}, PieceUnit.PC);
+        assertEquals(Long.MAX_VALUE - 2, pieces.sum().getBaseMagnitude());
+        try {
+            Piece.column(new long[]{Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, 2}, PieceUnit.PC).sum();
+            throw new AssertionError("Expected an overflow of the sum");
+        } catch (ArithmeticException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Test method for {@link MeasureColumn#max()} of an empty column.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public final void testEmpty() {
+        assertEquals(Weight.ZERO, Weight.column(new long[0], WeightUnit.T).sum());
+        Weight.column(new long[0], WeightUnit.T).max();
+    }
+}
\ No newline at end of file
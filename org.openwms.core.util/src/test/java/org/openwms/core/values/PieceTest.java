@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A PieceTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class PieceTest {
+
+    /**
+     * Test method for conversions of {@link Piece}s that are not exact.
+     */
+    @Test
+    public final void testConvert() {
+        Piece pieces = Piece.of(18, PieceUnit.PC);
+
+        assertEquals("1.5 DOZ", pieces.convertTo(PieceUnit.DOZ).toString());
+        assertEquals("13 PC", pieces.subtract(Piece.of(5, PieceUnit.PC)).toString());
+        assertEquals(1.0833333, pieces.convertTo(PieceUnit.DOZ).subtract(Piece.of(5, PieceUnit.PC)).doubleValue(), 1e-6);
+        assertEquals(Piece.of(3, PieceUnit.DOZ), Piece.of(36, PieceUnit.PC));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A UnitTableTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class UnitTableTest {
+
+    private final UnitTable<WeightUnit> weights = UnitTable.of(WeightUnit.class);
+
+    /**
+     * Test method for {@link UnitTable#getUnits()}.
+     */
+    @Test
+    public final void testSharedUnits() {
+        assertSame(weights, UnitTable.of(WeightUnit.KG));
+        assertSame(WeightUnit.G.getAll(), WeightUnit.T.getAll());
+        assertEquals(Arrays.asList(WeightUnit.values()), weights.getUnits());
+        assertEquals(WeightUnit.MG, weights.getBaseUnit());
+        assertSame(WeightUnit.T, weights.getUnit(WeightUnit.T.getCode()));
+    }
+
+    /**
+     * Test method for {@link UnitTable#getUnit(short)} with an unknown code.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testUnknownCode() {
+        weights.getUnit((short) 42);
+    }
+
+    /**
+     * Test method for {@link UnitTable#getUnits()} to be immutable.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testImmutableUnits() {
+        List<PieceUnit> units = PieceUnit.PC.getAll();
+        units.set(0, PieceUnit.DOZ);
+    }
+
+    /**
+     * Test method for {@link UnitTable#convert(double, ScaledBaseUnit, ScaledBaseUnit)}.
+     */
+    @Test
+    public final void testConvert() {
+        assertEquals(1000, weights.getRatio(WeightUnit.KG, WeightUnit.G), 0);
+        assertEquals(2.5, weights.convert(2500, WeightUnit.G, WeightUnit.KG), 1e-12);
+        assertEquals(1.5, UnitTable.of(PieceUnit.class).convert(18, PieceUnit.PC, PieceUnit.DOZ), 0);
+    }
+
+    /**
+     * Test method for {@link UnitTable#convertExact(long, ScaledBaseUnit, ScaledBaseUnit)}.
+     */
+    @Test
+    public final void testConvertExact() {
+        assertEquals(3_000, weights.convertExact(3, WeightUnit.T, WeightUnit.KG));
+        assertEquals(3, weights.convertExact(3_000_000, WeightUnit.G, WeightUnit.T));
+        assertEquals(42, weights.convertExact(42, WeightUnit.G, WeightUnit.G));
+        assertEquals(1500, Weight.of(1500, WeightUnit.G).convertTo(WeightUnit.KG).longValueExact(WeightUnit.G));
+    }
+
+    /**
+     * Test method for {@link UnitTable#convertExact(long, ScaledBaseUnit, ScaledBaseUnit)}
+     * with a magnitude that is not integral in the target unit.
+     */
+    @Test(expected = ArithmeticException.class)
+    public final void testConvertNotIntegral() {
+        UnitTable.of(LengthUnit.class).convertExact(1500, LengthUnit.M, LengthUnit.KM);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A WeightTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class WeightTest {
+
+    /**
+     * Test method for {@link Weight#of(BigDecimal, WeightUnit)} and conversion.
+     */
+    @Test
+    public final void testCreateAndConvert() {
+        Weight weight = Weight.of(new BigDecimal("1.5"), WeightUnit.KG);
+
+        assertEquals(1_500_000L, weight.getBaseMagnitude());
+        assertEquals(1.5, weight.getMagnitude(), 0);
+        assertEquals("1.5 KG", weight.toString());
+        assertEquals(1500, weight.convertTo(WeightUnit.G).doubleValue(), 0);
+        assertEquals(WeightUnit.G, weight.convertTo(WeightUnit.G).getUnitType());
+        assertSame(weight, weight.convertTo(WeightUnit.KG));
+        assertEquals(Weight.of(1500, WeightUnit.G), weight);
+        assertEquals(Weight.of(1500, WeightUnit.G).hashCode(), weight.hashCode());
+        assertEquals(WeightUnit.MG, WeightUnit.T.getBaseUnit());
+    }
+
+    /**
+     * Test method for the arithmetic of {@link LongMeasure}.
+     */
+    @Test
+    public final void testArithmetic() {
+        Weight weight = Weight.of(2, WeightUnit.KG).add(Weight.of(250, WeightUnit.G)).multiply(2);
+        assertEquals("4.5 KG", weight.toString());
+
+        Weight difference = Weight.of(1, WeightUnit.G).subtract(weight);
+        assertTrue(difference.isNegative());
+        assertEquals(WeightUnit.G, difference.getUnitType());
+        assertEquals(-4499, difference.doubleValue(), 0);
+        assertTrue(difference.compareTo(Weight.ZERO) < 0);
+        assertTrue(weight.subtract(weight).isZero());
+        assertFalse(weight.isZero());
+    }
+
+    /**
+     * Test method for {@link Weight#of(BigDecimal, WeightUnit)} with a fraction of the
+     * base unit.
+     */
+    @Test(expected = ArithmeticException.class)
+    public final void testFractionOfBaseUnit() {
+        Weight.of(new BigDecimal("0.0001"), WeightUnit.G);
+    }
+
+    /**
+     * Test method for {@link Weight#multiply(long)} with an overflow.
+     */
+    @Test(expected = ArithmeticException.class)
+    public final void testOverflow() {
+        Weight.of(1, WeightUnit.T).multiply(Long.MAX_VALUE / 1000);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 Heiko Scherrer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openwms.core.values.jpa;
+
+import org.junit.Test;
+import org.openwms.core.values.Decimal;
+import org.openwms.core.values.Piece;
+import org.openwms.core.values.PieceUnit;
+import org.openwms.core.values.Weight;
+import org.openwms.core.values.WeightUnit;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * A MeasureTypesTest.
+ *
+ * @author <a href="mailto:scherrer@openwms.org">Heiko Scherrer</a>
+ */
+public class MeasureTypesTest {
+
+    /** Parameters bound to a statement and read from a result set, by index. */
+    private final Map<Integer, Object> columns = new HashMap<>();
+
+    private PreparedStatement statement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            columns.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+            return null;
+        });
+    }
+
+    private ResultSet resultSet() {
+        Object[] last = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            if (method.getName().equals("wasNull")) {
+                return last[0] == null;
+            }
+            last[0] = columns.get(Integer.valueOf((String) args[0]));
+            if (last[0] == null) {
+                return method.getReturnType() == short.class ? (Object) (short) 0 : (Object) 0L;
+            }
+            return last[0];
+        });
+    }
+
+    /**
+     * Test method for the {@link UnitCodeConverter}s and {@link EmbeddedWeight}.
+     */
+    @Test
+    public final void testConverterAndEmbeddable() {
+        WeightUnitConverter converter = new WeightUnitConverter();
+        assertEquals(Short.valueOf((short) 3), converter.convertToDatabaseColumn(WeightUnit.KG));
+        assertSame(WeightUnit.KG, converter.convertToEntityAttribute((short) 3));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertSame(PieceUnit.DOZ, new PieceUnitConverter().convertToEntityAttribute((short) 2));
+
+        EmbeddedWeight embedded = new EmbeddedWeight(Weight.of(5, WeightUnit.KG));
+        assertEquals(5_000_000, embedded.getBaseMagnitude());
+        assertEquals("5 KG", embedded.toWeight().toString());
+    }
+
+    /**
+     * Test method for {@link LongMeasureType} with a round trip through JDBC.
+     */
+    @Test
+    public final void testLongMeasureType() throws SQLException {
+        WeightType type = new WeightType();
+        type.nullSafeSet(statement(), Weight.of(1500, WeightUnit.G), 1, null);
+        assertEquals(1_500_000L, columns.get(1));
+        assertEquals((short) 2, columns.get(2));
+
+        Weight read = (Weight) type.nullSafeGet(resultSet(), new String[]{"1", "2"}, null, null);
+        assertEquals("1500 G", read.toString());
+        assertEquals(1_500_000L, type.getPropertyValue(read, 0));
+        assertFalse("A changed unit must be detected", type.equals(read, read.convertTo(WeightUnit.KG)));
+
+        type.nullSafeSet(statement(), null, 1, null);
+        assertNull(type.nullSafeGet(resultSet(), new String[]{"1", "2"}, null, null));
+
+        columns.put(1, 24L);
+        assertEquals(Piece.of(2, PieceUnit.DOZ), new PieceType().nullSafeGet(resultSet(), new String[]{"1", "2"}, null, null));
+    }
+
+    /**
+     * Test method for {@link DecimalType} with a round trip through JDBC.
+     */
+    @Test
+    public final void testDecimalType() throws SQLException {
+        DecimalType type = new DecimalType();
+        Properties parameters = new Properties();
+        parameters.setProperty(DecimalType.SCALE, "3");
+        type.setParameterValues(parameters);
+
+        type.nullSafeSet(statement(), Decimal.parse("12.5"), 1, null);
+        assertEquals(12_500L, columns.get(1));
+        assertEquals(Decimal.parse("12.5"), type.nullSafeGet(resultSet(), new String[]{"1"}, null, null));
+    }
+
+    /**
+     * Test method for {@link DecimalType} with a value that has more fractional digits
+     * than the scale.
+     */
+    @Test(expected = ArithmeticException.class)
+    public final void testDecimalTypeRejectsRounding() throws SQLException {
+        new DecimalType().nullSafeSet(statement(), Decimal.parse("0.0000001"), 1, null);
+    }
+
+    /**
+     * Test method for {@link DecimalType} with a value that does not fit into a {@code
+     * BIGINT} at the scale.
+     */
+    @Test
+    public final void testDecimalTypeRejectsOverflow() throws SQLException {
+        DecimalType type = new DecimalType();
+        type.nullSafeSet(statement(), Decimal.valueOf(9_000_000_000_000L), 1, null);
+        assertEquals(Decimal.valueOf(9_000_000_000_000L), type.nullSafeGet(resultSet(), new String[]{"1"}, null, null));
+        try {
+            type.nullSafeSet(statement(), Decimal.valueOf(10_000_000_000_000L), 1, null);
+            fail("10^13 does not fit into a BIGINT at scale 6");
+        } catch (ArithmeticException expected) {
+            // ok
+        }
+    }
+}
\ No newline at end of file